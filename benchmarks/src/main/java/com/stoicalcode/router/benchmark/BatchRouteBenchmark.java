@@ -0,0 +1,49 @@
+package com.stoicalcode.router.benchmark;
+
+import com.stoicalcode.router.model.BatchRouteResultDto;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.RoutePairDto;
+import com.stoicalcode.router.service.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch route searches: 1000 random pairs, and all the pairs of countries.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchRouteBenchmark {
+
+    @Param({"random-1000", "all-pairs"})
+    private String batch;
+
+    private RoutingService routingService;
+    private List<RoutePairDto> pairs;
+
+    @Setup
+    public void setUp() {
+        CountryService countryService = CountryData.countryService();
+        SearchBuffersPool searchBuffersPool = new SearchBuffersPool();
+        routingService = CountryData.routingService(countryService,
+                new CompactBreadthFirstSearchCountryService(countryService, searchBuffersPool), searchBuffersPool, 0);
+
+        CountryGraph countryGraph = CountryData.countryGraph(countryService);
+        pairs = switch (batch) {
+            case "random-1000" -> CountryData.randomPairs(countryGraph, 1000);
+            case "all-pairs" -> CountryData.allPairs(countryGraph);
+            default -> throw new IllegalArgumentException("Unknown batch: " + batch);
+        };
+    }
+
+    @Benchmark
+    public List<BatchRouteResultDto> findLandRoutes() throws IOException {
+        return routingService.findLandRoutes(pairs);
+    }
+}
@@ -0,0 +1,114 @@
+package com.stoicalcode.router.benchmark;
+
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.RouteTree;
+import com.stoicalcode.router.model.RoutePairDto;
+import com.stoicalcode.router.service.ConstrainedSearchCountryService;
+import com.stoicalcode.router.service.CountryService;
+import com.stoicalcode.router.service.RouteCache;
+import com.stoicalcode.router.service.RouteTreeSearch;
+import com.stoicalcode.router.service.RoutingService;
+import com.stoicalcode.router.service.SearchBuffersPool;
+import com.stoicalcode.router.service.SearchCountryService;
+import com.stoicalcode.router.service.WeightedSearchCountryService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Access to the pinned {@code countries.json} snapshot bundled with the benchmarks, and to representative pairs of
+ * countries of it.
+ */
+final class CountryData {
+    private static final String COUNTRIES_RESOURCE = "/countries.json";
+
+    private CountryData() {
+    }
+
+    static byte[] countriesJson() {
+        try (InputStream inputStream = CountryData.class.getResourceAsStream(COUNTRIES_RESOURCE)) {
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static CountryService countryService() {
+        CountryService countryService = new CountryService();
+        countryService.setCountryDataUrl(CountryData.class.getResource(COUNTRIES_RESOURCE).toString());
+        return countryService;
+    }
+
+    /**
+     * Returns a routing service wired like the application, with the given hops engine and route cache size.
+     */
+    static RoutingService routingService(CountryService countryService, SearchCountryService searchCountryService,
+                                         SearchBuffersPool searchBuffersPool, long routeCacheSize) {
+        WeightedSearchCountryService weightedSearchCountryService = new WeightedSearchCountryService(countryService);
+        return new RoutingService(searchCountryService, weightedSearchCountryService,
+                new ConstrainedSearchCountryService(countryService, searchBuffersPool, weightedSearchCountryService),
+                countryService, searchBuffersPool, new RouteCache(routeCacheSize, null));
+    }
+
+    static CountryGraph countryGraph(CountryService countryService) {
+        try {
+            return countryService.getCountryGraph();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns a pair of neighbors for {@code short}, a pair half as far apart as the farthest connected pair for
+     * {@code medium} and the farthest connected pair for {@code longest}. Ties are broken by ordinal, so the same
+     * pair is chosen on every run.
+     */
+    static RoutePairDto pair(CountryGraph countryGraph, String distance) {
+        int diameter = 0;
+        for (int source = 0; source < countryGraph.size(); source++) {
+            RouteTree routeTree = RouteTreeSearch.search(countryGraph, source);
+            diameter = Math.max(diameter, routeTree.hopsTo(routeTree.reachedAt(routeTree.reachedCount() - 1)));
+        }
+
+        int hops = switch (distance) {
+            case "short" -> 1;
+            case "medium" -> diameter / 2;
+            case "longest" -> diameter;
+            default -> throw new IllegalArgumentException("Unknown distance: " + distance);
+        };
+        for (int source = 0; source < countryGraph.size(); source++) {
+            RouteTree routeTree = RouteTreeSearch.search(countryGraph, source);
+            for (int i = 0; i < routeTree.reachedCount(); i++) {
+                int target = routeTree.reachedAt(i);
+                if (routeTree.hopsTo(target) == hops) {
+                    return new RoutePairDto(countryGraph.cca3Of(source), countryGraph.cca3Of(target));
+                }
+            }
+        }
+        throw new IllegalStateException("No pair " + hops + " hops apart");
+    }
+
+    static List<RoutePairDto> allPairs(CountryGraph countryGraph) {
+        List<RoutePairDto> pairs = new ArrayList<>(countryGraph.size() * countryGraph.size());
+        for (int origin = 0; origin < countryGraph.size(); origin++) {
+            for (int destination = 0; destination < countryGraph.size(); destination++) {
+                pairs.add(new RoutePairDto(countryGraph.cca3Of(origin), countryGraph.cca3Of(destination)));
+            }
+        }
+        return pairs;
+    }
+
+    static List<RoutePairDto> randomPairs(CountryGraph countryGraph, int count) {
+        Random random = new Random(42);
+        List<RoutePairDto> pairs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pairs.add(new RoutePairDto(countryGraph.cca3Of(random.nextInt(countryGraph.size())),
+                    countryGraph.cca3Of(random.nextInt(countryGraph.size()))));
+        }
+        return pairs;
+    }
+}
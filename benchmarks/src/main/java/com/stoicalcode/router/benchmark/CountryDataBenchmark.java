@@ -0,0 +1,100 @@
+package com.stoicalcode.router.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.CountryValidationResponseDto;
+import com.stoicalcode.router.model.RoutePairDto;
+import com.stoicalcode.router.service.CountryDataParser;
+import com.stoicalcode.router.service.CountryService;
+import com.stoicalcode.router.service.CountrySnapshotFile;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading of the country data (JSON parsing, with data binding and with the streaming parser, snapshot file
+ * reading and snapshot building) and validation of origin/destination pairs.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CountryDataBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CountryDataParser countryDataParser = new CountryDataParser();
+    private byte[] countriesJson;
+    private List<CountryDto> countries;
+    private Path countrySnapshotFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        countriesJson = CountryData.countriesJson();
+        countries = Arrays.asList(objectMapper.readValue(countriesJson, CountryDto[].class));
+        countrySnapshotFile = Files.createTempFile("countries", ".snapshot");
+        CountrySnapshotFile.write(new CountryGraph(countries, 1, Instant.EPOCH, null, null), Instant.now(),
+                countrySnapshotFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(countrySnapshotFile);
+    }
+
+    @Benchmark
+    public CountryDto[] parseCountriesDataBinding() throws IOException {
+        return objectMapper.readValue(new ByteArrayInputStream(countriesJson), CountryDto[].class);
+    }
+
+    @Benchmark
+    public List<CountryDto> parseCountriesStreaming() throws IOException {
+        return countryDataParser.parse(new ByteArrayInputStream(countriesJson));
+    }
+
+    @Benchmark
+    public CountrySnapshotFile.Contents readCountrySnapshot() throws IOException {
+        return CountrySnapshotFile.read(countrySnapshotFile);
+    }
+
+    @Benchmark
+    public CountryGraph buildCountryGraph() {
+        return new CountryGraph(countries, 1, Instant.EPOCH, null, null);
+    }
+
+    @Benchmark
+    public CountryValidationResponseDto validateCountries(Validation validation)
+            throws InvalidCountryException, PathNotFoundException {
+        return validation.countryService.validateCountries(validation.countryGraph, validation.pair.origin(),
+                validation.pair.destination());
+    }
+
+    @State(Scope.Benchmark)
+    public static class Validation {
+
+        @Param({"short", "longest"})
+        private String distance;
+
+        private CountryService countryService;
+        private CountryGraph countryGraph;
+        private RoutePairDto pair;
+
+        @Setup
+        public void setUp() {
+            countryService = CountryData.countryService();
+            countryGraph = CountryData.countryGraph(countryService);
+            pair = CountryData.pair(countryGraph, distance);
+        }
+    }
+}
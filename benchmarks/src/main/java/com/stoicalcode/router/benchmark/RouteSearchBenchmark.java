@@ -0,0 +1,66 @@
+package com.stoicalcode.router.benchmark;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.RouteMetric;
+import com.stoicalcode.router.model.RoutePairDto;
+import com.stoicalcode.router.service.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single route searches of every search engine, and of the weighted search with the distance metrics, between
+ * neighbors, countries half the diameter of the border graph apart and the farthest countries.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteSearchBenchmark {
+
+    @Param({"bfs", "compact-bfs", "precomputed", "bidirectional", "distance", "capital-distance"})
+    private String engine;
+
+    @Param({"short", "medium", "longest"})
+    private String distance;
+
+    private RouteCache.RouteSearch routeSearch;
+    private RoutePairDto pair;
+
+    @Setup
+    public void setUp() throws IOException, InvalidCountryException, PathNotFoundException {
+        CountryService countryService = CountryData.countryService();
+        SearchBuffersPool searchBuffersPool = new SearchBuffersPool();
+        pair = CountryData.pair(CountryData.countryGraph(countryService), distance);
+        SearchCountryService searchCountryService = switch (engine) {
+            case "bfs" -> new BreadthFirstSearchCountryService(countryService);
+            case "compact-bfs" -> new CompactBreadthFirstSearchCountryService(countryService, searchBuffersPool);
+            case "precomputed" -> new PrecomputedRouteSearchCountryService(countryService);
+            case "bidirectional" -> new BidirectionalSearchCountryService(countryService, searchBuffersPool);
+            default -> null;
+        };
+        if (searchCountryService != null) {
+            routeSearch = () -> searchCountryService.findLandRoute(pair.origin(), pair.destination());
+        } else {
+            WeightedSearchCountryService weightedSearchCountryService =
+                    new WeightedSearchCountryService(countryService);
+            RouteMetric metric = RouteMetric.fromParameter(engine);
+            if (metric == null) {
+                throw new IllegalArgumentException("Unknown engine: " + engine);
+            }
+            routeSearch = () -> weightedSearchCountryService.findLandRoute(pair.origin(), pair.destination(), metric);
+        }
+        // builds the per snapshot structures, e.g. the routing table, outside the measurements
+        routeSearch.findLandRoute();
+    }
+
+    @Benchmark
+    public List<String> findLandRoute() throws IOException, InvalidCountryException, PathNotFoundException {
+        return routeSearch.findLandRoute();
+    }
+}
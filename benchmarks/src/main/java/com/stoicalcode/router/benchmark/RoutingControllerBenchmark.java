@@ -0,0 +1,69 @@
+package com.stoicalcode.router.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stoicalcode.router.controller.RoutingController;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.RoutePairDto;
+import com.stoicalcode.router.service.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end requests through {@link RoutingController}, up to the JSON response body, with and without the route
+ * cache, and with route responses rendered on every request or pre-rendered.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoutingControllerBenchmark {
+
+    @Param({"0", "10000"})
+    private long routeCacheSize;
+
+    @Param({"none", "lazy"})
+    private String rendering;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RoutingController routingController;
+    private RoutePairDto pair;
+    private List<RoutePairDto> batch;
+
+    @Setup
+    public void setUp() {
+        CountryService countryService = CountryData.countryService();
+        RoutingService routingService = CountryData.routingService(countryService,
+                new BreadthFirstSearchCountryService(countryService), new SearchBuffersPool(), routeCacheSize);
+        RouteResponseRenderer routeResponseRenderer = new RouteResponseRenderer(countryService);
+        routeResponseRenderer.setRendering(rendering);
+        routingController = new RoutingController(routingService, objectMapper);
+        routingController.setBatchStreamingThreshold(Integer.MAX_VALUE);
+        routingController.setRouteResponseRenderer(routeResponseRenderer);
+
+        CountryGraph countryGraph = CountryData.countryGraph(countryService);
+        pair = CountryData.pair(countryGraph, "medium");
+        batch = CountryData.randomPairs(countryGraph, 100);
+    }
+
+    @Benchmark
+    public byte[] findLandRoute() throws JsonProcessingException {
+        ServletWebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest(),
+                new MockHttpServletResponse());
+        Object body = routingController.findLandRoute(pair.origin(), pair.destination(), "hops", null, null, null,
+                null, webRequest).getBody();
+        return body instanceof byte[] renderedBody ? renderedBody : objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] findLandRoutes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(routingController.findLandRoutes(batch, null).getBody());
+    }
+}
@@ -0,0 +1,81 @@
+package com.stoicalcode.router.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Local stand-in for the country data source: serves the pinned {@code countries.json} bundled with the load test,
+ * with an {@code ETag}, so the service loads and refreshes its country data without reaching the network.
+ */
+final class CountryDataStub implements AutoCloseable {
+    private static final String COUNTRIES_RESOURCE = "/countries.json";
+    private static final String COUNTRIES_PATH = "/countries.json";
+
+    private final HttpServer server;
+    private final byte[] countriesJson;
+    private final String etag;
+
+    private CountryDataStub(HttpServer server, byte[] countriesJson) {
+        this.server = server;
+        this.countriesJson = countriesJson;
+        this.etag = '"' + sha256(countriesJson) + '"';
+    }
+
+    static CountryDataStub start() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        CountryDataStub stub = new CountryDataStub(server, countriesJson());
+        server.createContext(COUNTRIES_PATH, stub::handle);
+        server.start();
+        return stub;
+    }
+
+    static byte[] countriesJson() {
+        try (InputStream inputStream = CountryDataStub.class.getResourceAsStream(COUNTRIES_RESOURCE)) {
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    String url() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + COUNTRIES_PATH;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, countriesJson.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(countriesJson);
+            }
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.stoicalcode.router.loadtest;
+
+import com.stoicalcode.router.model.RoutePairDto;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One step of the load test: {@code concurrency} closed-loop workers, each sending its next route request as soon as
+ * the previous one is answered, for a fixed duration.
+ * <p>
+ * Being closed-loop, the workers slow down together with the service, so the latencies are those of the requests
+ * actually sent; they understate what an open stream of users would see once the service saturates.
+ */
+final class LoadStep {
+    private static final long HIGHEST_TRACKABLE_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final String query;
+    private final PairMix pairMix;
+
+    LoadStep(HttpClient client, URI baseUri, String query, PairMix pairMix) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.query = query;
+        this.pairMix = pairMix;
+    }
+
+    Result run(int concurrency, Duration duration, long seed) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        List<Worker> workers = new ArrayList<>(concurrency);
+        List<Thread> threads = new ArrayList<>(concurrency);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            Worker worker = new Worker(seeds.split(), deadline);
+            workers.add(worker);
+            threads.add(Thread.ofPlatform().name("load-worker-" + i).start(worker));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        Histogram latencies = new Histogram(HIGHEST_TRACKABLE_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+        long errors = 0;
+        for (Worker worker : workers) {
+            latencies.add(worker.latencies);
+            errors += worker.errors;
+        }
+        return new Result(concurrency, Duration.ofNanos(elapsedNanos), latencies.getTotalCount(), errors, latencies);
+    }
+
+    private HttpRequest request(RoutePairDto pair) {
+        String path = "/routing/" + pair.origin() + "/" + pair.destination() + (query.isEmpty() ? "" : "?" + query);
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private final class Worker implements Runnable {
+        private final SplittableRandom random;
+        private final long deadline;
+        private final Histogram latencies = new Histogram(HIGHEST_TRACKABLE_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+        private long errors;
+
+        private Worker(SplittableRandom random, long deadline) {
+            this.random = random;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            while (System.nanoTime() < deadline) {
+                HttpRequest request = request(pairMix.next(random));
+                long startNanos = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 200) {
+                        errors++;
+                    }
+                } catch (IOException e) {
+                    errors++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+                latencies.recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_LATENCY_MICROS));
+            }
+        }
+    }
+
+    /**
+     * Outcome of a step. Failed requests, transport errors and non-200 responses alike, are counted as errors and
+     * their latencies are recorded together with the successful ones.
+     */
+    record Result(int concurrency, Duration elapsed, long requests, long errors, Histogram latencies) {
+
+        double throughput() {
+            return requests / (elapsed.toNanos() / 1e9);
+        }
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        double percentileMillis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        double maxMillis() {
+            return latencies.getMaxValue() / 1000.0;
+        }
+    }
+}
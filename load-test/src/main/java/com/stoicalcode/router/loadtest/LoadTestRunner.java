@@ -0,0 +1,129 @@
+package com.stoicalcode.router.loadtest;
+
+import com.stoicalcode.router.RouterApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Replays a Zipf-skewed mix of {@code /routing} requests at stepped concurrency and reports throughput, latency
+ * percentiles and error rates per step.
+ * <p>
+ * Unless {@code --target} points to a running service, the service is started in process on a random port, loading
+ * its country data from a local stub that serves the pinned {@code countries.json}, so no network is involved.
+ * Options:
+ * <ul>
+ *     <li>{@code --steps=1,4,16,64}: concurrency of every step</li>
+ *     <li>{@code --step-duration=PT20S}, {@code --warmup=PT10S}: duration of every step and of the unmeasured
+ *     warm-up run at the highest concurrency</li>
+ *     <li>{@code --zipf-exponent=1.0}, {@code --seed=42}: skew and order of the pair mix</li>
+ *     <li>{@code --query=metric=distance}: query string added to every request</li>
+ *     <li>{@code --report=file.csv}: also writes the results as CSV, to compare builds</li>
+ *     <li>{@code --target=http://host:port}: loads a running service instead</li>
+ * </ul>
+ * Any other {@code --name=value} option is passed to the service started in process, for instance
+ * {@code --route-search-engine=precomputed}.
+ */
+@Slf4j
+public class LoadTestRunner {
+    private static final List<String> OPTIONS = List.of("steps", "step-duration", "warmup", "zipf-exponent", "seed",
+            "query", "report", "target");
+    private static final String CSV_HEADER = "concurrency,requests,errors,throughput,p50_ms,p99_ms,p99.9_ms,max_ms";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        List<String> serviceArgs = new ArrayList<>();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            if (OPTIONS.contains(option[0])) {
+                options.put(option[0], option.length > 1 ? option[1] : "");
+            } else {
+                serviceArgs.add(arg);
+            }
+        }
+
+        int[] steps = Arrays.stream(options.getOrDefault("steps", "1,4,16,64").split(","))
+                .mapToInt(step -> Integer.parseInt(step.trim()))
+                .toArray();
+        Duration stepDuration = Duration.parse(options.getOrDefault("step-duration", "PT20S"));
+        Duration warmup = Duration.parse(options.getOrDefault("warmup", "PT10S"));
+        double zipfExponent = Double.parseDouble(options.getOrDefault("zipf-exponent", "1.0"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        String query = options.getOrDefault("query", "");
+
+        PairMix pairMix = PairMix.zipf(CountryDataStub.countriesJson(), zipfExponent, seed);
+        log.info("Replaying {} pairs with Zipf exponent {}, the top 100 pairs taking {}% of the requests",
+                pairMix.size(), zipfExponent, String.format(Locale.ROOT, "%.1f", pairMix.topShare(100) * 100));
+
+        try (CountryDataStub stub = CountryDataStub.start();
+             ConfigurableApplicationContext service = options.containsKey("target") ? null
+                     : startService(stub, serviceArgs)) {
+            URI baseUri = URI.create(service == null ? options.get("target")
+                    : "http://localhost:" + ((WebServerApplicationContext) service).getWebServer().getPort());
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            LoadStep loadStep = new LoadStep(client, baseUri, query, pairMix);
+
+            int maxConcurrency = Arrays.stream(steps).max().orElse(1);
+            log.info("Warming up {} for {} with {} workers", baseUri, warmup, maxConcurrency);
+            loadStep.run(maxConcurrency, warmup, seed);
+
+            List<LoadStep.Result> results = new ArrayList<>();
+            for (int concurrency : steps) {
+                log.info("Running {} workers for {}", concurrency, stepDuration);
+                results.add(loadStep.run(concurrency, stepDuration, seed + concurrency));
+            }
+
+            print(results, System.out);
+            if (options.containsKey("report")) {
+                writeCsv(results, Path.of(options.get("report")));
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startService(CountryDataStub stub, List<String> serviceArgs) {
+        List<String> args = new ArrayList<>(List.of("--server.port=0", "--country-data-url=" + stub.url()));
+        args.addAll(serviceArgs);
+        log.info("Starting the service with {}", args);
+        return SpringApplication.run(RouterApplication.class, args.toArray(String[]::new));
+    }
+
+    private static void print(List<LoadStep.Result> results, PrintStream out) {
+        out.printf("%n%11s %10s %8s %12s %9s %9s %9s %9s%n", "concurrency", "requests", "errors", "throughput/s",
+                "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (LoadStep.Result result : results) {
+            out.printf(Locale.ROOT, "%11d %10d %7.2f%% %12.1f %9.3f %9.3f %9.3f %9.3f%n", result.concurrency(),
+                    result.requests(), result.errorRate() * 100, result.throughput(), result.percentileMillis(50),
+                    result.percentileMillis(99), result.percentileMillis(99.9), result.maxMillis());
+        }
+    }
+
+    private static void writeCsv(List<LoadStep.Result> results, Path report) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(CSV_HEADER);
+        for (LoadStep.Result result : results) {
+            lines.add(String.format(Locale.ROOT, "%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f", result.concurrency(),
+                    result.requests(), result.errors(), result.throughput(), result.percentileMillis(50),
+                    result.percentileMillis(99), result.percentileMillis(99.9), result.maxMillis()));
+        }
+        Files.write(report, lines);
+        log.info("Report written to {}", report.toAbsolutePath());
+    }
+}
@@ -0,0 +1,75 @@
+package com.stoicalcode.router.loadtest;
+
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.RoutePairDto;
+import com.stoicalcode.router.model.RouteTree;
+import com.stoicalcode.router.service.CountryDataParser;
+import com.stoicalcode.router.service.RouteTreeSearch;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Skewed mix of route requests: all the pairs of countries connected by land, shuffled with a fixed seed and drawn
+ * with Zipf probabilities, so the pair of rank {@code k} is requested {@code 1 / k^exponent} times as often as the
+ * most popular one. A few pairs take most of the traffic, as with real users, while the long tail still misses the
+ * caches.
+ */
+final class PairMix {
+
+    private final List<RoutePairDto> pairs;
+    private final double[] cumulativeProbabilities;
+
+    private PairMix(List<RoutePairDto> pairs, double[] cumulativeProbabilities) {
+        this.pairs = pairs;
+        this.cumulativeProbabilities = cumulativeProbabilities;
+    }
+
+    static PairMix zipf(byte[] countriesJson, double exponent, long seed) throws IOException {
+        CountryGraph countryGraph = new CountryGraph(
+                new CountryDataParser().parse(new ByteArrayInputStream(countriesJson)), 0, Instant.now(), null, null);
+
+        List<RoutePairDto> pairs = new ArrayList<>();
+        for (int origin = 0; origin < countryGraph.size(); origin++) {
+            RouteTree routeTree = RouteTreeSearch.search(countryGraph, origin);
+            for (int i = 1; i < routeTree.reachedCount(); i++) {
+                pairs.add(new RoutePairDto(countryGraph.cca3Of(origin), countryGraph.cca3Of(routeTree.reachedAt(i))));
+            }
+        }
+        Collections.shuffle(pairs, new Random(seed));
+
+        double[] cumulativeProbabilities = new double[pairs.size()];
+        double total = 0;
+        for (int rank = 0; rank < pairs.size(); rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulativeProbabilities[rank] = total;
+        }
+        for (int rank = 0; rank < pairs.size(); rank++) {
+            cumulativeProbabilities[rank] /= total;
+        }
+        return new PairMix(pairs, cumulativeProbabilities);
+    }
+
+    int size() {
+        return pairs.size();
+    }
+
+    /**
+     * Returns the probability of the {@code count} most popular pairs together.
+     */
+    double topShare(int count) {
+        return cumulativeProbabilities[Math.min(count, pairs.size()) - 1];
+    }
+
+    RoutePairDto next(SplittableRandom random) {
+        int rank = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble());
+        return pairs.get(Math.min(rank < 0 ? -rank - 1 : rank, pairs.size() - 1));
+    }
+}
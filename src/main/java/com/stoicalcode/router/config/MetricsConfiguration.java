@@ -0,0 +1,42 @@
+package com.stoicalcode.router.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Replaces the default JSON message converter with one that times the serialization of every response body.
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter timedJsonMessageConverter(ObjectMapper objectMapper,
+                                                                         MeterRegistry meterRegistry) {
+        Timer serializationTimer = Timer.builder("router.response.serialization")
+                .description("Serialization of the JSON response bodies")
+                .register(meterRegistry);
+
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                long startNanos = System.nanoTime();
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    serializationTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+        };
+    }
+}
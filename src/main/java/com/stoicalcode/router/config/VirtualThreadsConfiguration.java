@@ -0,0 +1,25 @@
+package com.stoicalcode.router.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every HTTP request on its own virtual thread instead of the bounded Tomcat worker pool, so requests waiting
+ * on I/O, e.g. on the first country data load, do not exhaust the pool.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "request-threads", havingValue = "virtual")
+public class VirtualThreadsConfiguration {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        log.info("Handling requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
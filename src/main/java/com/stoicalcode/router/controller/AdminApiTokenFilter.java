@@ -0,0 +1,66 @@
+package com.stoicalcode.router.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Guards the {@code /admin} endpoints, which change the routes served to everybody, with the shared secret of
+ * {@code admin-api-token}: requests without it in their {@code X-Admin-Token} header get an HTTP 401 Unauthorized.
+ * The admin API refuses to start without a token.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "admin-api-enabled", havingValue = "true")
+public class AdminApiTokenFilter extends OncePerRequestFilter {
+
+    static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+    private static final String ADMIN_PATH = "/admin/";
+    private static final String MISSING_TOKEN_ERROR = "admin-api-token must be set when admin-api-enabled is true";
+    private static final String UNAUTHORIZED_ERROR = "missing or invalid " + ADMIN_TOKEN_HEADER + " header";
+
+    private final byte[] adminToken;
+
+    @Autowired
+    public AdminApiTokenFilter(@Value("${admin-api-token:}") String adminToken) {
+        if (adminToken.isBlank()) {
+            throw new IllegalStateException(MISSING_TOKEN_ERROR);
+        }
+        this.adminToken = adminToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().substring(request.getContextPath().length()).startsWith(ADMIN_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String token = request.getHeader(ADMIN_TOKEN_HEADER);
+        // constant time, so the token can not be guessed from response times
+        if (token == null || !MessageDigest.isEqual(adminToken, token.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Rejected admin request {} {} from {}", request.getMethod(), request.getRequestURI(),
+                    request.getRemoteAddr());
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write(UNAUTHORIZED_ERROR);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,33 @@
+package com.stoicalcode.router.controller;
+
+import com.stoicalcode.router.model.CountryDataInfoDto;
+import com.stoicalcode.router.service.CountryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@Slf4j
+@RestController
+public class CountryDataController {
+
+    private final CountryService countryService;
+
+    @Autowired
+    public CountryDataController(CountryService countryService) {
+        this.countryService = countryService;
+    }
+
+    @GetMapping("/country-data")
+    public ResponseEntity<?> getCountryDataInfo() {
+        try {
+            return ResponseEntity.ok(CountryDataInfoDto.of(countryService.getCountryGraph()));
+        } catch (IOException e) {
+            log.error("Internal error occurred: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(e.getMessage());
+        }
+    }
+}
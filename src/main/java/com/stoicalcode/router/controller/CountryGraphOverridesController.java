@@ -0,0 +1,83 @@
+package com.stoicalcode.router.controller;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.CountryGraphOverridesDto;
+import com.stoicalcode.router.service.CountryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Admin API to open and close borders and to make countries unavailable on top of the loaded country data. Every
+ * change takes effect immediately, with a new country data version, and lasts until it is reverted or the service
+ * restarts. Only enabled with {@code admin-api-enabled: true}, and only for requests carrying the
+ * {@code admin-api-token}, as checked by {@link AdminApiTokenFilter}.
+ */
+@Slf4j
+@RestController
+@ConditionalOnProperty(name = "admin-api-enabled", havingValue = "true")
+public class CountryGraphOverridesController {
+
+    private final CountryService countryService;
+
+    @Autowired
+    public CountryGraphOverridesController(CountryService countryService) {
+        this.countryService = countryService;
+    }
+
+    @GetMapping("/admin/overrides")
+    public ResponseEntity<?> getOverrides() {
+        return respond(countryService::getCountryGraph);
+    }
+
+    @DeleteMapping("/admin/overrides")
+    public ResponseEntity<?> clearOverrides() {
+        return respond(countryService::clearOverrides);
+    }
+
+    @PutMapping("/admin/borders/{country1}/{country2}")
+    public ResponseEntity<?> openBorder(@PathVariable String country1, @PathVariable String country2) {
+        return respond(() -> countryService.openBorder(country1, country2));
+    }
+
+    @DeleteMapping("/admin/borders/{country1}/{country2}")
+    public ResponseEntity<?> closeBorder(@PathVariable String country1, @PathVariable String country2) {
+        return respond(() -> countryService.closeBorder(country1, country2));
+    }
+
+    @PutMapping("/admin/unavailable-countries/{country}")
+    public ResponseEntity<?> makeCountryUnavailable(@PathVariable String country) {
+        return respond(() -> countryService.setCountryUnavailable(country, true));
+    }
+
+    @DeleteMapping("/admin/unavailable-countries/{country}")
+    public ResponseEntity<?> makeCountryAvailable(@PathVariable String country) {
+        return respond(() -> countryService.setCountryUnavailable(country, false));
+    }
+
+    private static ResponseEntity<?> respond(OverridesUpdate update) {
+        try {
+            return ResponseEntity.ok(CountryGraphOverridesDto.of(update.apply()));
+        } catch (InvalidCountryException e) {
+            log.error(e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            log.error("Internal error occurred: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface OverridesUpdate {
+        CountryGraph apply() throws IOException, InvalidCountryException;
+    }
+}
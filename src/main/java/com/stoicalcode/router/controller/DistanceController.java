@@ -0,0 +1,51 @@
+package com.stoicalcode.router.controller;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.service.DistanceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@Slf4j
+@RestController
+public class DistanceController {
+
+    private final DistanceService distanceService;
+
+    @Autowired
+    public DistanceController(DistanceService distanceService) {
+        this.distanceService = distanceService;
+    }
+
+    /**
+     * Returns the number of border crossings of the fewest hops land route, without the route itself.
+     */
+    @GetMapping("/distance/{origin}/{destination}")
+    public ResponseEntity<?> findDistance(@PathVariable String origin, @PathVariable String destination) {
+        try {
+            return ResponseEntity.ok(distanceService.findDistance(origin, destination));
+        } catch (InvalidCountryException | PathNotFoundException e) {
+            log.error(e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            log.error("Internal error occurred: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/distance-oracle")
+    public ResponseEntity<?> getDistanceOracleStats() {
+        try {
+            return ResponseEntity.ok(distanceService.getStats());
+        } catch (IOException e) {
+            log.error("Internal error occurred: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.stoicalcode.router.controller;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.service.GraphStatsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@Slf4j
+@RestController
+public class GraphStatsController {
+
+    private static final String INVALID_TOP_ERROR = "top must not be negative: %d";
+
+    private final GraphStatsService graphStatsService;
+
+    @Autowired
+    public GraphStatsController(GraphStatsService graphStatsService) {
+        this.graphStatsService = graphStatsService;
+    }
+
+    /**
+     * Returns the number of countries and connected components, the diameter of the border graph with one of its
+     * longest routes, and the {@code top} countries crossed by most fewest hops land routes.
+     */
+    @GetMapping("/graph/stats")
+    public ResponseEntity<?> getGraphStats(@RequestParam(defaultValue = "10") int top) {
+        if (top < 0) {
+            return ResponseEntity.badRequest().body(String.format(INVALID_TOP_ERROR, top));
+        }
+
+        try {
+            return ResponseEntity.ok(graphStatsService.getGraphStats(top));
+        } catch (IOException e) {
+            log.error("Internal error occurred: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the degree, eccentricity and betweenness of every country, by decreasing betweenness.
+     */
+    @GetMapping("/graph/stats/countries")
+    public ResponseEntity<?> getCountryStats() {
+        try {
+            return ResponseEntity.ok(graphStatsService.getCountryStats());
+        } catch (IOException e) {
+            log.error("Internal error occurred: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/graph/stats/countries/{country}")
+    public ResponseEntity<?> getCountryStats(@PathVariable String country) {
+        try {
+            return ResponseEntity.ok(graphStatsService.getCountryStats(country));
+        } catch (InvalidCountryException e) {
+            log.error(e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            log.error("Internal error occurred: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.stoicalcode.router.controller;
+
+import com.stoicalcode.router.model.RouteCacheStatsDto;
+import com.stoicalcode.router.service.RouteCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class RouteCacheController {
+
+    private final RouteCache routeCache;
+
+    @Autowired
+    public RouteCacheController(RouteCache routeCache) {
+        this.routeCache = routeCache;
+    }
+
+    @GetMapping("/route-cache")
+    public RouteCacheStatsDto getRouteCacheStats() {
+        return routeCache.getStats();
+    }
+}
@@ -0,0 +1,119 @@
+package com.stoicalcode.router.controller;
+
+import com.stoicalcode.router.exception.AdmissionRejectedException;
+import com.stoicalcode.router.service.AdmissionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Puts the {@link AdmissionService} in front of the {@code /routing} endpoints, weighting every request by its
+ * estimated number of route searches:
+ * <ul>
+ *     <li>a route costs 1, times the {@code alternatives} asked for, times the legs between the {@code via}
+ *     countries;</li>
+ *     <li>a route tree costs 1, as it is searched once per snapshot;</li>
+ *     <li>a batch costs its number of pairs, estimated from the length of its body, which is only read by the
+ *     controller; batches of unknown length cost the most.</li>
+ * </ul>
+ * Clients are told apart by their address or, when {@code routing-admission-client-header} is set, by that header,
+ * falling back to their address without it. Clients can put anything in a header, so one should only be configured
+ * behind a proxy setting it.
+ * Rejected requests get an HTTP 429 Too Many Requests with a {@code Retry-After} header, before any work is done.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "routing-admission-enabled", havingValue = "true")
+public class RoutingAdmissionFilter extends OncePerRequestFilter {
+
+    private static final String ROUTING_PATH = "/routing/";
+    private static final String BATCH_PATH = "/routing/batch";
+    private static final int ESTIMATED_PAIR_BYTES = 40;
+
+    private final AdmissionService admissionService;
+
+    @Value("${routing-admission-client-header:}")
+    @Setter
+    private String clientHeader = "";
+
+    @Autowired
+    public RoutingAdmissionFilter(AdmissionService admissionService) {
+        this.admissionService = admissionService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !pathOf(request).startsWith(ROUTING_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        int admittedCost;
+        try {
+            admittedCost = admissionService.admit(clientOf(request), estimateCost(request));
+        } catch (AdmissionRejectedException e) {
+            log.debug(e.getMessage());
+            long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write(e.getMessage());
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            admissionService.release(admittedCost);
+        }
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String client = clientHeader.isEmpty() ? null : request.getHeader(clientHeader);
+        return client != null && !client.isBlank() ? client : request.getRemoteAddr();
+    }
+
+    static int estimateCost(HttpServletRequest request) {
+        if (BATCH_PATH.equals(pathOf(request))) {
+            long length = request.getContentLengthLong();
+            return length < 0 ? Integer.MAX_VALUE : (int) Math.min(Integer.MAX_VALUE, length / ESTIMATED_PAIR_BYTES);
+        }
+
+        long cost = 1;
+        String alternatives = request.getParameter("alternatives");
+        if (alternatives != null) {
+            try {
+                cost *= Math.max(1, Integer.parseInt(alternatives));
+            } catch (NumberFormatException e) {
+                // left to the controller to reject
+            }
+        }
+        String[] via = request.getParameterValues("via");
+        if (via != null) {
+            int legs = 1;
+            for (String countries : via) {
+                legs += countries.split(",").length;
+            }
+            cost *= legs;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, cost);
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
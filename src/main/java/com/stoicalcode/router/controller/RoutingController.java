@@ -1,34 +1,143 @@
 package com.stoicalcode.router.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stoicalcode.router.exception.InvalidCountryException;
 import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.BatchRouteResultDto;
+import com.stoicalcode.router.model.Region;
+import com.stoicalcode.router.model.RouteConstraints;
+import com.stoicalcode.router.model.RouteMetric;
+import com.stoicalcode.router.model.RoutePairDto;
 import com.stoicalcode.router.model.RouteResponseDto;
+import com.stoicalcode.router.model.RouteTree;
+import com.stoicalcode.router.model.RouteTreeResponseDto;
+import com.stoicalcode.router.service.RouteResponseRenderer;
 import com.stoicalcode.router.service.RoutingService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @RestController
 public class RoutingController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final String ROUTES_VIEW = "routes";
+    private static final String TREE_VIEW = "tree";
+    private static final String INVALID_MAX_HOPS_ERROR = "maxHops must not be negative: %d";
+    private static final String INVALID_VIEW_ERROR = "view must be 'routes' or 'tree': '%s'";
+    private static final String INVALID_ALTERNATIVES_ERROR = "alternatives must be between 1 and %d: %d";
+    private static final String INVALID_REGION_ERROR = "unknown region: '%s'";
+    private static final String CONSTRAINED_ALTERNATIVES_ERROR =
+            "alternatives can not be combined with avoid, via or regions";
+    private static final String INVALID_METRIC_ERROR = "metric must be 'hops', 'distance' or 'capital-distance': '%s'";
+    private static final String BATCH_TOO_LARGE_ERROR = "batch must not have more than %d pairs: %d";
+
     private final RoutingService routingService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${routing-batch-streaming-threshold:1000}")
+    @Setter
+    private int batchStreamingThreshold;
+
+    @Value("${routing-batch-max-pairs:10000}")
+    @Setter
+    private int batchMaxPairs = 10000;
+
+    @Value("${routing-alternatives-max-count:10}")
+    @Setter
+    private int alternativesMaxCount = 10;
+
+    @Autowired(required = false)
+    @Setter
+    private RouteResponseRenderer routeResponseRenderer;
 
     @Autowired
-    public RoutingController(RoutingService routingService) {
+    public RoutingController(RoutingService routingService, ObjectMapper objectMapper) {
         this.routingService = routingService;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * Finds the land route minimizing {@code metric}: border crossings ({@code hops}, the default) or great-circle
+     * kilometers between the centroids ({@code distance}) or the capitals ({@code capital-distance}) of the
+     * countries crossed. With {@code alternatives=k} up to {@code k} cheapest loopless routes are returned instead,
+     * {@code k} being capped by {@code routing-alternatives-max-count}.
+     * <p>
+     * The route can be constrained to {@code avoid} some countries, to pass through the {@code via} countries in
+     * order and to only cross countries of the given {@code regions}, all of them comma-separated lists.
+     * <p>
+     * Unconstrained fewest hops routes are written from their pre-rendered bytes when
+     * {@code route-response-rendering} is enabled, in place of the search engine and the route cache, tagged with an
+     * ETag so clients can revalidate them cheaply.
+     */
     @GetMapping("/routing/{origin}/{destination}")
-    public ResponseEntity<?> findLandRoute(@PathVariable String origin, @PathVariable String destination) {
+    public ResponseEntity<?> findLandRoute(@PathVariable String origin, @PathVariable String destination,
+                                           @RequestParam(defaultValue = "hops") String metric,
+                                           @RequestParam(required = false) Integer alternatives,
+                                           @RequestParam(required = false) List<String> avoid,
+                                           @RequestParam(required = false) List<String> via,
+                                           @RequestParam(required = false) List<String> regions,
+                                           WebRequest webRequest) {
+        RouteMetric routeMetric = RouteMetric.fromParameter(metric);
+        if (routeMetric == null) {
+            return ResponseEntity.badRequest().body(String.format(INVALID_METRIC_ERROR, metric));
+        }
+        if (routeResponseRenderer != null && routeMetric == RouteMetric.HOPS && alternatives == null
+                && avoid == null && via == null && regions == null) {
+            try {
+                RouteResponseRenderer.RenderedRoute renderedRoute =
+                        routeResponseRenderer.findRenderedRoute(origin, destination);
+                if (renderedRoute != null) {
+                    if (webRequest.checkNotModified(renderedRoute.etag())) {
+                        return null;
+                    }
+                    return ResponseEntity.ok()
+                            .eTag(renderedRoute.etag())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(renderedRoute.body());
+                }
+            } catch (IOException e) {
+                log.error("Internal error occurred: {}", e.getMessage());
+                return ResponseEntity.internalServerError().body(e.getMessage());
+            }
+        }
+        if (alternatives != null && (alternatives < 1 || alternatives > alternativesMaxCount)) {
+            return ResponseEntity.badRequest()
+                    .body(String.format(INVALID_ALTERNATIVES_ERROR, alternativesMaxCount, alternatives));
+        }
+        Set<Region> routeRegions = EnumSet.noneOf(Region.class);
+        for (String region : regions != null ? regions : List.<String>of()) {
+            Region routeRegion = regionOf(region);
+            if (routeRegion == null) {
+                return ResponseEntity.badRequest().body(String.format(INVALID_REGION_ERROR, region));
+            }
+            routeRegions.add(routeRegion);
+        }
+        RouteConstraints constraints = new RouteConstraints(avoid, via, routeRegions);
+        if (alternatives != null && !constraints.isEmpty()) {
+            return ResponseEntity.badRequest().body(CONSTRAINED_ALTERNATIVES_ERROR);
+        }
+
         try {
-            List<String> route = routingService.findLandRoute(origin, destination);
+            if (alternatives != null) {
+                return ResponseEntity.ok(routingService.findAlternativeRoutes(origin, destination, routeMetric,
+                        alternatives));
+            }
+            List<String> route = routingService.findLandRoute(origin, destination, routeMetric, constraints);
             return ResponseEntity.ok(new RouteResponseDto(route));
 
         } catch (InvalidCountryException | PathNotFoundException e) {
@@ -39,4 +148,98 @@ public class RoutingController {
             return ResponseEntity.internalServerError().body(e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Finds the land routes from the origin to every country reachable from it, optionally only up to
+     * {@code maxHops} border crossings. {@code view=tree} returns the parent of every destination instead of its
+     * full route. Responses are tagged with the country data version, so clients can revalidate them cheaply.
+     */
+    @GetMapping("/routing/{origin}")
+    public ResponseEntity<?> findRouteTree(@PathVariable String origin,
+                                           @RequestParam(required = false) Integer maxHops,
+                                           @RequestParam(defaultValue = ROUTES_VIEW) String view,
+                                           WebRequest webRequest) {
+        if (maxHops != null && maxHops < 0) {
+            return ResponseEntity.badRequest().body(String.format(INVALID_MAX_HOPS_ERROR, maxHops));
+        }
+        if (!ROUTES_VIEW.equals(view) && !TREE_VIEW.equals(view)) {
+            return ResponseEntity.badRequest().body(String.format(INVALID_VIEW_ERROR, view));
+        }
+
+        try {
+            RouteTree routeTree = routingService.findRouteTree(origin);
+            String cca3 = routeTree.getCountryGraph().cca3Of(routeTree.getSource());
+            String etag = String.format("\"%d-%s-%s-%s\"", routeTree.getCountryGraph().getVersion(), cca3,
+                    maxHops != null ? maxHops : "all", view);
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+
+            int hops = maxHops != null ? maxHops : Integer.MAX_VALUE;
+            RouteTreeResponseDto body = ROUTES_VIEW.equals(view)
+                    ? RouteTreeResponseDto.routes(routeTree, hops)
+                    : RouteTreeResponseDto.parents(routeTree, hops);
+            return ResponseEntity.ok().eTag(etag).body(body);
+
+        } catch (InvalidCountryException e) {
+            log.error(e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            log.error("Internal error occurred: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the land routes of a batch of origin/destination pairs. Batches larger than
+     * {@code routing-batch-streaming-threshold} are streamed back as NDJSON, one result per line as soon as it is
+     * known, instead of being buffered into a JSON array in the order of the pairs. Batches of more than
+     * {@code routing-batch-max-pairs} are rejected.
+     * <p>
+     * Once streaming has started the status can no longer be changed, so a failure aborts the response instead.
+     */
+    @PostMapping("/routing/batch")
+    public ResponseEntity<?> findLandRoutes(@RequestBody List<RoutePairDto> pairs, HttpServletResponse response) {
+        if (pairs.size() > batchMaxPairs) {
+            return ResponseEntity.badRequest().body(String.format(BATCH_TOO_LARGE_ERROR, batchMaxPairs, pairs.size()));
+        }
+
+        try {
+            if (pairs.size() > batchStreamingThreshold) {
+                response.setContentType(APPLICATION_NDJSON_VALUE);
+                OutputStream outputStream = response.getOutputStream();
+                routingService.findLandRoutes(pairs, (result, index) -> writeLine(outputStream, result));
+                outputStream.flush();
+                return null;
+            }
+
+            return ResponseEntity.ok(routingService.findLandRoutes(pairs));
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Internal error occurred: {}", e.getMessage());
+            if (response.isCommitted()) {
+                throw e instanceof UncheckedIOException unchecked
+                        ? unchecked
+                        : new UncheckedIOException((IOException) e);
+            }
+            return ResponseEntity.internalServerError().body(e.getMessage());
+        }
+    }
+
+    private void writeLine(OutputStream outputStream, BatchRouteResultDto result) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(result));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Region regionOf(String region) {
+        for (Region value : Region.values()) {
+            if (value.name().equalsIgnoreCase(region)) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.stoicalcode.router.exception;
+
+import java.time.Duration;
+
+public class AdmissionRejectedException extends Exception {
+
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
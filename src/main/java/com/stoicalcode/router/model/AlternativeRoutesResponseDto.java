@@ -0,0 +1,14 @@
+package com.stoicalcode.router.model;
+
+import java.util.List;
+
+/**
+ * Loopless land routes between two countries by increasing cost in the requested metric. {@code truncated} is set
+ * when the search ran out of its work budget, in which case fewer routes than requested may be returned even if
+ * more exist.
+ */
+public record AlternativeRoutesResponseDto(String metric, List<AlternativeRoute> routes, boolean truncated) {
+
+    public record AlternativeRoute(List<String> route, double cost) {
+    }
+}
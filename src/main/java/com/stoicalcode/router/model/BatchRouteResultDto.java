@@ -0,0 +1,17 @@
+package com.stoicalcode.router.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchRouteResultDto(String origin, String destination, List<String> route, String error) {
+
+    public static BatchRouteResultDto success(String origin, String destination, List<String> route) {
+        return new BatchRouteResultDto(origin, destination, route, null);
+    }
+
+    public static BatchRouteResultDto failure(String origin, String destination, String error) {
+        return new BatchRouteResultDto(origin, destination, null, error);
+    }
+}
@@ -0,0 +1,63 @@
+package com.stoicalcode.router.model;
+
+/**
+ * Open addressing hash index from country codes to country ordinals. Codes are matched ignoring the case of ASCII
+ * letters, so lookups neither normalize nor allocate.
+ */
+final class CountryCodeIndex {
+    private static final int NOT_FOUND = -1;
+
+    private final String[] codes;
+    private final int[] ordinals;
+    private final int mask;
+
+    CountryCodeIndex(int expectedCodes) {
+        int capacity = Integer.highestOneBit(Math.max(expectedCodes, 1) * 2 - 1) << 1; // load factor <= 0.5
+        codes = new String[capacity];
+        ordinals = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Adds the code unless a code equal to it ignoring case is already indexed.
+     */
+    void putIfAbsent(String code, int ordinal) {
+        if (code == null || code.isEmpty()) {
+            return;
+        }
+
+        int slot = hash(code) & mask;
+        while (codes[slot] != null) {
+            if (codes[slot].equalsIgnoreCase(code)) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        codes[slot] = code;
+        ordinals[slot] = ordinal;
+    }
+
+    int get(String code) {
+        if (code == null) {
+            return NOT_FOUND;
+        }
+
+        int slot = hash(code) & mask;
+        for (String indexed = codes[slot]; indexed != null; indexed = codes[slot]) {
+            if (indexed.length() == code.length() && indexed.regionMatches(true, 0, code, 0, code.length())) {
+                return ordinals[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    private static int hash(String code) {
+        int hash = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            hash = 31 * hash + (c >= 'a' && c <= 'z' ? c - ('a' - 'A') : c);
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
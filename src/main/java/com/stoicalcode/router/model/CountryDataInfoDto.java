@@ -0,0 +1,11 @@
+package com.stoicalcode.router.model;
+
+import java.time.Instant;
+
+public record CountryDataInfoDto(long version, Instant loadedAt, int countries, String etag, String lastModified) {
+
+    public static CountryDataInfoDto of(CountryGraph countryGraph) {
+        return new CountryDataInfoDto(countryGraph.getVersion(), countryGraph.getLoadedAt(), countryGraph.size(),
+                countryGraph.getEtag(), countryGraph.getLastModified());
+    }
+}
@@ -7,13 +7,17 @@ import java.util.List;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class CountryDto {
     private NameDto name; // friendly identifier for the country (see @Name.common) TODO
     private String cca3; // ID, country code
+    private String cca2; // ISO 3166-1 alpha-2 code
+    private String ccn3; // ISO 3166-1 numeric code
     private Region region; // Region (Africa, America, ...)
+    private List<Double> latlng; // latitude and longitude of the country centroid
+    private CapitalInfoDto capitalInfo; // capital city location
     @EqualsAndHashCode.Exclude
     private List<String> borders; // List of neighboring country codes
 }
\ No newline at end of file
@@ -0,0 +1,562 @@
+package com.stoicalcode.router.model;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable snapshot of the country data set. A snapshot is built once per successful load of the country data
+ * and shared by all requests until a newer snapshot replaces it.
+ * <p>
+ * Besides the country list, the snapshot keeps the border graph in compressed sparse row form: every country is
+ * identified by its ordinal (its position in the country list) and the neighbors of country {@code i} are
+ * {@code neighborAt(firstNeighborIndex(i))} to {@code neighborAt(lastNeighborIndex(i) - 1)}, in the same order as
+ * its {@code borders}. Border codes that are not part of the data set are left out.
+ * <p>
+ * Countries are also labelled with the connected component of the border graph they belong to, so that
+ * {@link #isConnected(int, int)} rejects pairs without a land connection in O(1).
+ * <p>
+ * Structures derived from the snapshot (route tables, statistics, ...) are attached to it with
+ * {@link #derive(Object, Function)}, so they are dropped together with the snapshot and never go stale.
+ * <p>
+ * {@link #withOverrides(CountryGraph, CountryGraphOverrides, long)} layers {@link CountryGraphOverrides} on top of a
+ * loaded snapshot. The countries whose connected component is untouched by the change keep their derived data:
+ * derived values implementing {@link IncrementalData} are carried over to the new snapshot and only recompute what
+ * depends on the affected countries.
+ */
+public final class CountryGraph {
+    @Getter
+    private final List<CountryDto> countries;
+    @Getter
+    private final Map<String, CountryDto> cca3ToCountryMap;
+    @Getter
+    private final long version; // increases every time new country data is loaded
+    @Getter
+    private final Instant loadedAt;
+    @Getter
+    private final String etag; // validators of the HTTP response the snapshot was loaded from, if any
+    @Getter
+    private final String lastModified;
+    @Getter
+    private final CountryGraphOverrides overrides; // applied on top of the loaded country data
+
+    private final String[] cca3Codes;
+    private final CountryCodeIndex codeIndex;
+    private final int[] offsets;
+    private final int[] neighbors;
+    private final int[] components;
+    private final int componentCount;
+    private final ConcurrentMap<Object, FutureTask<?>> derivedData = new ConcurrentHashMap<>();
+
+    public CountryGraph(List<CountryDto> countries, long version, Instant loadedAt, String etag, String lastModified) {
+        this(Structure.build(List.copyOf(countries), null, BuildStageListener.NONE), version, loadedAt, etag,
+                lastModified);
+    }
+
+    private CountryGraph(Structure structure, long version, Instant loadedAt, String etag, String lastModified) {
+        this.countries = structure.countries();
+        this.cca3ToCountryMap = structure.cca3ToCountryMap();
+        this.version = version;
+        this.loadedAt = loadedAt;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.overrides = CountryGraphOverrides.NONE;
+        this.cca3Codes = structure.cca3Codes();
+        this.codeIndex = structure.codeIndex();
+        this.offsets = structure.offsets();
+        this.neighbors = structure.neighbors();
+        this.components = structure.components();
+        this.componentCount = structure.componentCount();
+    }
+
+    private CountryGraph(CountryGraph base, List<CountryDto> countries, Map<String, CountryDto> cca3ToCountryMap,
+                         long version, CountryGraphOverrides overrides, int[] offsets, int[] neighbors,
+                         int[] components, int componentCount) {
+        this.countries = countries;
+        this.cca3ToCountryMap = cca3ToCountryMap;
+        this.version = version;
+        this.loadedAt = base.loadedAt;
+        this.etag = base.etag;
+        this.lastModified = base.lastModified;
+        this.overrides = overrides;
+        this.cca3Codes = base.cca3Codes;
+        this.codeIndex = base.codeIndex;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.components = components;
+        this.componentCount = componentCount;
+    }
+
+    public int size() {
+        return countries.size();
+    }
+
+    /**
+     * Returns the ordinal of the country with the given cca3, cca2 or ccn3 code, in any letter case, or {@code -1}
+     * when there is no such country. The lookup does not allocate.
+     */
+    public int ordinalOf(String code) {
+        return codeIndex.get(code);
+    }
+
+    public String cca3Of(int ordinal) {
+        return cca3Codes[ordinal];
+    }
+
+    public CountryDto countryAt(int ordinal) {
+        return countries.get(ordinal);
+    }
+
+    public int firstNeighborIndex(int ordinal) {
+        return offsets[ordinal];
+    }
+
+    public int lastNeighborIndex(int ordinal) {
+        return offsets[ordinal + 1];
+    }
+
+    public int neighborAt(int index) {
+        return neighbors[index];
+    }
+
+    public int degree(int ordinal) {
+        return offsets[ordinal + 1] - offsets[ordinal];
+    }
+
+    public int edgeCount() {
+        return neighbors.length;
+    }
+
+    public int componentOf(int ordinal) {
+        return components[ordinal];
+    }
+
+    public int componentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Returns {@code false} when there is certainly no land route between the two countries. Borders are treated as
+     * undirected here, so with asymmetric border data a {@code true} answer still needs a search to be confirmed.
+     */
+    public boolean isConnected(int ordinal1, int ordinal2) {
+        return components[ordinal1] == components[ordinal2];
+    }
+
+    /**
+     * Returns the data derived from this snapshot under {@code key}, computing it with {@code factory} on first use.
+     * Concurrent callers asking for the same key wait for a single computation.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T derive(Object key, Function<CountryGraph, T> factory) {
+        FutureTask<?> task = derivedData.get(key);
+        if (task == null) {
+            FutureTask<T> newTask = new FutureTask<>(() -> factory.apply(this));
+            task = derivedData.putIfAbsent(key, newTask);
+            if (task == null) {
+                task = newTask;
+                newTask.run();
+            }
+        }
+
+        try {
+            return (T) task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while deriving " + key, e);
+        } catch (ExecutionException e) {
+            derivedData.remove(key, task);
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Failed to derive " + key, e.getCause());
+        }
+    }
+
+    /**
+     * Builds the snapshot in stages, each one reported to {@code listener} with its duration: the code {@code index},
+     * the {@code adjacency} arrays and the connected {@code components}. The work within a stage that does not
+     * depend on itself, such as the code index and the country map or the borders of different countries, runs in
+     * parallel on {@code forkJoinPool}.
+     */
+    public static CountryGraph build(List<CountryDto> countries, long version, Instant loadedAt, String etag,
+                                     String lastModified, ForkJoinPool forkJoinPool, BuildStageListener listener) {
+        return new CountryGraph(Structure.build(List.copyOf(countries), forkJoinPool, listener), version, loadedAt,
+                etag, lastModified);
+    }
+
+    /**
+     * Returns the snapshot of {@code base} with {@code overrides} applied, computed incrementally from this
+     * snapshot, which must be {@code base} itself or a snapshot previously derived from it.
+     * <p>
+     * Only the countries whose borders differ from this snapshot are rebuilt, and only the connected components
+     * they belong to are labelled again. The derived data already computed for this snapshot is carried over
+     * when it implements {@link IncrementalData}; the rest is derived again on first use.
+     */
+    public Update withOverrides(CountryGraph base, CountryGraphOverrides overrides, long version) {
+        if (base.cca3Codes != cca3Codes) {
+            throw new IllegalArgumentException("The snapshot is not derived from the base snapshot");
+        }
+
+        int size = size();
+        BitSet unavailable = new BitSet(size);
+        for (String country : overrides.unavailableCountries()) {
+            int ordinal = codeIndex.get(country);
+            if (ordinal != -1) {
+                unavailable.set(ordinal);
+            }
+        }
+        Set<Long> closedBorders = new HashSet<>();
+        for (CountryGraphOverrides.Border border : overrides.closedBorders()) {
+            int ordinal1 = codeIndex.get(border.country1());
+            int ordinal2 = codeIndex.get(border.country2());
+            if (ordinal1 != -1 && ordinal2 != -1) {
+                closedBorders.add(borderKey(ordinal1, ordinal2));
+            }
+        }
+        Map<Integer, List<Integer>> openedNeighbors = new HashMap<>();
+        for (CountryGraphOverrides.Border border : overrides.openedBorders()) {
+            int ordinal1 = codeIndex.get(border.country1());
+            int ordinal2 = codeIndex.get(border.country2());
+            if (ordinal1 != -1 && ordinal2 != -1) {
+                openedNeighbors.computeIfAbsent(ordinal1, ordinal -> new ArrayList<>()).add(ordinal2);
+                openedNeighbors.computeIfAbsent(ordinal2, ordinal -> new ArrayList<>()).add(ordinal1);
+            }
+        }
+
+        // base borders minus the closed ones and the unavailable countries, plus the opened borders
+        int[] newOffsets = new int[size + 1];
+        int[] adjacency = new int[base.neighbors.length + overrides.openedBorders().size() * 2];
+        int edges = 0;
+        for (int country = 0; country < size; country++) {
+            newOffsets[country] = edges;
+            if (unavailable.get(country)) {
+                continue;
+            }
+            for (int i = base.offsets[country]; i < base.offsets[country + 1]; i++) {
+                int neighbor = base.neighbors[i];
+                if (!unavailable.get(neighbor) && !closedBorders.contains(borderKey(country, neighbor))) {
+                    adjacency[edges++] = neighbor;
+                }
+            }
+            for (int neighbor : openedNeighbors.getOrDefault(country, List.of())) {
+                if (!unavailable.get(neighbor) && !contains(adjacency, newOffsets[country], edges, neighbor)) {
+                    adjacency[edges++] = neighbor;
+                }
+            }
+        }
+        newOffsets[size] = edges;
+        int[] newNeighbors = Arrays.copyOf(adjacency, edges);
+
+        BitSet changed = new BitSet(size);
+        for (int country = 0; country < size; country++) {
+            if (!sameNeighbors(offsets, neighbors, newOffsets, newNeighbors, country)) {
+                changed.set(country);
+            }
+        }
+
+        List<CountryDto> newCountries = countries;
+        Map<String, CountryDto> newCountryMap = cca3ToCountryMap;
+        if (!changed.isEmpty()) {
+            CountryDto[] updatedCountries = countries.toArray(CountryDto[]::new);
+            for (int country = changed.nextSetBit(0); country >= 0; country = changed.nextSetBit(country + 1)) {
+                if (sameNeighbors(base.offsets, base.neighbors, newOffsets, newNeighbors, country)) {
+                    updatedCountries[country] = base.countries.get(country);
+                } else {
+                    List<String> borders = new ArrayList<>(newOffsets[country + 1] - newOffsets[country]);
+                    for (int i = newOffsets[country]; i < newOffsets[country + 1]; i++) {
+                        borders.add(cca3Codes[newNeighbors[i]]);
+                    }
+                    updatedCountries[country] = base.countries.get(country).toBuilder()
+                            .borders(List.copyOf(borders))
+                            .build();
+                }
+            }
+            newCountries = List.of(updatedCountries);
+            Map<String, CountryDto> countryMap = new HashMap<>(size * 2);
+            for (CountryDto country : newCountries) {
+                countryMap.putIfAbsent(country.getCca3(), country);
+            }
+            newCountryMap = Collections.unmodifiableMap(countryMap);
+        }
+
+        // only the components of the changed countries and of their new neighbors can split or merge
+        BitSet affectedComponents = new BitSet(componentCount);
+        for (int country = changed.nextSetBit(0); country >= 0; country = changed.nextSetBit(country + 1)) {
+            affectedComponents.set(components[country]);
+            for (int i = newOffsets[country]; i < newOffsets[country + 1]; i++) {
+                affectedComponents.set(components[newNeighbors[i]]);
+            }
+        }
+        BitSet affected = new BitSet(size);
+        for (int country = 0; country < size; country++) {
+            if (affectedComponents.get(components[country])) {
+                affected.set(country);
+            }
+        }
+        int[] newComponents = new int[size];
+        int newComponentCount = relabelComponents(components, componentCount, affected, newOffsets, newNeighbors,
+                newComponents);
+
+        CountryGraph updated = new CountryGraph(base, newCountries, newCountryMap, version, overrides, newOffsets,
+                newNeighbors, newComponents, newComponentCount);
+        carryDerivedDataOver(updated, affected);
+        return new Update(updated, affected);
+    }
+
+    /**
+     * Carries the derived data of this snapshot that can be updated incrementally over to {@code updated}. Values
+     * still being computed or whose computation failed are left behind.
+     */
+    private void carryDerivedDataOver(CountryGraph updated, BitSet affected) {
+        derivedData.forEach((key, task) -> {
+            if (task.state() != Future.State.SUCCESS
+                    || !(task.resultNow() instanceof IncrementalData<?> incrementalData)) {
+                return;
+            }
+            Object value = incrementalData.update(updated, affected);
+            if (value != null) {
+                FutureTask<Object> carriedTask = new FutureTask<>(() -> value);
+                carriedTask.run();
+                updated.derivedData.putIfAbsent(key, carriedTask);
+            }
+        });
+    }
+
+    /**
+     * Labels again the components of the affected countries with union-find, keeping the components of the other
+     * countries, and numbers all of them from 0 in ordinal order.
+     */
+    private static int relabelComponents(int[] previousComponents, int previousComponentCount, BitSet affected,
+                                         int[] offsets, int[] neighbors, int[] components) {
+        int size = components.length;
+        int[] roots = new int[size];
+        for (int country = affected.nextSetBit(0); country >= 0; country = affected.nextSetBit(country + 1)) {
+            roots[country] = country;
+        }
+
+        // edges of the affected countries never lead to the other countries
+        for (int country = affected.nextSetBit(0); country >= 0; country = affected.nextSetBit(country + 1)) {
+            for (int i = offsets[country]; i < offsets[country + 1]; i++) {
+                int root1 = findRoot(roots, country);
+                int root2 = findRoot(roots, neighbors[i]);
+                if (root1 != root2) {
+                    roots[Math.max(root1, root2)] = Math.min(root1, root2);
+                }
+            }
+        }
+
+        int[] previousLabels = new int[previousComponentCount];
+        Arrays.fill(previousLabels, -1);
+        int count = 0;
+        for (int country = 0; country < size; country++) {
+            if (affected.get(country)) {
+                int root = findRoot(roots, country);
+                components[country] = root == country ? count++ : components[root];
+            } else {
+                int previous = previousComponents[country];
+                if (previousLabels[previous] == -1) {
+                    previousLabels[previous] = count++;
+                }
+                components[country] = previousLabels[previous];
+            }
+        }
+        return count;
+    }
+
+    private static boolean sameNeighbors(int[] offsets1, int[] neighbors1, int[] offsets2, int[] neighbors2,
+                                         int country) {
+        return Arrays.equals(neighbors1, offsets1[country], offsets1[country + 1],
+                neighbors2, offsets2[country], offsets2[country + 1]);
+    }
+
+    private static boolean contains(int[] array, int from, int to, int value) {
+        for (int i = from; i < to; i++) {
+            if (array[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long borderKey(int ordinal1, int ordinal2) {
+        return (long) Math.min(ordinal1, ordinal2) << 32 | Math.max(ordinal1, ordinal2);
+    }
+
+    /**
+     * Labels the connected components with union-find and numbers them from 0 in ordinal order.
+     */
+    private static int labelComponents(int[] offsets, int[] neighbors, int[] components) {
+        int size = components.length;
+        int[] roots = new int[size];
+        for (int i = 0; i < size; i++) {
+            roots[i] = i;
+        }
+
+        for (int country = 0; country < size; country++) {
+            for (int i = offsets[country]; i < offsets[country + 1]; i++) {
+                int root1 = findRoot(roots, country);
+                int root2 = findRoot(roots, neighbors[i]);
+                if (root1 != root2) {
+                    roots[Math.max(root1, root2)] = Math.min(root1, root2);
+                }
+            }
+        }
+
+        int count = 0;
+        for (int country = 0; country < size; country++) {
+            int root = findRoot(roots, country);
+            components[country] = root == country ? count++ : components[root];
+        }
+        return count;
+    }
+
+    private static int findRoot(int[] roots, int country) {
+        while (roots[country] != country) {
+            roots[country] = roots[roots[country]];
+            country = roots[country];
+        }
+        return country;
+    }
+
+    /**
+     * Snapshot with overrides applied, together with the countries whose connected component changed.
+     */
+    public record Update(CountryGraph countryGraph, BitSet affectedCountries) {
+    }
+
+    /**
+     * Derived data that can be carried over to a snapshot with overrides applied instead of being derived again.
+     */
+    public interface IncrementalData<T> {
+
+        /**
+         * Returns this data for {@code updated}, recomputing only what depends on the {@code affectedCountries},
+         * or {@code null} to have it derived again on first use. The other countries keep the same borders and
+         * connected components in {@code updated}.
+         */
+        T update(CountryGraph updated, BitSet affectedCountries);
+    }
+
+    /**
+     * Receives the duration of every stage of a snapshot build.
+     */
+    @FunctionalInterface
+    public interface BuildStageListener {
+        BuildStageListener NONE = (stage, nanos) -> {
+        };
+
+        void stageCompleted(String stage, long nanos);
+    }
+
+    /**
+     * Country list, code index and border graph of a snapshot built from the country data.
+     */
+    private record Structure(List<CountryDto> countries, Map<String, CountryDto> cca3ToCountryMap,
+                             String[] cca3Codes, CountryCodeIndex codeIndex, int[] offsets, int[] neighbors,
+                             int[] components, int componentCount) {
+
+        /**
+         * Builds the structure stage by stage, running the independent work of every stage on
+         * {@code forkJoinPool}, or on the calling thread when it is {@code null}.
+         */
+        static Structure build(List<CountryDto> countries, ForkJoinPool forkJoinPool, BuildStageListener listener) {
+            int size = countries.size();
+
+            long startNanos = System.nanoTime();
+            String[] cca3Codes = new String[size];
+            Map<String, CountryDto> countryMap = new HashMap<>(size * 2);
+            CountryCodeIndex codeIndex = new CountryCodeIndex(size * 3);
+            run(forkJoinPool, () -> {
+                for (int i = 0; i < size; i++) {
+                    cca3Codes[i] = countries.get(i).getCca3();
+                    countryMap.putIfAbsent(countries.get(i).getCca3(), countries.get(i));
+                }
+            }, () -> {
+                for (int i = 0; i < size; i++) {
+                    codeIndex.putIfAbsent(countries.get(i).getCca3(), i);
+                }
+                for (int i = 0; i < size; i++) {
+                    codeIndex.putIfAbsent(countries.get(i).getCca2(), i);
+                    codeIndex.putIfAbsent(countries.get(i).getCcn3(), i);
+                }
+            });
+            listener.stageCompleted("index", System.nanoTime() - startNanos);
+
+            startNanos = System.nanoTime();
+            int[][] countryNeighbors = new int[size][];
+            forEach(forkJoinPool, size, country -> countryNeighbors[country] =
+                    resolveBorders(countries.get(country).getBorders(), codeIndex));
+            int[] offsets = new int[size + 1];
+            for (int country = 0; country < size; country++) {
+                offsets[country + 1] = offsets[country] + countryNeighbors[country].length;
+            }
+            int[] neighbors = new int[offsets[size]];
+            forEach(forkJoinPool, size, country -> System.arraycopy(countryNeighbors[country], 0, neighbors,
+                    offsets[country], countryNeighbors[country].length));
+            listener.stageCompleted("adjacency", System.nanoTime() - startNanos);
+
+            startNanos = System.nanoTime();
+            int[] components = new int[size];
+            int componentCount = labelComponents(offsets, neighbors, components);
+            listener.stageCompleted("components", System.nanoTime() - startNanos);
+
+            return new Structure(countries, Collections.unmodifiableMap(countryMap), cca3Codes, codeIndex, offsets,
+                    neighbors, components, componentCount);
+        }
+
+        private static int[] resolveBorders(List<String> borders, CountryCodeIndex codeIndex) {
+            if (borders == null) {
+                return new int[0];
+            }
+
+            int[] resolved = new int[borders.size()];
+            int count = 0;
+            for (String border : borders) {
+                int neighbor = codeIndex.get(border);
+                if (neighbor != -1) {
+                    resolved[count++] = neighbor;
+                }
+            }
+            return count == resolved.length ? resolved : Arrays.copyOf(resolved, count);
+        }
+
+        private static void run(ForkJoinPool forkJoinPool, Runnable task1, Runnable task2) {
+            if (forkJoinPool == null) {
+                task1.run();
+                task2.run();
+                return;
+            }
+            ForkJoinTask<?> forked = forkJoinPool.submit(task1);
+            task2.run();
+            forked.join();
+        }
+
+        private static void forEach(ForkJoinPool forkJoinPool, int size, IntConsumer action) {
+            if (forkJoinPool == null) {
+                IntStream.range(0, size).forEach(action);
+            } else {
+                forkJoinPool.submit(() -> IntStream.range(0, size).parallel().forEach(action)).join();
+            }
+        }
+    }
+}
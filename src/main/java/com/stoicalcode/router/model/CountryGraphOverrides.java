@@ -0,0 +1,83 @@
+package com.stoicalcode.router.model;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Changes to the border graph layered on top of the loaded country data: borders opened or closed and countries
+ * made unavailable, all of them identified by cca3 code. The overrides are immutable; every change returns a new
+ * instance.
+ * <p>
+ * Opening a closed border removes it from the closed borders and closing an opened one removes it from the opened
+ * borders, so the latest change of a border always wins. An unavailable country keeps no borders at all.
+ */
+public record CountryGraphOverrides(Set<Border> openedBorders, Set<Border> closedBorders,
+                                    Set<String> unavailableCountries) {
+
+    public static final CountryGraphOverrides NONE = new CountryGraphOverrides(Set.of(), Set.of(), Set.of());
+
+    public CountryGraphOverrides {
+        openedBorders = openedBorders == null ? Set.of() : Set.copyOf(openedBorders);
+        closedBorders = closedBorders == null ? Set.of() : Set.copyOf(closedBorders);
+        unavailableCountries = unavailableCountries == null ? Set.of() : Set.copyOf(unavailableCountries);
+    }
+
+    public boolean isEmpty() {
+        return openedBorders.isEmpty() && closedBorders.isEmpty() && unavailableCountries.isEmpty();
+    }
+
+    public CountryGraphOverrides withBorderOpened(String country1, String country2) {
+        Border border = new Border(country1, country2);
+        return new CountryGraphOverrides(plus(openedBorders, border), minus(closedBorders, border),
+                unavailableCountries);
+    }
+
+    public CountryGraphOverrides withBorderClosed(String country1, String country2) {
+        Border border = new Border(country1, country2);
+        return new CountryGraphOverrides(minus(openedBorders, border), plus(closedBorders, border),
+                unavailableCountries);
+    }
+
+    public CountryGraphOverrides withCountryUnavailable(String country) {
+        return new CountryGraphOverrides(openedBorders, closedBorders, plus(unavailableCountries, country));
+    }
+
+    public CountryGraphOverrides withCountryAvailable(String country) {
+        return new CountryGraphOverrides(openedBorders, closedBorders, minus(unavailableCountries, country));
+    }
+
+    private static <T> Set<T> plus(Set<T> set, T element) {
+        Set<T> copy = new HashSet<>(set);
+        copy.add(element);
+        return copy;
+    }
+
+    private static <T> Set<T> minus(Set<T> set, T element) {
+        Set<T> copy = new HashSet<>(set);
+        copy.remove(element);
+        return copy;
+    }
+
+    /**
+     * Undirected border between two different countries, with the codes in alphabetical order.
+     */
+    public record Border(String country1, String country2) implements Comparable<Border> {
+
+        public Border {
+            if (country1.equals(country2)) {
+                throw new IllegalArgumentException("A border needs two different countries: " + country1);
+            }
+            if (country1.compareTo(country2) > 0) {
+                String swap = country1;
+                country1 = country2;
+                country2 = swap;
+            }
+        }
+
+        @Override
+        public int compareTo(Border other) {
+            int comparison = country1.compareTo(other.country1);
+            return comparison != 0 ? comparison : country2.compareTo(other.country2);
+        }
+    }
+}
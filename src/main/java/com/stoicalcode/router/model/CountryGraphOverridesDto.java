@@ -0,0 +1,16 @@
+package com.stoicalcode.router.model;
+
+import java.util.List;
+
+public record CountryGraphOverridesDto(long version, List<CountryGraphOverrides.Border> openedBorders,
+                                       List<CountryGraphOverrides.Border> closedBorders,
+                                       List<String> unavailableCountries) {
+
+    public static CountryGraphOverridesDto of(CountryGraph countryGraph) {
+        CountryGraphOverrides overrides = countryGraph.getOverrides();
+        return new CountryGraphOverridesDto(countryGraph.getVersion(),
+                overrides.openedBorders().stream().sorted().toList(),
+                overrides.closedBorders().stream().sorted().toList(),
+                overrides.unavailableCountries().stream().sorted().toList());
+    }
+}
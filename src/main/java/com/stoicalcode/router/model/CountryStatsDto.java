@@ -0,0 +1,8 @@
+package com.stoicalcode.router.model;
+
+/**
+ * Position of a country in the border graph: its number of neighbors, the number of border crossings to the
+ * farthest country it reaches by land and how much of the fewest hops land routes between other countries cross it.
+ */
+public record CountryStatsDto(String country, int degree, int eccentricity, double betweenness) {
+}
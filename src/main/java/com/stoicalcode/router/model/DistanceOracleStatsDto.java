@@ -0,0 +1,10 @@
+package com.stoicalcode.router.model;
+
+/**
+ * Size and cost of the distance oracle of a country data version. {@code storedPairs} counts the pairs of countries
+ * of the same connected component, the only ones stored, and {@code buildTimeMillis} is the time of the last full
+ * build or incremental update.
+ */
+public record DistanceOracleStatsDto(long version, int countries, long storedPairs, long memoryFootprintBytes,
+                                     double buildTimeMillis) {
+}
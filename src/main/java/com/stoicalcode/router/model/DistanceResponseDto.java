@@ -0,0 +1,7 @@
+package com.stoicalcode.router.model;
+
+/**
+ * Number of border crossings of the fewest hops land route between two countries, given by their cca3 codes.
+ */
+public record DistanceResponseDto(String origin, String destination, int hops) {
+}
@@ -0,0 +1,11 @@
+package com.stoicalcode.router.model;
+
+import java.util.List;
+
+/**
+ * Border graph statistics of a country data version. {@code diameterRoute} is a longest fewest hops land route, of
+ * {@code diameter} border crossings, and {@code topBetweenness} lists the countries crossed by most of those routes.
+ */
+public record GraphStatsDto(long version, int countries, int components, int diameter, List<String> diameterRoute,
+                            List<CountryStatsDto> topBetweenness) {
+}
@@ -13,6 +13,11 @@ public enum Region {
 
     private static final Set<Region> CONTINENTAL = Set.of(Africa, Europe, Asia);
 
+    /**
+     * Coarse continental rule used to explain why two countries are not connected by land. Whether they are
+     * connected is decided by the border graph (see {@link CountryGraph#isConnected(int, int)}), as some borders
+     * cross regions outside this rule, e.g. Indonesia (Asia) and Papua New Guinea (Oceania).
+     */
     public boolean isConnectedWith(Region region) {
         if (region == null) {
             return false;
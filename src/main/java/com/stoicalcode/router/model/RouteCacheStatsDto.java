@@ -0,0 +1,15 @@
+package com.stoicalcode.router.model;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Route cache counters. {@code coalesced} counts the misses that waited for an identical search already in flight
+ * instead of searching themselves.
+ */
+public record RouteCacheStatsDto(long size, long hits, long misses, long evictions, double hitRate, long coalesced) {
+
+    public static RouteCacheStatsDto of(long size, CacheStats stats, long coalesced) {
+        return new RouteCacheStatsDto(size, stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                stats.hitRate(), coalesced);
+    }
+}
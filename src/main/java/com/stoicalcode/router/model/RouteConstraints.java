@@ -0,0 +1,23 @@
+package com.stoicalcode.router.model;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Constraints of a land route: countries it must not cross ({@code avoid}), countries it must pass through in the
+ * given order ({@code via}) and, when not empty, the only {@code regions} it may cross. Countries are given by any
+ * of their codes.
+ */
+public record RouteConstraints(List<String> avoid, List<String> via, Set<Region> regions) {
+    public static final RouteConstraints NONE = new RouteConstraints(List.of(), List.of(), Set.of());
+
+    public RouteConstraints {
+        avoid = avoid != null ? List.copyOf(avoid) : List.of();
+        via = via != null ? List.copyOf(via) : List.of();
+        regions = regions != null ? Set.copyOf(regions) : Set.of();
+    }
+
+    public boolean isEmpty() {
+        return avoid.isEmpty() && via.isEmpty() && regions.isEmpty();
+    }
+}
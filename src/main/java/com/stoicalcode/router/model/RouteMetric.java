@@ -0,0 +1,35 @@
+package com.stoicalcode.router.model;
+
+import java.util.Locale;
+
+/**
+ * What a land route minimizes, selected with the {@code metric} request parameter.
+ */
+public enum RouteMetric {
+    HOPS("hops"), // number of border crossings
+    DISTANCE("distance"), // great-circle kilometers between the centroids of consecutive countries
+    CAPITAL_DISTANCE("capital-distance"); // great-circle kilometers between the capitals of consecutive countries
+
+    private final String parameter;
+
+    RouteMetric(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String parameter() {
+        return parameter;
+    }
+
+    /**
+     * Returns the metric with the given request parameter value, in any letter case, or {@code null} when there is
+     * no such metric.
+     */
+    public static RouteMetric fromParameter(String parameter) {
+        for (RouteMetric metric : values()) {
+            if (metric.parameter.equals(parameter.toLowerCase(Locale.ROOT))) {
+                return metric;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,4 @@
+package com.stoicalcode.router.model;
+
+public record RoutePairDto(String origin, String destination) {
+}
@@ -0,0 +1,96 @@
+package com.stoicalcode.router.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Breadth-first search tree of all the countries reachable by land from one origin, visiting the neighbors in
+ * borders order, so the routes it holds are the same as the ones found by the breadth-first search engines. Trees
+ * are searched by {@code RouteTreeSearch}.
+ * <p>
+ * The tree is carried over to snapshots with overrides applied as long as the component of its source is not
+ * affected by them.
+ */
+public final class RouteTree implements CountryGraph.IncrementalData<RouteTree> {
+    private static final int NONE = -1;
+
+    private final CountryGraph countryGraph;
+    private final int source;
+    private final int[] parents;
+    private final int[] distances;
+    private final int[] order; // reached countries in visit order, so by increasing distance
+
+    /**
+     * Creates the tree of {@code source} from its search: the parent and the distance of every country, {@code -1}
+     * for the unreachable ones, and the reached countries in visit order.
+     */
+    public RouteTree(CountryGraph countryGraph, int source, int[] parents, int[] distances, int[] order) {
+        this.countryGraph = countryGraph;
+        this.source = source;
+        this.parents = parents;
+        this.distances = distances;
+        this.order = order;
+    }
+
+    public CountryGraph getCountryGraph() {
+        return countryGraph;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the number of countries reachable from the source, the source included.
+     */
+    public int reachedCount() {
+        return order.length;
+    }
+
+    /**
+     * Returns the {@code index}-th reached country. Countries are ordered by increasing number of hops from the
+     * source, which is the first one.
+     */
+    public int reachedAt(int index) {
+        return order[index];
+    }
+
+    public boolean reaches(int target) {
+        return distances[target] != NONE;
+    }
+
+    /**
+     * Returns the number of border crossings from the source to {@code target}, or {@code -1} if unreachable.
+     */
+    public int hopsTo(int target) {
+        return distances[target];
+    }
+
+    /**
+     * Returns the country before {@code target} on its route, or {@code -1} for the source and unreachable countries.
+     */
+    public int parentOf(int target) {
+        return parents[target];
+    }
+
+    /**
+     * Returns the cca3 route from the source to {@code target}, or {@code null} if unreachable.
+     */
+    public List<String> routeTo(int target) {
+        if (!reaches(target)) {
+            return null;
+        }
+
+        String[] route = new String[distances[target] + 1];
+        for (int country = target, i = route.length - 1; country != NONE; country = parents[country], i--) {
+            route[i] = countryGraph.cca3Of(country);
+        }
+        return Arrays.asList(route);
+    }
+
+    @Override
+    public RouteTree update(CountryGraph updated, BitSet affectedCountries) {
+        return affectedCountries.get(source) ? null : new RouteTree(updated, source, parents, distances, order);
+    }
+}
@@ -0,0 +1,38 @@
+package com.stoicalcode.router.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Land routes from one origin to every reachable destination, either as full routes or as the parent of every
+ * destination on its route. Destinations are listed by increasing number of border crossings.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RouteTreeResponseDto(String origin, long version, Map<String, List<String>> routes,
+                                   Map<String, String> parents) {
+
+    public static RouteTreeResponseDto routes(RouteTree routeTree, int maxHops) {
+        CountryGraph countryGraph = routeTree.getCountryGraph();
+        Map<String, List<String>> routes = new LinkedHashMap<>();
+        for (int i = 1; i < routeTree.reachedCount() && routeTree.hopsTo(routeTree.reachedAt(i)) <= maxHops; i++) {
+            int destination = routeTree.reachedAt(i);
+            routes.put(countryGraph.cca3Of(destination), routeTree.routeTo(destination));
+        }
+        return new RouteTreeResponseDto(countryGraph.cca3Of(routeTree.getSource()), countryGraph.getVersion(),
+                routes, null);
+    }
+
+    public static RouteTreeResponseDto parents(RouteTree routeTree, int maxHops) {
+        CountryGraph countryGraph = routeTree.getCountryGraph();
+        Map<String, String> parents = new LinkedHashMap<>();
+        for (int i = 1; i < routeTree.reachedCount() && routeTree.hopsTo(routeTree.reachedAt(i)) <= maxHops; i++) {
+            int destination = routeTree.reachedAt(i);
+            parents.put(countryGraph.cca3Of(destination), countryGraph.cca3Of(routeTree.parentOf(destination)));
+        }
+        return new RouteTreeResponseDto(countryGraph.cca3Of(routeTree.getSource()), countryGraph.getVersion(),
+                null, parents);
+    }
+}
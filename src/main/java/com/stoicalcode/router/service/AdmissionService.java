@@ -0,0 +1,151 @@
+package com.stoicalcode.router.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stoicalcode.router.exception.AdmissionRejectedException;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Work-based admission control of the routing API. Every request has a cost, its estimated work in route searches,
+ * and is only admitted when:
+ * <ul>
+ *     <li>the token bucket of its client holds that many tokens, buckets refilling at
+ *     {@code routing-admission-client-rate} tokens per second up to {@code routing-admission-client-burst}. A request
+ *     costing more than the burst is admitted once the bucket is full, leaving it in debt for the rest, so the client
+ *     pays for all of its work either way;</li>
+ *     <li>the cost of the requests in flight leaves room for it under {@code routing-admission-max-in-flight},
+ *     requests waiting at most {@code routing-admission-queue-timeout} for room. Costs above the limit take all of
+ *     it, so they are eventually admitted.</li>
+ * </ul>
+ * Costs are capped at {@code routing-admission-max-cost}, which bounds the debt of a client. Rejected requests are
+ * told when to retry instead of queueing without bound, so a spike of expensive requests turns into fast rejections
+ * of the clients causing it rather than timeouts for everybody.
+ * <p>
+ * A token bucket is a single theoretical arrival time updated with compare-and-set, as in the generic cell rate
+ * algorithm, and the buckets are kept in a Caffeine cache that drops those idle long enough to be full again, even
+ * when the costliest request left them in debt, so neither the buckets nor the in-flight semaphore take a lock when
+ * admitting a request.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "routing-admission-enabled", havingValue = "true")
+public class AdmissionService {
+
+    private static final String RATE_LIMITED_ERROR = "rate limit of client '%s' exceeded";
+    private static final String OVERLOADED_ERROR = "too many requests in flight";
+    private static final Duration OVERLOADED_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final int maxInFlight;
+    private final int maxCost;
+    private final Duration queueTimeout;
+    private final Semaphore inFlight;
+    private final Cache<String, TokenBucket> tokenBuckets;
+
+    @Autowired(required = false)
+    @Setter
+    private RoutingMetrics routingMetrics = RoutingMetrics.noop();
+
+    @Autowired
+    public AdmissionService(@Value("${routing-admission-client-rate:50}") double clientRate,
+                            @Value("${routing-admission-client-burst:100}") int clientBurst,
+                            @Value("${routing-admission-max-in-flight:64}") int maxInFlight,
+                            @Value("${routing-admission-max-cost:10000}") int maxCost,
+                            @Value("${routing-admission-queue-timeout:PT0.1S}") Duration queueTimeout,
+                            @Value("${routing-admission-max-clients:100000}") long maxClients) {
+        this.nanosPerToken = (long) (TimeUnit.SECONDS.toNanos(1) / clientRate);
+        this.burstNanos = nanosPerToken * clientBurst;
+        this.maxInFlight = maxInFlight;
+        this.maxCost = maxCost;
+        this.queueTimeout = queueTimeout;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.tokenBuckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(Math.max(burstNanos, nanosPerToken * maxCost)))
+                .build();
+        log.info("Admitting {} route searches per second per client, bursts of {}, {} in flight and costs up to {}",
+                clientRate, clientBurst, maxInFlight, maxCost);
+    }
+
+    /**
+     * Admits a request of {@code cost} from {@code client}, waiting for room in flight if needed, and returns the
+     * cost to {@link #release(int)} once it is done. The whole cost is charged to the client, while only up to the
+     * in-flight limit of it is held in flight, so every request can be admitted eventually.
+     */
+    public int admit(String client, int cost) throws AdmissionRejectedException {
+        int chargedCost = Math.max(1, Math.min(cost, maxCost));
+        int admittedCost = Math.min(chargedCost, maxInFlight);
+        TokenBucket tokenBucket = tokenBuckets.get(client, key -> new TokenBucket(System.nanoTime()));
+        long waitNanos = tokenBucket.take(chargedCost, nanosPerToken, burstNanos);
+        if (waitNanos > 0) {
+            routingMetrics.recordRateLimited();
+            throw new AdmissionRejectedException(String.format(RATE_LIMITED_ERROR, client),
+                    Duration.ofNanos(waitNanos));
+        }
+
+        boolean acquired;
+        try {
+            acquired = inFlight.tryAcquire(admittedCost, queueTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            tokenBucket.giveBack(chargedCost, nanosPerToken);
+            routingMetrics.recordOverloaded();
+            throw new AdmissionRejectedException(OVERLOADED_ERROR, OVERLOADED_RETRY_AFTER);
+        }
+        return admittedCost;
+    }
+
+    public void release(int admittedCost) {
+        inFlight.release(admittedCost);
+    }
+
+    /**
+     * Token bucket of a client, holding the time at which it would be full again if nothing else were taken: taking
+     * {@code n} tokens moves it {@code n} token periods further, and tokens are missing when it would move more than
+     * the burst ahead of now, unless the bucket is full.
+     */
+    private static final class TokenBucket {
+        private final AtomicLong fullAtNanos;
+
+        private TokenBucket(long nowNanos) {
+            this.fullAtNanos = new AtomicLong(nowNanos);
+        }
+
+        /**
+         * Takes {@code tokens}, returning 0, or returns the nanoseconds until they are available without taking any.
+         * More tokens than the burst are available once the bucket is full.
+         */
+        long take(int tokens, long nanosPerToken, long burstNanos) {
+            long nowNanos = System.nanoTime();
+            while (true) {
+                long fullAt = fullAtNanos.get();
+                long newFullAt = Math.max(fullAt, nowNanos) + tokens * nanosPerToken;
+                long waitNanos = Math.min(newFullAt - nowNanos - burstNanos, fullAt - nowNanos);
+                if (waitNanos > 0) {
+                    return waitNanos;
+                }
+                if (fullAtNanos.compareAndSet(fullAt, newFullAt)) {
+                    return 0;
+                }
+            }
+        }
+
+        void giveBack(int tokens, long nanosPerToken) {
+            fullAtNanos.addAndGet(-tokens * nanosPerToken);
+        }
+    }
+}
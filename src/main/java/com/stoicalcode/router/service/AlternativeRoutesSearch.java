@@ -0,0 +1,159 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.model.CountryGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Yen's algorithm for the {@code k} cheapest loopless routes between two countries. Every new route is looked for
+ * as a deviation (spur) from each country of the previous route: the root of the previous route up to that country
+ * is kept, its countries are blocked and so are the edges leaving the spur country along the routes already found
+ * with the same root, and the cheapest spur route to the destination is searched with A*.
+ * <p>
+ * All the spur searches of one request run on the same {@link WeightedSearchBuffers}, and share a budget of
+ * expanded countries. When the budget runs out the routes found so far are kept and the search is truncated, as
+ * the pending candidates could still be beaten by an unfinished spur search.
+ */
+final class AlternativeRoutesSearch {
+    private static final Comparator<Route> ROUTE_ORDER = Comparator.comparingDouble(Route::cost)
+            .thenComparingInt(route -> route.countries().length)
+            .thenComparing(Route::countries, Arrays::compare);
+
+    private final CountryGraph countryGraph;
+    private final EdgeCostFunction costFunction;
+    private final double[] edgeCosts;
+    private final WeightedSearchBuffers buffers;
+    private int remainingExpansions;
+    private int expanded;
+    private boolean truncated;
+
+    AlternativeRoutesSearch(CountryGraph countryGraph, EdgeCostFunction costFunction, WeightedSearchBuffers buffers,
+                            int maxExpanded) {
+        this.countryGraph = countryGraph;
+        this.costFunction = costFunction;
+        this.edgeCosts = WeightedSearchCountryService.edgeCostsOf(countryGraph, costFunction);
+        this.buffers = buffers;
+        this.remainingExpansions = maxExpanded;
+    }
+
+    /**
+     * Route as country ordinals and its total cost.
+     */
+    record Route(int[] countries, double cost) {
+    }
+
+    /**
+     * Returns up to {@code count} cheapest loopless routes from {@code source} to {@code target}, cheapest first,
+     * or no routes when they are not connected.
+     */
+    List<Route> search(int source, int target, int count) {
+        List<Route> routes = new ArrayList<>(count);
+        buffers.clearBlocks(countryGraph.edgeCount());
+        Route first = spurRoute(new int[]{source}, 0, target);
+        if (first == null) {
+            return routes;
+        }
+        routes.add(first);
+
+        PriorityQueue<Route> candidates = new PriorityQueue<>(ROUTE_ORDER);
+        Set<RouteKey> seen = new HashSet<>();
+        seen.add(new RouteKey(first.countries()));
+        while (routes.size() < count) {
+            int[] previous = routes.get(routes.size() - 1).countries();
+            for (int spurIndex = 0; spurIndex < previous.length - 1; spurIndex++) {
+                buffers.clearBlocks(countryGraph.edgeCount());
+                for (Route route : routes) {
+                    int[] countries = route.countries();
+                    if (countries.length > spurIndex + 1
+                            && Arrays.equals(countries, 0, spurIndex + 1, previous, 0, spurIndex + 1)) {
+                        buffers.blockEdge(neighborIndex(countries[spurIndex], countries[spurIndex + 1]));
+                    }
+                }
+                for (int i = 0; i < spurIndex; i++) {
+                    buffers.blockCountry(previous[i]);
+                }
+
+                Route candidate = spurRoute(previous, spurIndex, target);
+                if (truncated) {
+                    return routes;
+                }
+                if (candidate != null && seen.add(new RouteKey(candidate.countries()))) {
+                    candidates.add(candidate);
+                }
+            }
+
+            Route next = candidates.poll();
+            if (next == null) {
+                break;
+            }
+            routes.add(next);
+        }
+        return routes;
+    }
+
+    int expanded() {
+        return expanded;
+    }
+
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Searches the cheapest route from {@code root[spurIndex]} to {@code target} and prefixes it with the root.
+     */
+    private Route spurRoute(int[] root, int spurIndex, int target) {
+        boolean found = WeightedSearchCountryService.search(countryGraph, root[spurIndex], target, costFunction, true,
+                remainingExpansions, buffers);
+        expanded += buffers.expanded;
+        remainingExpansions -= buffers.expanded;
+        if (!found) {
+            truncated = !buffers.isEmpty();
+            return null;
+        }
+
+        int spurLength = 0;
+        for (int country = target; country != WeightedSearchBuffers.NO_PARENT; country = buffers.parents[country]) {
+            spurLength++;
+        }
+        int[] countries = Arrays.copyOf(root, spurIndex + spurLength);
+        for (int country = target, i = countries.length - 1; i >= spurIndex; country = buffers.parents[country], i--) {
+            countries[i] = country;
+        }
+
+        double rootCost = 0;
+        for (int i = 0; i < spurIndex; i++) {
+            rootCost += edgeCosts[neighborIndex(root[i], root[i + 1])];
+        }
+        return new Route(countries, rootCost + buffers.costs[target]);
+    }
+
+    private int neighborIndex(int from, int to) {
+        for (int i = countryGraph.firstNeighborIndex(from); i < countryGraph.lastNeighborIndex(from); i++) {
+            if (countryGraph.neighborAt(i) == to) {
+                return i;
+            }
+        }
+        throw new IllegalStateException(String.format("'%s' does not border '%s'", countryGraph.cca3Of(from),
+                countryGraph.cca3Of(to)));
+    }
+
+    private record RouteKey(int[] countries) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof RouteKey routeKey && Arrays.equals(countries, routeKey.countries);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(countries);
+        }
+    }
+}
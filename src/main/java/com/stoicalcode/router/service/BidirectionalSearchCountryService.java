@@ -0,0 +1,234 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.CountryValidationResponseDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bidirectional breadth-first search: one search starts at the origin, another one at the destination, and the side
+ * with the smaller frontier expands one whole level at a time until the two searches meet. Long routes then only
+ * explore two small balls around the endpoints instead of most of the continent.
+ * <p>
+ * All meetings found while expanding the level where the searches first meet are compared, so the route has the
+ * same number of hops as the one of {@link BreadthFirstSearchCountryService}. Equally short routes are told apart
+ * by the lowest ordinal of the meeting countries, so repeated calls always return the same route.
+ * <p>
+ * Border data is not always symmetric: a country can list a border the other side does not list, and overrides can
+ * open or close a border one way only. The search from the destination therefore follows borders backwards, along
+ * the reverse border graph derived from the snapshot, so the route only crosses borders listed by the country it
+ * leaves, as the breadth-first search does.
+ */
+@Service
+@ConditionalOnProperty(name = "route-search-engine", havingValue = "bidirectional")
+public class BidirectionalSearchCountryService implements SearchCountryService {
+
+    private static final String PATH_NOT_FOUND_ERROR = "Not possible land route from '%s' to '%s'";
+    private static final String ENGINE = "bidirectional";
+
+    private final CountryService countryService;
+    private final SearchBuffersPool searchBuffersPool;
+    private RoutingMetrics.SearchMeters searchMeters = RoutingMetrics.noop().searchMeters(ENGINE);
+
+    @Autowired
+    public BidirectionalSearchCountryService(CountryService countryService, SearchBuffersPool searchBuffersPool) {
+        this.countryService = countryService;
+        this.searchBuffersPool = searchBuffersPool;
+    }
+
+    @Autowired(required = false)
+    public void setRoutingMetrics(RoutingMetrics routingMetrics) {
+        searchMeters = routingMetrics.searchMeters(ENGINE);
+    }
+
+    @Override
+    public List<String> findLandRoute(String origin, String destination)
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        CountryValidationResponseDto validationResponse =
+                countryService.validateCountries(countryGraph, origin, destination);
+        int source = countryGraph.ordinalOf(validationResponse.originCountry().getCca3());
+        int target = countryGraph.ordinalOf(validationResponse.destinationCountry().getCca3());
+
+        SearchBuffers forward = searchBuffersPool.acquire(countryGraph.size());
+        SearchBuffers backward = searchBuffersPool.acquire(countryGraph.size());
+        try {
+            long searchStartNanos = System.nanoTime();
+            Predecessors predecessors = countryGraph.derive(Predecessors.class, Predecessors::of);
+            Meeting meeting = search(countryGraph, predecessors, source, target, forward, backward);
+            searchMeters.recordSearch(searchStartNanos, forward.expanded + backward.expanded);
+            if (!meeting.found()) {
+                throw new PathNotFoundException(String.format(PATH_NOT_FOUND_ERROR, origin, destination));
+            }
+
+            long buildStartNanos = System.nanoTime();
+            List<String> route = buildRoute(countryGraph, forward, backward, meeting);
+            searchMeters.recordBuild(buildStartNanos);
+            return route;
+        } finally {
+            searchBuffersPool.release(forward);
+            searchBuffersPool.release(backward);
+        }
+    }
+
+    /**
+     * Searches until both sides meet, returning the best meeting found, if any.
+     */
+    private static Meeting search(CountryGraph countryGraph, Predecessors predecessors, int source, int target,
+                                  SearchBuffers forward, SearchBuffers backward) {
+        Frontier forwardFrontier = new Frontier(forward, source);
+        Frontier backwardFrontier = new Frontier(backward, target);
+        Meeting meeting = new Meeting();
+
+        while (!forwardFrontier.isEmpty() && !backwardFrontier.isEmpty()) {
+            if (forwardFrontier.size() <= backwardFrontier.size()) {
+                forwardFrontier.expandLevel(countryGraph, predecessors, backwardFrontier, meeting, true);
+            } else {
+                backwardFrontier.expandLevel(countryGraph, predecessors, forwardFrontier, meeting, false);
+            }
+
+            if (meeting.found()) {
+                break;
+            }
+        }
+
+        forward.expanded = forwardFrontier.head;
+        backward.expanded = backwardFrontier.head;
+        return meeting;
+    }
+
+    private static List<String> buildRoute(CountryGraph countryGraph, SearchBuffers forward, SearchBuffers backward,
+                                           Meeting meeting) {
+        int forwardLength = forward.distances[meeting.forwardCountry] + 1;
+        String[] route = new String[forwardLength + backward.distances[meeting.backwardCountry] + 1];
+
+        int index = forwardLength;
+        for (int country = meeting.forwardCountry; country != SearchBuffers.NO_PARENT;
+             country = forward.parents[country]) {
+            route[--index] = countryGraph.cca3Of(country);
+        }
+
+        index = forwardLength;
+        for (int country = meeting.backwardCountry; country != SearchBuffers.NO_PARENT;
+             country = backward.parents[country]) {
+            route[index++] = countryGraph.cca3Of(country);
+        }
+        return Arrays.asList(route);
+    }
+
+    /**
+     * One side of the search. Its queue holds the discovered countries in discovery order and
+     * {@code queue[head, tail)} is the current frontier.
+     */
+    private static final class Frontier {
+        private final SearchBuffers buffers;
+        private int head;
+        private int tail;
+
+        Frontier(SearchBuffers buffers, int start) {
+            this.buffers = buffers;
+            buffers.queue[tail++] = start;
+            buffers.parents[start] = SearchBuffers.NO_PARENT;
+            buffers.distances[start] = 0;
+            buffers.markVisited(start);
+        }
+
+        boolean isEmpty() {
+            return head == tail;
+        }
+
+        int size() {
+            return tail - head;
+        }
+
+        /**
+         * Expands the whole current level, along the borders of the countries when searching {@code forward} and
+         * along the borders leading to them otherwise.
+         */
+        void expandLevel(CountryGraph countryGraph, Predecessors predecessors, Frontier other, Meeting meeting,
+                         boolean forward) {
+            int levelEnd = tail;
+            while (head < levelEnd) {
+                int current = buffers.queue[head++];
+                int first = forward ? countryGraph.firstNeighborIndex(current) : predecessors.offsets[current];
+                int last = forward ? countryGraph.lastNeighborIndex(current) : predecessors.offsets[current + 1];
+                for (int i = first; i < last; i++) {
+                    int neighbor = forward ? countryGraph.neighborAt(i) : predecessors.countries[i];
+                    if (other.buffers.isVisited(neighbor)) {
+                        int hops = buffers.distances[current] + 1 + other.buffers.distances[neighbor];
+                        if (forward) {
+                            meeting.offer(hops, current, neighbor);
+                        } else {
+                            meeting.offer(hops, neighbor, current);
+                        }
+                    }
+
+                    if (!buffers.isVisited(neighbor)) {
+                        buffers.markVisited(neighbor);
+                        buffers.parents[neighbor] = current;
+                        buffers.distances[neighbor] = buffers.distances[current] + 1;
+                        buffers.queue[tail++] = neighbor;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reverse border graph of a snapshot in compressed sparse row form: the countries listing a border with country
+     * {@code i} are {@code countries[offsets[i]]} to {@code countries[offsets[i + 1] - 1]}.
+     */
+    private record Predecessors(int[] offsets, int[] countries) {
+
+        static Predecessors of(CountryGraph countryGraph) {
+            int size = countryGraph.size();
+            int[] offsets = new int[size + 1];
+            for (int i = 0; i < countryGraph.edgeCount(); i++) {
+                offsets[countryGraph.neighborAt(i) + 1]++;
+            }
+            for (int country = 0; country < size; country++) {
+                offsets[country + 1] += offsets[country];
+            }
+
+            int[] next = Arrays.copyOf(offsets, size);
+            int[] countries = new int[countryGraph.edgeCount()];
+            for (int country = 0; country < size; country++) {
+                int last = countryGraph.lastNeighborIndex(country);
+                for (int i = countryGraph.firstNeighborIndex(country); i < last; i++) {
+                    countries[next[countryGraph.neighborAt(i)]++] = country;
+                }
+            }
+            return new Predecessors(offsets, countries);
+        }
+    }
+
+    /**
+     * Best border crossing between the two searches found so far: {@code forwardCountry} is reached from the origin
+     * and {@code backwardCountry} from the destination.
+     */
+    private static final class Meeting {
+        private int hops = Integer.MAX_VALUE;
+        private int forwardCountry = -1;
+        private int backwardCountry = -1;
+
+        boolean found() {
+            return hops != Integer.MAX_VALUE;
+        }
+
+        void offer(int hops, int forwardCountry, int backwardCountry) {
+            if (hops < this.hops || (hops == this.hops && (forwardCountry < this.forwardCountry
+                    || (forwardCountry == this.forwardCountry && backwardCountry < this.backwardCountry)))) {
+                this.hops = hops;
+                this.forwardCountry = forwardCountry;
+                this.backwardCountry = backwardCountry;
+            }
+        }
+    }
+}
@@ -3,9 +3,11 @@ package com.stoicalcode.router.service;
 import com.stoicalcode.router.exception.InvalidCountryException;
 import com.stoicalcode.router.exception.PathNotFoundException;
 import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
 import com.stoicalcode.router.model.CountryValidationResponseDto;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -13,17 +15,25 @@ import java.util.*;
 
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "route-search-engine", havingValue = "bfs", matchIfMissing = true)
 public class BreadthFirstSearchCountryService implements SearchCountryService {
 
     private static final String PATH_NOT_FOUND_ERROR = "Not possible land route from '%s' to '%s'";
+    private static final String ENGINE = "bfs";
 
     private final CountryService countryService;
+    private RoutingMetrics.SearchMeters searchMeters = RoutingMetrics.noop().searchMeters(ENGINE);
 
     @Autowired
     public BreadthFirstSearchCountryService(CountryService countryService) {
         this.countryService = countryService;
     }
 
+    @Autowired(required = false)
+    public void setRoutingMetrics(RoutingMetrics routingMetrics) {
+        searchMeters = routingMetrics.searchMeters(ENGINE);
+    }
+
     @Override
     public List<String> findLandRoute(String origin, String destination)
             throws IOException, InvalidCountryException, PathNotFoundException {
@@ -36,12 +46,15 @@ public class BreadthFirstSearchCountryService implements SearchCountryService {
         Set<CountryDto> visited = new HashSet<>();
         Map<CountryDto, CountryDto> previousPaths = new HashMap<>();
         boolean foundPath = false;
+        int expanded = 0;
+        long searchStartNanos = System.nanoTime();
 
         queue.add(originCountry);
 
         outerLoop: while (!queue.isEmpty()) {
             CountryDto currentCountry = queue.poll();
             visited.add(currentCountry);
+            expanded++;
 
             foundPath = currentCountry.equals(destinationCountry);
             if (foundPath) {
@@ -64,11 +77,15 @@ public class BreadthFirstSearchCountryService implements SearchCountryService {
             }
         }
 
+        searchMeters.recordSearch(searchStartNanos, expanded);
         if (!foundPath) {
             throw new PathNotFoundException(String.format(PATH_NOT_FOUND_ERROR, origin, destination));
         }
 
-        return buildRoute(originCountry, destinationCountry, previousPaths);
+        long buildStartNanos = System.nanoTime();
+        List<String> route = buildRoute(originCountry, destinationCountry, previousPaths);
+        searchMeters.recordBuild(buildStartNanos);
+        return route;
     }
 
     private List<String> buildRoute(CountryDto originCountry, CountryDto destinationCountry,
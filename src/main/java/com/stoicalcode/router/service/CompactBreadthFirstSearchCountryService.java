@@ -0,0 +1,112 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.CountryValidationResponseDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Breadth-first search over the compressed sparse row adjacency of the {@link CountryGraph}. It visits the
+ * neighbors in the same order as {@link BreadthFirstSearchCountryService}, so both return the same routes, but
+ * works on country ordinals and pooled arrays instead of hashing {@code CountryDto} instances.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "route-search-engine", havingValue = "compact-bfs")
+public class CompactBreadthFirstSearchCountryService implements SearchCountryService {
+
+    private static final String PATH_NOT_FOUND_ERROR = "Not possible land route from '%s' to '%s'";
+    private static final String ENGINE = "compact-bfs";
+
+    private final CountryService countryService;
+    private final SearchBuffersPool searchBuffersPool;
+    private RoutingMetrics.SearchMeters searchMeters = RoutingMetrics.noop().searchMeters(ENGINE);
+
+    @Autowired
+    public CompactBreadthFirstSearchCountryService(CountryService countryService, SearchBuffersPool searchBuffersPool) {
+        this.countryService = countryService;
+        this.searchBuffersPool = searchBuffersPool;
+    }
+
+    @Autowired(required = false)
+    public void setRoutingMetrics(RoutingMetrics routingMetrics) {
+        searchMeters = routingMetrics.searchMeters(ENGINE);
+    }
+
+    @Override
+    public List<String> findLandRoute(String origin, String destination)
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        CountryValidationResponseDto validationResponse =
+                countryService.validateCountries(countryGraph, origin, destination);
+        int source = countryGraph.ordinalOf(validationResponse.originCountry().getCca3());
+        int target = countryGraph.ordinalOf(validationResponse.destinationCountry().getCca3());
+
+        SearchBuffers buffers = searchBuffersPool.acquire(countryGraph.size());
+        try {
+            long searchStartNanos = System.nanoTime();
+            boolean found = search(countryGraph, source, target, buffers);
+            searchMeters.recordSearch(searchStartNanos, buffers.expanded);
+            if (!found) {
+                throw new PathNotFoundException(String.format(PATH_NOT_FOUND_ERROR, origin, destination));
+            }
+
+            long buildStartNanos = System.nanoTime();
+            List<String> route = buffers.routeTo(countryGraph, target);
+            searchMeters.recordBuild(buildStartNanos);
+            showDebugCountryRouteInfo(countryGraph, route);
+            return route;
+        } finally {
+            searchBuffersPool.release(buffers);
+        }
+    }
+
+    private static boolean search(CountryGraph countryGraph, int source, int target, SearchBuffers buffers) {
+        int[] queue = buffers.queue;
+        int[] parents = buffers.parents;
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = source;
+        parents[source] = SearchBuffers.NO_PARENT;
+        buffers.markVisited(source);
+
+        while (head < tail) {
+            int current = queue[head++];
+            int last = countryGraph.lastNeighborIndex(current);
+            for (int i = countryGraph.firstNeighborIndex(current); i < last; i++) {
+                int neighbor = countryGraph.neighborAt(i);
+                if (!buffers.isVisited(neighbor)) {
+                    parents[neighbor] = current;
+                    if (neighbor == target) {
+                        buffers.expanded = head;
+                        return true;
+                    }
+
+                    buffers.markVisited(neighbor);
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+
+        buffers.expanded = head;
+        return false;
+    }
+
+    private void showDebugCountryRouteInfo(CountryGraph countryGraph, List<String> route) {
+        if (log.isDebugEnabled()) {
+            List<String> fullRouteDebug = route.stream()
+                    .map(cca3 -> countryService.getCountryNameWithCca3(countryGraph.getCca3ToCountryMap().get(cca3)))
+                    .toList();
+            log.debug("Found route from '{}' to '{}': {}", fullRouteDebug.get(0),
+                    fullRouteDebug.get(fullRouteDebug.size() - 1), String.join(" > ", fullRouteDebug));
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.Region;
+import com.stoicalcode.router.model.RouteConstraints;
+import com.stoicalcode.router.model.RouteMetric;
+import com.stoicalcode.router.model.RouteTree;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Land route search under {@link RouteConstraints}. Avoided countries and countries outside the allowed regions are
+ * turned into a bitset over the country ordinals, checked inside the search loop, so the graph is never copied or
+ * filtered per request; the masks of the regions are computed once per snapshot.
+ * <p>
+ * Routes with waypoints are composed of one leg per pair of consecutive stops, each leg being the best route
+ * between them, so a route may cross a country more than once. Without excluded countries the legs are read from
+ * the single-source route trees cached in the snapshot, so they cost no search at all once the trees of the stops
+ * are built.
+ */
+@Service
+public class ConstrainedSearchCountryService {
+
+    private static final String PATH_NOT_FOUND_ERROR =
+            "Not possible land route from '%s' to '%s' with the given constraints";
+    private static final String INVALID_AVOIDED_COUNTRY_ERROR = "invalid avoided country: '%s'";
+    private static final String INVALID_VIA_COUNTRY_ERROR = "invalid via country: '%s'";
+    private static final String ENGINE = "constrained";
+    private static final int UNREACHED = -2;
+    private static final RegionMasksKey REGION_MASKS_KEY = new RegionMasksKey();
+
+    private final CountryService countryService;
+    private final SearchBuffersPool searchBuffersPool;
+    private final WeightedSearchCountryService weightedSearchCountryService;
+    private final Map<RouteMetric, RoutingMetrics.SearchMeters> searchMeters = new EnumMap<>(RouteMetric.class);
+
+    @Autowired
+    public ConstrainedSearchCountryService(CountryService countryService, SearchBuffersPool searchBuffersPool,
+                                           WeightedSearchCountryService weightedSearchCountryService) {
+        this.countryService = countryService;
+        this.searchBuffersPool = searchBuffersPool;
+        this.weightedSearchCountryService = weightedSearchCountryService;
+        setRoutingMetrics(RoutingMetrics.noop());
+    }
+
+    @Autowired(required = false)
+    public void setRoutingMetrics(RoutingMetrics routingMetrics) {
+        for (RouteMetric metric : RouteMetric.values()) {
+            searchMeters.put(metric, routingMetrics.searchMeters(ENGINE + "-" + metric.parameter()));
+        }
+    }
+
+    public List<String> findLandRoute(String origin, String destination, RouteMetric metric,
+                                      RouteConstraints constraints)
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        int[] stops = stopsOf(countryGraph, origin, destination, constraints);
+        long[] excludedCountries = excludedCountriesOf(countryGraph, constraints);
+        for (int stop : stops) {
+            if (isExcluded(excludedCountries, stop)) {
+                throw new PathNotFoundException(String.format(PATH_NOT_FOUND_ERROR, origin, destination));
+            }
+        }
+
+        long searchStartNanos = System.nanoTime();
+        int expanded = 0;
+        List<String> route = new ArrayList<>();
+        route.add(countryGraph.cca3Of(stops[0]));
+        for (int i = 1; i < stops.length; i++) {
+            int source = stops[i - 1];
+            int target = stops[i];
+            if (source == target) {
+                continue;
+            }
+            if (!countryGraph.isConnected(source, target)) {
+                throw new PathNotFoundException(String.format(PATH_NOT_FOUND_ERROR, origin, destination));
+            }
+
+            int legExpanded = excludedCountries == null
+                    ? appendCachedLeg(countryGraph, source, target, metric, route)
+                    : appendSearchedLeg(countryGraph, source, target, metric, excludedCountries, route);
+            if (legExpanded < 0) {
+                throw new PathNotFoundException(String.format(PATH_NOT_FOUND_ERROR, origin, destination));
+            }
+            expanded += legExpanded;
+        }
+        searchMeters.get(metric).recordSearch(searchStartNanos, expanded);
+        return route;
+    }
+
+    /**
+     * Appends the leg from {@code source} to {@code target}, without {@code source}, read from the route tree of
+     * {@code source}.
+     *
+     * @return zero, as no country is expanded, or {@code -1} when {@code target} is not reachable
+     */
+    private int appendCachedLeg(CountryGraph countryGraph, int source, int target, RouteMetric metric,
+                                List<String> route) {
+        if (metric == RouteMetric.HOPS) {
+            RouteTree routeTree = RouteTreeSearch.of(countryGraph, source);
+            return routeTree.reaches(target) ? appendLeg(countryGraph, target, routeTree::parentOf, route) : -1;
+        }
+
+        EdgeCostFunction costFunction = weightedSearchCountryService.costFunctionOf(metric);
+        int[] parents = countryGraph.derive(new WeightedTreeKey(costFunction, source),
+                graph -> new WeightedTree(source, weightedTree(graph, source, costFunction))).parents();
+        return parents[target] != UNREACHED ? appendLeg(countryGraph, target, country -> parents[country], route) : -1;
+    }
+
+    /**
+     * Appends the leg from {@code source} to {@code target}, without {@code source}, searched avoiding the excluded
+     * countries.
+     *
+     * @return the number of countries expanded, or {@code -1} when {@code target} is not reachable
+     */
+    private int appendSearchedLeg(CountryGraph countryGraph, int source, int target, RouteMetric metric,
+                                  long[] excludedCountries, List<String> route) {
+        if (metric == RouteMetric.HOPS) {
+            SearchBuffers buffers = searchBuffersPool.acquire(countryGraph.size());
+            try {
+                if (!search(countryGraph, source, target, excludedCountries, buffers)) {
+                    return -1;
+                }
+                int[] parents = buffers.parents;
+                appendLeg(countryGraph, target, country -> parents[country], route);
+                return buffers.expanded;
+            } finally {
+                searchBuffersPool.release(buffers);
+            }
+        }
+
+        WeightedSearchBuffers buffers = weightedSearchCountryService.acquireBuffers(countryGraph.size());
+        try {
+            buffers.excludeCountries(excludedCountries);
+            if (!WeightedSearchCountryService.search(countryGraph, source, target,
+                    weightedSearchCountryService.costFunctionOf(metric), true, buffers)) {
+                return -1;
+            }
+            int[] parents = buffers.parents;
+            appendLeg(countryGraph, target, country -> parents[country], route);
+            return buffers.expanded;
+        } finally {
+            weightedSearchCountryService.releaseBuffers(buffers);
+        }
+    }
+
+    /**
+     * Appends the countries after the source on the route to {@code target} given by {@code parents}.
+     */
+    private static int appendLeg(CountryGraph countryGraph, int target, IntUnaryOperator parents,
+                                 List<String> route) {
+        int start = route.size();
+        for (int country = target; parents.applyAsInt(country) >= 0; country = parents.applyAsInt(country)) {
+            route.add(countryGraph.cca3Of(country));
+        }
+        for (int i = start, j = route.size() - 1; i < j; i++, j--) {
+            route.set(i, route.set(j, route.get(i)));
+        }
+        return 0;
+    }
+
+    /**
+     * Breadth-first search from {@code source} to {@code target} that never enters an excluded country.
+     */
+    private static boolean search(CountryGraph countryGraph, int source, int target, long[] excludedCountries,
+                                  SearchBuffers buffers) {
+        int[] queue = buffers.queue;
+        int[] parents = buffers.parents;
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = source;
+        parents[source] = SearchBuffers.NO_PARENT;
+        buffers.markVisited(source);
+
+        while (head < tail) {
+            int current = queue[head++];
+            int last = countryGraph.lastNeighborIndex(current);
+            for (int i = countryGraph.firstNeighborIndex(current); i < last; i++) {
+                int neighbor = countryGraph.neighborAt(i);
+                if (!buffers.isVisited(neighbor) && !isExcluded(excludedCountries, neighbor)) {
+                    parents[neighbor] = current;
+                    if (neighbor == target) {
+                        buffers.expanded = head;
+                        return true;
+                    }
+
+                    buffers.markVisited(neighbor);
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+
+        buffers.expanded = head;
+        return false;
+    }
+
+    /**
+     * Returns the parent of every country on its cheapest route from {@code source}, {@link #UNREACHED} for the
+     * countries that can not be reached and {@code -1} for the source.
+     */
+    private static int[] weightedTree(CountryGraph countryGraph, int source, EdgeCostFunction costFunction) {
+        WeightedSearchBuffers buffers = new WeightedSearchBuffers(countryGraph.size());
+        WeightedSearchCountryService.search(countryGraph, source, -1, costFunction, false, buffers);
+        int[] parents = new int[countryGraph.size()];
+        for (int country = 0; country < parents.length; country++) {
+            parents[country] = buffers.isClosed(country) ? buffers.parents[country] : UNREACHED;
+        }
+        return parents;
+    }
+
+    private int[] stopsOf(CountryGraph countryGraph, String origin, String destination, RouteConstraints constraints)
+            throws InvalidCountryException, PathNotFoundException {
+        countryService.validateCountries(countryGraph, origin, destination);
+        int[] stops = new int[constraints.via().size() + 2];
+        stops[0] = countryGraph.ordinalOf(origin);
+        for (int i = 0; i < constraints.via().size(); i++) {
+            String via = constraints.via().get(i);
+            stops[i + 1] = countryGraph.ordinalOf(via);
+            if (stops[i + 1] == -1) {
+                throw new InvalidCountryException(String.format(INVALID_VIA_COUNTRY_ERROR, via.toUpperCase()));
+            }
+        }
+        stops[stops.length - 1] = countryGraph.ordinalOf(destination);
+        return stops;
+    }
+
+    /**
+     * Returns the bitset of the countries the route must not cross, or {@code null} when it may cross any.
+     */
+    private static long[] excludedCountriesOf(CountryGraph countryGraph, RouteConstraints constraints)
+            throws InvalidCountryException {
+        if (constraints.avoid().isEmpty() && constraints.regions().isEmpty()) {
+            return null;
+        }
+
+        long[] excludedCountries = new long[(countryGraph.size() + 63) >>> 6];
+        if (!constraints.regions().isEmpty()) {
+            long[][] regionMasks = countryGraph.derive(REGION_MASKS_KEY, ConstrainedSearchCountryService::regionMasks);
+            for (int word = 0; word < excludedCountries.length; word++) {
+                long allowed = 0;
+                for (Region region : constraints.regions()) {
+                    allowed |= regionMasks[region.ordinal()][word];
+                }
+                excludedCountries[word] = ~allowed;
+            }
+        }
+        for (String avoid : constraints.avoid()) {
+            int country = countryGraph.ordinalOf(avoid);
+            if (country == -1) {
+                throw new InvalidCountryException(String.format(INVALID_AVOIDED_COUNTRY_ERROR, avoid.toUpperCase()));
+            }
+            excludedCountries[country >>> 6] |= 1L << country;
+        }
+        return excludedCountries;
+    }
+
+    private static long[][] regionMasks(CountryGraph countryGraph) {
+        long[][] regionMasks = new long[Region.values().length][(countryGraph.size() + 63) >>> 6];
+        for (int country = 0; country < countryGraph.size(); country++) {
+            Region region = countryGraph.countryAt(country).getRegion();
+            if (region != null) {
+                regionMasks[region.ordinal()][country >>> 6] |= 1L << country;
+            }
+        }
+        return regionMasks;
+    }
+
+    private static boolean isExcluded(long[] excludedCountries, int country) {
+        return excludedCountries != null && (excludedCountries[country >>> 6] & 1L << country) != 0;
+    }
+
+    private record RegionMasksKey() {
+    }
+
+    private record WeightedTreeKey(EdgeCostFunction costFunction, int source) {
+    }
+
+    /**
+     * Shortest path tree of one source, carried over to snapshots with overrides that do not affect the source.
+     */
+    private record WeightedTree(int source, int[] parents) implements CountryGraph.IncrementalData<WeightedTree> {
+
+        @Override
+        public WeightedTree update(CountryGraph updated, BitSet affectedCountries) {
+            return affectedCountries.get(source) ? null : this;
+        }
+    }
+}
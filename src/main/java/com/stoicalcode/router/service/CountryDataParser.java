@@ -0,0 +1,141 @@
+package com.stoicalcode.router.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.stoicalcode.router.model.CapitalInfoDto;
+import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.NameDto;
+import com.stoicalcode.router.model.Region;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming parser of the country data JSON array. Only the fields used by the service are read; every other field
+ * (translations, currencies, flags, ...) is skipped at the token level without being bound to any object.
+ * <p>
+ * Country codes are deduplicated while parsing, so the code of a country and the references to it in the borders of
+ * its neighbors share a single {@code String} instance.
+ */
+public class CountryDataParser {
+    private static final int EXPECTED_COUNTRIES = 256;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public List<CountryDto> parse(InputStream inputStream) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Country data must be a JSON array");
+            }
+
+            List<CountryDto> countries = new ArrayList<>(EXPECTED_COUNTRIES);
+            Map<String, String> codes = new HashMap<>(EXPECTED_COUNTRIES * 4);
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                countries.add(parseCountry(parser, codes));
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "Country data must only contain JSON objects");
+            }
+            return countries;
+        }
+    }
+
+    private static CountryDto parseCountry(JsonParser parser, Map<String, String> codes) throws IOException {
+        CountryDto country = new CountryDto();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "cca3" -> country.setCca3(parseCode(parser, codes));
+                case "cca2" -> country.setCca2(parseCode(parser, codes));
+                case "ccn3" -> country.setCcn3(parseCode(parser, codes));
+                case "region" -> country.setRegion(parseRegion(parser));
+                case "latlng" ->
+                        country.setLatlng(token == JsonToken.START_ARRAY ? parseLatlng(parser) : skipValue(parser));
+                case "capitalInfo" -> country.setCapitalInfo(
+                        token == JsonToken.START_OBJECT ? parseCapitalInfo(parser) : skipValue(parser));
+                case "name" -> country.setName(token == JsonToken.START_OBJECT ? parseName(parser) : skipValue(parser));
+                case "borders" -> country.setBorders(
+                        token == JsonToken.START_ARRAY ? parseBorders(parser, codes) : skipValue(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return country;
+    }
+
+    private static NameDto parseName(JsonParser parser) throws IOException {
+        NameDto name = new NameDto();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "common" -> name.setCommon(parser.getValueAsString());
+                case "official" -> name.setOfficial(parser.getValueAsString());
+                default -> parser.skipChildren(); // native names
+            }
+        }
+        return name;
+    }
+
+    private static CapitalInfoDto parseCapitalInfo(JsonParser parser) throws IOException {
+        CapitalInfoDto capitalInfo = new CapitalInfoDto();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            JsonToken token = parser.nextToken();
+            if ("latlng".equals(parser.currentName()) && token == JsonToken.START_ARRAY) {
+                capitalInfo.setLatlng(parseLatlng(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return capitalInfo;
+    }
+
+    private static List<Double> parseLatlng(JsonParser parser) throws IOException {
+        List<Double> latlng = new ArrayList<>(2);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            latlng.add(parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsDouble());
+        }
+        return latlng;
+    }
+
+    private static List<String> parseBorders(JsonParser parser, Map<String, String> codes) throws IOException {
+        List<String> borders = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            borders.add(parseCode(parser, codes));
+        }
+        return borders;
+    }
+
+    private static String parseCode(JsonParser parser, Map<String, String> codes) throws IOException {
+        String code = parser.getValueAsString();
+        if (code == null) {
+            return null;
+        }
+        String existing = codes.putIfAbsent(code, code);
+        return existing != null ? existing : code;
+    }
+
+    private static Region parseRegion(JsonParser parser) throws IOException {
+        String region = parser.getValueAsString();
+        if (region == null) {
+            return null;
+        }
+        try {
+            return Region.valueOf(region);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(parser, String.format("Unknown region: '%s'", region));
+        }
+    }
+
+    private static <T> T skipValue(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        return null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.model.CountryGraph;
+
+/**
+ * Published after a new country data snapshot has replaced the previous one.
+ */
+public record CountryGraphLoadedEvent(CountryGraph countryGraph) {
+}
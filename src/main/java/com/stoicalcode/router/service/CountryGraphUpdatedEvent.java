@@ -0,0 +1,13 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.model.CountryGraph;
+
+import java.util.BitSet;
+
+/**
+ * Published when overrides have been applied to the current snapshot, right before the {@code updated} snapshot
+ * replaces the {@code previous} one. The countries outside {@code affectedCountries} keep the same borders and
+ * connected components, so what listeners know about them stays valid.
+ */
+public record CountryGraphUpdatedEvent(CountryGraph previous, CountryGraph updated, BitSet affectedCountries) {
+}
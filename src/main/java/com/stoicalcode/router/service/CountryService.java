@@ -1,25 +1,47 @@
 package com.stoicalcode.router.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stoicalcode.router.exception.InvalidCountryException;
 import com.stoicalcode.router.exception.PathNotFoundException;
 import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.CountryGraphOverrides;
 import com.stoicalcode.router.model.CountryValidationResponseDto;
 import com.stoicalcode.router.model.NameDto;
 import com.stoicalcode.router.model.Region;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.function.Function;
-
-import static java.util.stream.Collectors.toMap;
-import static java.util.stream.Collectors.toSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 @Slf4j
 @Service
@@ -29,57 +51,427 @@ public class CountryService {
     private static final String SAME_ORIGIN_AND_DESTINATION_ERROR = "origin and destination countries are the same: '%s'";
     private static final String REGIONS_NOT_CONNECTED_BY_LAND_ERROR = "origin and destination not connected by land: '%s' (%s region), '%s' (%s region)";
     private static final String COUNTRY_WITHOUT_LAND_BORDERS_ERROR = "origin '%s' or destination '%s' countries has no borders";
+    private static final String COUNTRIES_NOT_CONNECTED_BY_LAND_ERROR = "origin and destination not connected by land: '%s', '%s'";
+    private static final String INVALID_COUNTRY_ERROR = "invalid country: '%s'";
+    private static final String SAME_BORDER_COUNTRIES_ERROR = "a border needs two different countries: '%s'";
+    private static final int CONNECTION_TIMEOUT_MILLIS = 10_000;
+    private static final String FETCHER_SHUT_DOWN_ERROR = "The country data fetcher is shut down";
+    private static final String FETCH_TIMEOUT_ERROR = "Timed out after %s waiting for the country data";
 
     @Value("${country-data-url}")
     @Setter
     private String countryDataUrl;
 
+    @Value("${country-snapshot-file:}")
+    @Setter
+    private String countrySnapshotFile;
+
+    @Value("${country-snapshot-max-age:P1D}")
+    @Setter
+    private Duration countrySnapshotMaxAge = Duration.ofDays(1);
+
+    @Value("${country-data-fetch-timeout:PT2M}")
+    @Setter
+    private Duration countryDataFetchTimeout = Duration.ofMinutes(2);
+
     @Setter
-    private ObjectMapper objectMapper = new ObjectMapper();
+    private CountryDataParser countryDataParser = new CountryDataParser();
+
+    @Autowired(required = false)
+    @Setter
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired(required = false)
+    @Setter
+    private RoutingMetrics routingMetrics = RoutingMetrics.noop();
+
+    @Getter
+    @Setter
+    private ForkJoinPool snapshotBuildPool = ForkJoinPool.commonPool();
+
+    private final List<Consumer<CountryGraph>> derivedDataBuilders = new CopyOnWriteArrayList<>();
+    private final Map<String, Long> buildStageNanos = new LinkedHashMap<>(); // only used by the fetcher thread
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final ExecutorService fetcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "country-data-fetcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private CompletableFuture<CountryGraph> pendingFetch; // guarded by this
+    private volatile CountryGraph countryGraph; // loaded country data with the overrides applied
+    private volatile CountryGraph baseCountryGraph; // loaded country data, only written by the fetcher thread
+    private volatile CountryGraphOverrides overrides = CountryGraphOverrides.NONE; // same
 
     public CountryValidationResponseDto validateCountries(String origin, String destination)
             throws IOException, InvalidCountryException, PathNotFoundException {
-        origin = origin.toUpperCase();
-        destination = destination.toUpperCase();
-        List<CountryDto> allCountries = getCountriesFromUrl();
+        return validateCountries(getCountryGraph(), origin, destination);
+    }
+
+    public CountryValidationResponseDto validateCountries(CountryGraph countryGraph, String origin, String destination)
+            throws InvalidCountryException, PathNotFoundException {
+        long startNanos = System.nanoTime();
+        try {
+            int originOrdinal = countryGraph.ordinalOf(origin);
+            int destinationOrdinal = countryGraph.ordinalOf(destination);
+
+            validateOriginAndDestination(origin, destination, originOrdinal, destinationOrdinal);
+            return validatePathBetweenOriginAndDestination(origin, destination, originOrdinal, destinationOrdinal,
+                    countryGraph);
+        } finally {
+            routingMetrics.recordValidation(startNanos);
+        }
+    }
 
-        validateOriginAndDestination(origin, destination, allCountries);
-        return validatePathBetweenOriginAndDestination(origin, destination, allCountries);
+    /**
+     * Returns the ordinal of the origin country in the snapshot.
+     */
+    public int validateOrigin(CountryGraph countryGraph, String origin) throws InvalidCountryException {
+        int originOrdinal = countryGraph.ordinalOf(origin);
+        if (originOrdinal == -1) {
+            throw new InvalidCountryException(String.format(INVALID_ORIGIN_COUNTRY_ERR0R, origin.toUpperCase()));
+        }
+        return originOrdinal;
+    }
+
+    /**
+     * Returns the current country data snapshot. Until the first snapshot is loaded, callers wait for the background
+     * fetcher to load it; they never download the country data themselves.
+     */
+    public CountryGraph getCountryGraph() throws IOException {
+        CountryGraph graph = countryGraph;
+        if (graph != null) {
+            return graph;
+        }
+        return await(fetchInBackground());
     }
 
-    private List<CountryDto> getCountriesFromUrl() throws IOException {
+    /**
+     * Reloads the country data in the background. The new snapshot replaces the current one only when the data was
+     * fetched and parsed successfully, otherwise the last good snapshot keeps being served.
+     */
+    @Scheduled(fixedDelayString = "${country-data-refresh-interval:PT1H}")
+    public void refreshCountryGraph() {
         try {
-            CountryDto[] countries = objectMapper.readValue(new URL(countryDataUrl), CountryDto[].class);
-            return Arrays.asList(countries);
+            await(fetchInBackground());
         } catch (IOException e) {
+            log.warn("Country data refresh failed, keeping version {}: {}",
+                    countryGraph != null ? countryGraph.getVersion() : "none", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetcher.shutdownNow();
+    }
+
+    /**
+     * Returns the fetch currently running on the fetcher thread, starting a new one if none is running, so there is
+     * never more than one download of the country data at a time.
+     */
+    private synchronized CompletableFuture<CountryGraph> fetchInBackground() {
+        if (pendingFetch != null) {
+            return pendingFetch;
+        }
+
+        CompletableFuture<CountryGraph> fetch = new CompletableFuture<>();
+        // submitted before it is published, as a rejected fetch would never complete; the task can not clear it
+        // before then, as it needs this lock
+        try {
+            fetcher.execute(() -> {
+                CountryGraph loaded = null;
+                Throwable failure = null;
+                try {
+                    loaded = loadCountryGraph();
+                } catch (Throwable e) {
+                    failure = e;
+                }
+                synchronized (this) {
+                    pendingFetch = null;
+                }
+                if (failure != null) {
+                    fetch.completeExceptionally(failure);
+                } else {
+                    fetch.complete(loaded);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new IOException(FETCHER_SHUT_DOWN_ERROR, e));
+        }
+        pendingFetch = fetch;
+        return fetch;
+    }
+
+    /**
+     * Loads the first snapshot, from the snapshot file if possible, or refreshes the current one. Only ever runs on
+     * the fetcher thread.
+     */
+    private CountryGraph loadCountryGraph() throws IOException {
+        buildStageNanos.clear();
+        CountryGraph current = baseCountryGraph;
+        CountryGraph loaded = current == null ? readCountrySnapshot() : null;
+        if (loaded == null) {
+            loaded = fetchCountryGraph(current);
+            if (loaded == current) {
+                log.debug("Country data not modified, keeping version {}", countryGraph.getVersion());
+                return countryGraph;
+            }
+            writeCountrySnapshot(loaded);
+        }
+        baseCountryGraph = loaded;
+        CountryGraph effective = loaded;
+        if (!overrides.isEmpty()) {
+            long startNanos = System.nanoTime();
+            effective = loaded.withOverrides(loaded, overrides, loaded.getVersion()).countryGraph();
+            buildStageNanos.put("overrides", System.nanoTime() - startNanos);
+        }
+        publish(effective);
+        return effective;
+    }
+
+    /**
+     * Registers a builder of data derived from every new snapshot, such as a routing table. All the builders run in
+     * parallel before the snapshot replaces the current one, so requests never wait for the derived data.
+     */
+    public void addDerivedDataBuilder(Consumer<CountryGraph> derivedDataBuilder) {
+        derivedDataBuilders.add(derivedDataBuilder);
+    }
+
+    public CountryGraph openBorder(String country1, String country2) throws IOException, InvalidCountryException {
+        CountryGraphOverrides.Border border = borderOf(getCountryGraph(), country1, country2);
+        return updateOverrides(current -> current.withBorderOpened(border.country1(), border.country2()));
+    }
+
+    public CountryGraph closeBorder(String country1, String country2) throws IOException, InvalidCountryException {
+        CountryGraphOverrides.Border border = borderOf(getCountryGraph(), country1, country2);
+        return updateOverrides(current -> current.withBorderClosed(border.country1(), border.country2()));
+    }
+
+    public CountryGraph setCountryUnavailable(String country, boolean unavailable)
+            throws IOException, InvalidCountryException {
+        String cca3 = cca3Of(getCountryGraph(), country);
+        return updateOverrides(current -> unavailable ? current.withCountryUnavailable(cca3)
+                : current.withCountryAvailable(cca3));
+    }
+
+    public CountryGraph clearOverrides() throws IOException {
+        return updateOverrides(current -> CountryGraphOverrides.NONE);
+    }
+
+    /**
+     * Applies {@code update} to the overrides and replaces the current snapshot with one reflecting them. Updates
+     * run on the fetcher thread, one at a time and never during a refresh; requests keep being served from the
+     * current snapshot until the updated one replaces it, without waiting.
+     */
+    private CountryGraph updateOverrides(UnaryOperator<CountryGraphOverrides> update) throws IOException {
+        getCountryGraph();
+        return await(CompletableFuture.supplyAsync(() -> applyOverrides(update), fetcher));
+    }
+
+    /**
+     * Derives the snapshot with the updated overrides from the current one, so only the components affected by the
+     * change are recomputed. Only ever runs on the fetcher thread.
+     */
+    private CountryGraph applyOverrides(UnaryOperator<CountryGraphOverrides> update) {
+        CountryGraph previous = countryGraph;
+        CountryGraphOverrides updatedOverrides = update.apply(overrides);
+        if (updatedOverrides.equals(overrides)) {
+            return previous;
+        }
+
+        buildStageNanos.clear();
+        long startNanos = System.nanoTime();
+        CountryGraph.Update updated = previous.withOverrides(baseCountryGraph, updatedOverrides,
+                versionSequence.incrementAndGet());
+        routingMetrics.recordGraphBuild(startNanos);
+        buildStageNanos.put("overrides", System.nanoTime() - startNanos);
+        overrides = updatedOverrides;
+        log.info("Applied country data overrides, {} countries affected", updated.affectedCountries().cardinality());
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new CountryGraphUpdatedEvent(previous, updated.countryGraph(),
+                    updated.affectedCountries()));
+        }
+        publish(updated.countryGraph());
+        return updated.countryGraph();
+    }
+
+    private CountryGraph await(CompletableFuture<CountryGraph> fetch) throws IOException {
+        try {
+            return fetch.get(countryDataFetchTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException(String.format(FETCH_TIMEOUT_ERROR, countryDataFetchTimeout), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the country data", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw new IOException(ioException.getMessage(), ioException);
+            }
+            throw new IllegalStateException("Failed to load the country data", e.getCause());
+        }
+    }
+
+    /**
+     * Builds the derived data of the snapshot and then makes it the current one with a single volatile write, so
+     * requests switch from the complete previous snapshot to the complete new one without any lock.
+     */
+    private void publish(CountryGraph loaded) {
+        long startNanos = System.nanoTime();
+        snapshotBuildPool.submit(() -> derivedDataBuilders.parallelStream().forEach(derivedDataBuilder -> {
+            try {
+                derivedDataBuilder.accept(loaded);
+            } catch (RuntimeException e) {
+                log.warn("Data derived from country data version {} left to first use: {}", loaded.getVersion(),
+                        e.getMessage());
+            }
+        })).join();
+        buildStageNanos.put("derived", System.nanoTime() - startNanos);
+
+        countryGraph = loaded;
+        log.info("Loaded country data version {} with {} countries, stages: {}", loaded.getVersion(), loaded.size(),
+                formatStages(buildStageNanos));
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new CountryGraphLoadedEvent(loaded));
+        }
+    }
+
+    /**
+     * Returns the snapshot stored in the country snapshot file, or {@code null} when no file is configured or the
+     * file is missing, unreadable or older than {@code country-snapshot-max-age}.
+     */
+    private CountryGraph readCountrySnapshot() {
+        if (!StringUtils.hasText(countrySnapshotFile)) {
+            return null;
+        }
+
+        Path path = Path.of(countrySnapshotFile);
+        if (!Files.exists(path)) {
+            log.info("Country snapshot file '{}' not found, loading country data from URL", path);
+            return null;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            CountrySnapshotFile.Contents contents = CountrySnapshotFile.read(path);
+            routingMetrics.recordFetch(RoutingMetrics.SNAPSHOT_FILE_SOURCE, RoutingMetrics.LOADED_OUTCOME, startNanos);
+            buildStageNanos.put("read", System.nanoTime() - startNanos);
+            if (contents.createdAt().plus(countrySnapshotMaxAge).isBefore(Instant.now())) {
+                log.info("Country snapshot file '{}' created at {} is stale, loading country data from URL", path,
+                        contents.createdAt());
+                return null;
+            }
+            log.info("Loading country data from snapshot file '{}' created at {}", path, contents.createdAt());
+            return buildCountryGraph(contents.countries(), contents.etag(), contents.lastModified());
+        } catch (IOException e) {
+            routingMetrics.recordFetch(RoutingMetrics.SNAPSHOT_FILE_SOURCE, RoutingMetrics.FAILED_OUTCOME, startNanos);
+            log.warn("Country snapshot file '{}' ignored: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stores the snapshot in the country snapshot file, if one is configured, for the next start of the service.
+     */
+    private void writeCountrySnapshot(CountryGraph loaded) {
+        if (!StringUtils.hasText(countrySnapshotFile)) {
+            return;
+        }
+
+        try {
+            CountrySnapshotFile.write(loaded, Instant.now(), Path.of(countrySnapshotFile));
+        } catch (IOException e) {
+            log.warn("Country snapshot file '{}' not written: {}", countrySnapshotFile, e.getMessage());
+        }
+    }
+
+    private CountryGraph buildCountryGraph(List<CountryDto> countries, String etag, String lastModified) {
+        long startNanos = System.nanoTime();
+        CountryGraph built = CountryGraph.build(countries, versionSequence.incrementAndGet(), Instant.now(), etag,
+                lastModified, snapshotBuildPool, buildStageNanos::put);
+        routingMetrics.recordGraphBuild(startNanos);
+        return built;
+    }
+
+    private static String formatStages(Map<String, Long> stageNanos) {
+        StringJoiner stages = new StringJoiner(", ");
+        stageNanos.forEach((stage, nanos) -> stages.add(String.format(Locale.ROOT, "%s %.3f ms", stage, nanos / 1e6)));
+        return stages.toString();
+    }
+
+    private CountryGraph fetchCountryGraph(CountryGraph current) throws IOException {
+        long startNanos = System.nanoTime();
+        try {
+            URLConnection connection = new URL(countryDataUrl).openConnection();
+            connection.setConnectTimeout(CONNECTION_TIMEOUT_MILLIS);
+            connection.setReadTimeout(CONNECTION_TIMEOUT_MILLIS);
+
+            if (connection instanceof HttpURLConnection httpConnection) {
+                if (current != null && current.getEtag() != null) {
+                    httpConnection.setRequestProperty("If-None-Match", current.getEtag());
+                }
+                if (current != null && current.getLastModified() != null) {
+                    httpConnection.setRequestProperty("If-Modified-Since", current.getLastModified());
+                }
+                if (current != null && httpConnection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    httpConnection.disconnect();
+                    routingMetrics.recordFetch(RoutingMetrics.URL_SOURCE, RoutingMetrics.NOT_MODIFIED_OUTCOME,
+                            startNanos);
+                    return current;
+                }
+            }
+
+            List<CountryDto> countries;
+            try (InputStream inputStream = connection.getInputStream()) {
+                countries = countryDataParser.parse(inputStream);
+            }
+            routingMetrics.recordFetch(RoutingMetrics.URL_SOURCE, RoutingMetrics.LOADED_OUTCOME, startNanos);
+            buildStageNanos.put("fetch", System.nanoTime() - startNanos);
+            return buildCountryGraph(countries, connection.getHeaderField("ETag"),
+                    connection.getHeaderField("Last-Modified"));
+        } catch (IOException e) {
+            routingMetrics.recordFetch(RoutingMetrics.URL_SOURCE, RoutingMetrics.FAILED_OUTCOME, startNanos);
             log.error("Error found while while fetching countries data from URL '{}'", countryDataUrl);
             throw new IOException("An error occurred while fetching countries data");
         }
     }
 
-    private void validateOriginAndDestination(String origin, String destination,
-                                              List<CountryDto> allCountries) throws InvalidCountryException {
-        List<String> errors = new ArrayList<>();
+    private static CountryGraphOverrides.Border borderOf(CountryGraph countryGraph, String country1,
+                                                         String country2) throws InvalidCountryException {
+        String cca3 = cca3Of(countryGraph, country1);
+        if (cca3.equals(cca3Of(countryGraph, country2))) {
+            throw new InvalidCountryException(String.format(SAME_BORDER_COUNTRIES_ERROR, cca3));
+        }
+        return new CountryGraphOverrides.Border(cca3, cca3Of(countryGraph, country2));
+    }
+
+    private static String cca3Of(CountryGraph countryGraph, String country) throws InvalidCountryException {
+        int ordinal = countryGraph.ordinalOf(country);
+        if (ordinal == -1) {
+            throw new InvalidCountryException(String.format(INVALID_COUNTRY_ERROR, country.toUpperCase()));
+        }
+        return countryGraph.cca3Of(ordinal);
+    }
 
-        Set<String> validCountryCodes = allCountries.stream().map(CountryDto::getCca3).collect(toSet());
-        boolean validOriginCountry = validCountryCodes.contains(origin);
-        boolean validDestinationCountry = validCountryCodes.contains(destination);
+    private void validateOriginAndDestination(String origin, String destination, int originOrdinal,
+                                              int destinationOrdinal) throws InvalidCountryException {
+        boolean validOriginCountry = originOrdinal != -1;
+        boolean validDestinationCountry = destinationOrdinal != -1;
+        if (validOriginCountry && validDestinationCountry && originOrdinal != destinationOrdinal) {
+            return;
+        }
 
+        List<String> errors = new ArrayList<>();
         if (!validOriginCountry) {
-            errors.add(String.format(INVALID_ORIGIN_COUNTRY_ERR0R, origin));
+            errors.add(String.format(INVALID_ORIGIN_COUNTRY_ERR0R, origin.toUpperCase()));
         }
 
         if (!validDestinationCountry) {
-            errors.add(String.format(INVALID_DESTINATION_COUNTRY_ERROR, destination));
+            errors.add(String.format(INVALID_DESTINATION_COUNTRY_ERROR, destination.toUpperCase()));
         }
 
-        if (validOriginCountry && validDestinationCountry && origin.equals(destination)) {
-            errors.add(String.format(SAME_ORIGIN_AND_DESTINATION_ERROR, destination));
+        if (validOriginCountry && validDestinationCountry) {
+            errors.add(String.format(SAME_ORIGIN_AND_DESTINATION_ERROR, destination.toUpperCase()));
         }
 
-        if (!CollectionUtils.isEmpty(errors)) {
-            throw new InvalidCountryException(String.join(", ", errors));
-        }
+        throw new InvalidCountryException(String.join(", ", errors));
     }
 
     public String getCountryNameWithCca3(CountryDto country) {
@@ -92,40 +484,29 @@ public class CountryService {
     }
 
     private CountryValidationResponseDto validatePathBetweenOriginAndDestination(
-            String origin, String destination, List<CountryDto> allCountries) throws PathNotFoundException {
-
-        CountryDto originCountry = null;
-        CountryDto destinationCountry = null;
-        Map<String, CountryDto> cca3ToCountryMap = new HashMap<>();
-
-        List<String> errors = new ArrayList<>();
-        Optional<CountryDto> originCountryOpt = getCountryByCode(origin, allCountries);
-        Optional<CountryDto> destinationCountryOpt = getCountryByCode(destination, allCountries);
-
-        if (originCountryOpt.isPresent() && destinationCountryOpt.isPresent()) {
-            originCountry = originCountryOpt.get();
-            destinationCountry = destinationCountryOpt.get();
+            String origin, String destination, int originOrdinal, int destinationOrdinal, CountryGraph countryGraph)
+            throws PathNotFoundException {
+        CountryDto originCountry = countryGraph.countryAt(originOrdinal);
+        CountryDto destinationCountry = countryGraph.countryAt(destinationOrdinal);
 
-            Region originRegion = originCountry.getRegion();
-            Region destinationRegion = destinationCountry.getRegion();
-
-            if (!originRegion.isConnectedWith(destinationRegion)) {
-                errors.add(String.format(REGIONS_NOT_CONNECTED_BY_LAND_ERROR, origin, originRegion, destination, destinationRegion));
-            } else if (isAnyCountryWithoutBorders(originCountry, destinationCountry)) {
-                errors.add(String.format(COUNTRY_WITHOUT_LAND_BORDERS_ERROR, origin, destination));
-            }
+        // the connected components decide, the regions and borders only explain why there is no land route
+        if (countryGraph.isConnected(originOrdinal, destinationOrdinal)) {
+            return new CountryValidationResponseDto(originCountry, destinationCountry, countryGraph.getCca3ToCountryMap());
         }
 
-        if (CollectionUtils.isEmpty(errors)) {
-            cca3ToCountryMap = allCountries.stream().collect(toMap(CountryDto::getCca3, Function.identity()));
-            return new CountryValidationResponseDto(originCountry, destinationCountry, cca3ToCountryMap);
-        }
+        origin = origin.toUpperCase();
+        destination = destination.toUpperCase();
+        Region originRegion = originCountry.getRegion();
+        Region destinationRegion = destinationCountry.getRegion();
 
-        throw new PathNotFoundException(String.join(", ", errors));
-    }
+        if (!originRegion.isConnectedWith(destinationRegion)) {
+            throw new PathNotFoundException(String.format(REGIONS_NOT_CONNECTED_BY_LAND_ERROR, origin, originRegion,
+                    destination, destinationRegion));
+        } else if (isAnyCountryWithoutBorders(originCountry, destinationCountry)) {
+            throw new PathNotFoundException(String.format(COUNTRY_WITHOUT_LAND_BORDERS_ERROR, origin, destination));
+        }
 
-    private Optional<CountryDto> getCountryByCode(String cca3Code, List<CountryDto> countries) {
-        return countries.stream().filter(c -> c.getCca3().equalsIgnoreCase(cca3Code)).findFirst();
+        throw new PathNotFoundException(String.format(COUNTRIES_NOT_CONNECTED_BY_LAND_ERROR, origin, destination));
     }
 
     private boolean isAnyCountryWithoutBorders(CountryDto c1, CountryDto c2) {
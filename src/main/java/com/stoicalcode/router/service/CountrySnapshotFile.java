@@ -0,0 +1,234 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.model.CapitalInfoDto;
+import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.NameDto;
+import com.stoicalcode.router.model.Region;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary file with a country data snapshot, so the service can start without downloading and parsing the
+ * country data JSON.
+ * <p>
+ * Layout, big-endian: magic, format version, payload length and CRC-32 of the payload, followed by the payload:
+ * creation time, HTTP validators of the source data, the countries (codes, names, region and the coordinates of the
+ * centroid and the capital, {@code NaN} when unknown) and the border graph in compressed sparse row form, with the
+ * borders as country ordinals. The file is memory-mapped for reading and rejected when any of the header fields does
+ * not match.
+ */
+public final class CountrySnapshotFile {
+    private static final int MAGIC = 0x43525353; // "CRSS"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_BYTES = Integer.BYTES * 3 + Long.BYTES;
+    private static final int NULL_LENGTH = -1;
+    private static final Region[] REGIONS = Region.values();
+
+    private CountrySnapshotFile() {
+    }
+
+    /**
+     * Contents of a snapshot file, {@code etag} and {@code lastModified} being the validators of the HTTP response
+     * the countries were loaded from, if any.
+     */
+    public record Contents(List<CountryDto> countries, Instant createdAt, String etag, String lastModified) {
+    }
+
+    /**
+     * Writes the snapshot to {@code path}, replacing the file atomically, so readers never see a partial file.
+     */
+    public static void write(CountryGraph countryGraph, Instant createdAt, Path path) throws IOException {
+        ByteBuffer payload = encode(countryGraph, createdAt);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt(payload.remaining())
+                .putLong(checksum.getValue())
+                .flip();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Path tempFile = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                while (header.hasRemaining() || payload.hasRemaining()) {
+                    channel.write(new ByteBuffer[]{header, payload});
+                }
+                channel.force(true);
+            }
+            Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    public static Contents read(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(String.format("'%s' is not a country snapshot file", path));
+            }
+            int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException(String.format("Unsupported country snapshot format version %d in '%s'",
+                        formatVersion, path));
+            }
+            int payloadLength = buffer.getInt();
+            long expectedChecksum = buffer.getLong();
+            if (payloadLength != buffer.remaining()) {
+                throw new IOException(String.format("Truncated country snapshot file '%s'", path));
+            }
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.duplicate());
+            if (checksum.getValue() != expectedChecksum) {
+                throw new IOException(String.format("Corrupted country snapshot file '%s'", path));
+            }
+
+            return decode(buffer);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                 | NegativeArraySizeException e) {
+            throw new IOException(String.format("Malformed country snapshot file '%s'", path), e);
+        }
+    }
+
+    private static ByteBuffer encode(CountryGraph countryGraph, Instant createdAt) {
+        int size = countryGraph.size();
+        List<byte[]> strings = new ArrayList<>(size * 5 + 2);
+        strings.add(utf8(countryGraph.getEtag()));
+        strings.add(utf8(countryGraph.getLastModified()));
+        for (int i = 0; i < size; i++) {
+            CountryDto country = countryGraph.countryAt(i);
+            NameDto name = country.getName();
+            strings.add(utf8(country.getCca3()));
+            strings.add(utf8(country.getCca2()));
+            strings.add(utf8(country.getCcn3()));
+            strings.add(utf8(name != null ? name.getCommon() : null));
+            strings.add(utf8(name != null ? name.getOfficial() : null));
+        }
+
+        int capacity = Long.BYTES + Integer.BYTES * 2 + size * (1 + Double.BYTES * 4)
+                + Integer.BYTES * (size + 1 + countryGraph.edgeCount());
+        for (byte[] string : strings) {
+            capacity += Integer.BYTES + (string != null ? string.length : 0);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        buffer.putLong(createdAt.toEpochMilli());
+        putString(buffer, strings.get(0));
+        putString(buffer, strings.get(1));
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            for (int field = 0; field < 5; field++) {
+                putString(buffer, strings.get(2 + i * 5 + field));
+            }
+            CountryDto country = countryGraph.countryAt(i);
+            buffer.put(country.getRegion() != null ? (byte) country.getRegion().ordinal() : NULL_LENGTH);
+            putLatlng(buffer, country.getLatlng());
+            putLatlng(buffer, country.getCapitalInfo() != null ? country.getCapitalInfo().getLatlng() : null);
+        }
+
+        buffer.putInt(countryGraph.edgeCount());
+        for (int i = 0; i < size; i++) {
+            buffer.putInt(countryGraph.firstNeighborIndex(i));
+        }
+        buffer.putInt(countryGraph.edgeCount());
+        for (int i = 0; i < countryGraph.edgeCount(); i++) {
+            buffer.putInt(countryGraph.neighborAt(i));
+        }
+        return buffer.flip();
+    }
+
+    private static Contents decode(ByteBuffer buffer) throws IOException {
+        Instant createdAt = Instant.ofEpochMilli(buffer.getLong());
+        String etag = getString(buffer);
+        String lastModified = getString(buffer);
+
+        int size = buffer.getInt();
+        CountryDto[] countries = new CountryDto[size];
+        for (int i = 0; i < size; i++) {
+            String cca3 = getString(buffer);
+            String cca2 = getString(buffer);
+            String ccn3 = getString(buffer);
+            String commonName = getString(buffer);
+            String officialName = getString(buffer);
+            byte region = buffer.get();
+            List<Double> latlng = getLatlng(buffer);
+            List<Double> capitalLatlng = getLatlng(buffer);
+            NameDto name = commonName != null || officialName != null ? new NameDto(commonName, officialName) : null;
+            countries[i] = new CountryDto(name, cca3, cca2, ccn3, region != NULL_LENGTH ? REGIONS[region] : null,
+                    latlng, capitalLatlng != null ? new CapitalInfoDto(capitalLatlng) : null, null);
+        }
+
+        int edgeCount = buffer.getInt();
+        int[] offsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            offsets[i] = buffer.getInt();
+        }
+        offsets[size] = buffer.getInt();
+        if (offsets[size] != edgeCount) {
+            throw new IOException("Inconsistent border graph in country snapshot file");
+        }
+        for (int i = 0; i < size; i++) {
+            String[] borders = new String[offsets[i + 1] - offsets[i]];
+            for (int j = 0; j < borders.length; j++) {
+                borders[j] = countries[buffer.getInt()].getCca3();
+            }
+            countries[i].setBorders(Arrays.asList(borders));
+        }
+        return new Contents(Arrays.asList(countries), createdAt, etag, lastModified);
+    }
+
+    private static byte[] utf8(String string) {
+        return string != null ? string.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] string) {
+        if (string == null) {
+            buffer.putInt(NULL_LENGTH);
+        } else {
+            buffer.putInt(string.length).put(string);
+        }
+    }
+
+    private static void putLatlng(ByteBuffer buffer, List<Double> latlng) {
+        boolean valid = latlng != null && latlng.size() == 2 && latlng.get(0) != null && latlng.get(1) != null;
+        buffer.putDouble(valid ? latlng.get(0) : Double.NaN);
+        buffer.putDouble(valid ? latlng.get(1) : Double.NaN);
+    }
+
+    private static List<Double> getLatlng(ByteBuffer buffer) {
+        double latitude = buffer.getDouble();
+        double longitude = buffer.getDouble();
+        return Double.isNaN(latitude) || Double.isNaN(longitude) ? null : List.of(latitude, longitude);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,39 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Command line tool that converts a {@code countries.json} file into a country snapshot file:
+ * <pre>
+ * mvn compile exec:java -Dcountries.json=countries.json -Dcountry.snapshot=countries.snapshot
+ * </pre>
+ */
+public class CountrySnapshotTool {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CountrySnapshotTool <countries.json> <snapshot file>");
+            System.exit(2);
+        }
+
+        Path countriesJson = Path.of(args[0]);
+        Path snapshotFile = Path.of(args[1]);
+        List<CountryDto> countries;
+        try (InputStream inputStream = Files.newInputStream(countriesJson)) {
+            countries = new CountryDataParser().parse(inputStream);
+        }
+
+        CountryGraph countryGraph = new CountryGraph(countries, 1, Instant.now(), null, null);
+        CountrySnapshotFile.write(countryGraph, Instant.now(), snapshotFile);
+        System.out.printf("Wrote %d countries and %d borders from '%s' to '%s' (%d bytes)%n", countryGraph.size(),
+                countryGraph.edgeCount(), countriesJson, snapshotFile, Files.size(snapshotFile));
+    }
+}
@@ -0,0 +1,178 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.RouteTree;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * All-pairs hop counts of a {@link CountryGraph}: the entry for {@code s} and {@code t} is the number of border
+ * crossings of the fewest hops land route from {@code s} to {@code t}, so distances are answered with a single array
+ * read, without searching.
+ * <p>
+ * Countries of different connected components have no land route, so only the pairs within every component are
+ * stored, in a square block per component packed into a single {@code byte[]}, or into a {@code short[]} when a
+ * component has more than 255 countries and so possibly routes of 255 crossings or more. Countries without borders
+ * take no space at all. A country is located in the block of its component by its index among the countries of the
+ * component, in ordinal order.
+ * <p>
+ * When overrides are applied to the snapshot only the rows of the affected countries are searched again, the
+ * others are copied, as the components they belong to are the same.
+ */
+final class DistanceOracle implements CountryGraph.IncrementalData<DistanceOracle> {
+    private static final int NONE = -1;
+    private static final int BYTE_NONE = 0xFF;
+    private static final int SHORT_NONE = 0xFFFF;
+
+    private final int[] components;
+    private final int[] localIndexes;
+    private final int[] componentSizes;
+    private final int[] blockOffsets;
+    private final byte[] byteHops;
+    private final short[] shortHops;
+    private final ForkJoinPool forkJoinPool;
+    private final long buildTimeNanos;
+
+    /**
+     * Lays out the blocks of the components of {@code countryGraph}, the hop counts being filled in afterwards.
+     */
+    private DistanceOracle(CountryGraph countryGraph, ForkJoinPool forkJoinPool) {
+        int size = countryGraph.size();
+        components = new int[size];
+        localIndexes = new int[size];
+        componentSizes = new int[countryGraph.componentCount()];
+        int largestComponentSize = 0;
+        for (int country = 0; country < size; country++) {
+            components[country] = countryGraph.componentOf(country);
+            localIndexes[country] = componentSizes[components[country]]++;
+            largestComponentSize = Math.max(largestComponentSize, componentSizes[components[country]]);
+        }
+
+        blockOffsets = new int[componentSizes.length + 1];
+        for (int component = 0; component < componentSizes.length; component++) {
+            int componentSize = componentSizes[component];
+            int blockSize = componentSize > 1 ? Math.multiplyExact(componentSize, componentSize) : 0;
+            blockOffsets[component + 1] = Math.addExact(blockOffsets[component], blockSize);
+        }
+
+        // a route crosses fewer borders than its component has countries, so bytes fit up to 255 countries
+        boolean compact = largestComponentSize <= BYTE_NONE;
+        byteHops = compact ? new byte[blockOffsets[componentSizes.length]] : null;
+        shortHops = compact ? null : new short[blockOffsets[componentSizes.length]];
+        this.forkJoinPool = forkJoinPool;
+        buildTimeNanos = 0;
+    }
+
+    private DistanceOracle(DistanceOracle layout, long buildTimeNanos) {
+        this.components = layout.components;
+        this.localIndexes = layout.localIndexes;
+        this.componentSizes = layout.componentSizes;
+        this.blockOffsets = layout.blockOffsets;
+        this.byteHops = layout.byteHops;
+        this.shortHops = layout.shortHops;
+        this.forkJoinPool = layout.forkJoinPool;
+        this.buildTimeNanos = buildTimeNanos;
+    }
+
+    /**
+     * Builds the oracle searching from every country on {@code forkJoinPool}, which is also used by the incremental
+     * updates of the oracle.
+     */
+    static DistanceOracle build(CountryGraph countryGraph, ForkJoinPool forkJoinPool) {
+        long start = System.nanoTime();
+        DistanceOracle layout = new DistanceOracle(countryGraph, forkJoinPool);
+        forkJoinPool.submit(() -> IntStream.range(0, countryGraph.size()).parallel().forEach(source ->
+                layout.fillRow(countryGraph, source))).join();
+        return new DistanceOracle(layout, System.nanoTime() - start);
+    }
+
+    @Override
+    public DistanceOracle update(CountryGraph updated, BitSet affectedCountries) {
+        long start = System.nanoTime();
+        DistanceOracle layout = new DistanceOracle(updated, forkJoinPool);
+        if (layout.isCompact() != isCompact()) {
+            return build(updated, forkJoinPool);
+        }
+        for (int source = affectedCountries.nextClearBit(0); source < components.length;
+             source = affectedCountries.nextClearBit(source + 1)) {
+            int componentSize = componentSizes[components[source]];
+            if (componentSize > 1) {
+                System.arraycopy(isCompact() ? byteHops : shortHops, rowOffset(source),
+                        isCompact() ? layout.byteHops : layout.shortHops, layout.rowOffset(source), componentSize);
+            }
+        }
+        forkJoinPool.submit(() -> affectedCountries.stream().parallel().forEach(source ->
+                layout.fillRow(updated, source))).join();
+        return new DistanceOracle(layout, System.nanoTime() - start);
+    }
+
+    private void fillRow(CountryGraph countryGraph, int source) {
+        int componentSize = componentSizes[components[source]];
+        if (componentSize == 1) {
+            return;
+        }
+
+        RouteTree routeTree = RouteTreeSearch.search(countryGraph, source);
+        int row = rowOffset(source);
+        if (isCompact()) {
+            Arrays.fill(byteHops, row, row + componentSize, (byte) BYTE_NONE);
+        } else {
+            Arrays.fill(shortHops, row, row + componentSize, (short) SHORT_NONE);
+        }
+        for (int i = 0; i < routeTree.reachedCount(); i++) {
+            int target = routeTree.reachedAt(i);
+            if (isCompact()) {
+                byteHops[row + localIndexes[target]] = (byte) routeTree.hopsTo(target);
+            } else {
+                shortHops[row + localIndexes[target]] = (short) routeTree.hopsTo(target);
+            }
+        }
+    }
+
+    private boolean isCompact() {
+        return byteHops != null;
+    }
+
+    private int rowOffset(int source) {
+        int component = components[source];
+        return blockOffsets[component] + localIndexes[source] * componentSizes[component];
+    }
+
+    /**
+     * Returns the number of border crossings from {@code source} to {@code target}, or {@code -1} when there is no
+     * land route.
+     */
+    int hops(int source, int target) {
+        if (source == target) {
+            return 0;
+        }
+        if (components[source] != components[target]) {
+            return NONE;
+        }
+
+        int index = rowOffset(source) + localIndexes[target];
+        if (isCompact()) {
+            int entry = byteHops[index] & BYTE_NONE;
+            return entry == BYTE_NONE ? NONE : entry;
+        }
+
+        int entry = shortHops[index] & SHORT_NONE;
+        return entry == SHORT_NONE ? NONE : entry;
+    }
+
+    long storedPairs() {
+        return isCompact() ? byteHops.length : shortHops.length;
+    }
+
+    long memoryFootprintBytes() {
+        long hopsBytes = isCompact() ? byteHops.length : shortHops.length * (long) Short.BYTES;
+        return hopsBytes + (components.length * 2L + componentSizes.length * 2L + 1) * Integer.BYTES;
+    }
+
+    long buildTimeNanos() {
+        return buildTimeNanos;
+    }
+}
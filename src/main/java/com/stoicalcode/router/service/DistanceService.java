@@ -0,0 +1,69 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.DistanceOracleStatsDto;
+import com.stoicalcode.router.model.DistanceResponseDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers hop count queries from a {@link DistanceOracle} built with every country data snapshot, before it is
+ * published and on the snapshot build pool, so no route is searched nor built at request time.
+ */
+@Slf4j
+@Service
+public class DistanceService {
+
+    private static final String PATH_NOT_FOUND_ERROR = "Not possible land route from '%s' to '%s'";
+
+    private final CountryService countryService;
+
+    @Autowired
+    public DistanceService(CountryService countryService) {
+        this.countryService = countryService;
+        countryService.addDerivedDataBuilder(this::getDistanceOracle);
+    }
+
+    /**
+     * Returns the number of border crossings of the fewest hops land route, the same route the breadth-first search
+     * engines return.
+     */
+    public DistanceResponseDto findDistance(String origin, String destination)
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        countryService.validateCountries(countryGraph, origin, destination);
+        int source = countryGraph.ordinalOf(origin);
+        int target = countryGraph.ordinalOf(destination);
+
+        int hops = getDistanceOracle(countryGraph).hops(source, target);
+        if (hops == -1) {
+            throw new PathNotFoundException(String.format(PATH_NOT_FOUND_ERROR, origin.toUpperCase(),
+                    destination.toUpperCase()));
+        }
+        return new DistanceResponseDto(countryGraph.cca3Of(source), countryGraph.cca3Of(target), hops);
+    }
+
+    public DistanceOracleStatsDto getStats() throws IOException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        DistanceOracle distanceOracle = getDistanceOracle(countryGraph);
+        return new DistanceOracleStatsDto(countryGraph.getVersion(), countryGraph.size(),
+                distanceOracle.storedPairs(), distanceOracle.memoryFootprintBytes(),
+                distanceOracle.buildTimeNanos() / 1e6);
+    }
+
+    private DistanceOracle getDistanceOracle(CountryGraph countryGraph) {
+        return countryGraph.derive(DistanceOracle.class, graph -> {
+            DistanceOracle distanceOracle = DistanceOracle.build(graph, countryService.getSnapshotBuildPool());
+            log.info("Built distance oracle for country data version {} in {} ms ({} KB, {} pairs)",
+                    graph.getVersion(), TimeUnit.NANOSECONDS.toMillis(distanceOracle.buildTimeNanos()),
+                    distanceOracle.memoryFootprintBytes() / 1024, distanceOracle.storedPairs());
+            return distanceOracle;
+        });
+    }
+}
@@ -0,0 +1,21 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.model.CountryGraph;
+
+/**
+ * Cost of crossing from a country to one of its neighbors, for the {@link WeightedSearchCountryService}. Costs
+ * must not be negative and must only depend on the snapshot, as they are computed once per snapshot and edge.
+ */
+public interface EdgeCostFunction {
+
+    double cost(CountryGraph countryGraph, int from, int to);
+
+    /**
+     * Returns a lower bound of the cost of any route from {@code from} to {@code to}, used as the A* heuristic. It
+     * must never overestimate and must be consistent with {@link #cost}; the default of zero makes the search a
+     * plain Dijkstra search.
+     */
+    default double lowerBound(CountryGraph countryGraph, int from, int to) {
+        return 0;
+    }
+}
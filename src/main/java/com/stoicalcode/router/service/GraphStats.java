@@ -0,0 +1,201 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.model.CountryGraph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Degree, eccentricity and betweenness centrality of every country of a {@link CountryGraph}, computed with
+ * Brandes' algorithm: one breadth-first search per source country, counting the fewest hops routes to every other
+ * country and then accumulating the share of them crossing every country, back from the farthest ones. The sources
+ * are split across a fork-join pool, every worker accumulating into its own array until the arrays are added up.
+ * <p>
+ * Betweenness sums, over all the ordered pairs of other countries, the share of the fewest hops routes of the pair
+ * crossing the country, so a country on the only route between two others gets 2 from them. Eccentricity is the
+ * number of border crossings to the farthest country reachable, 0 for countries without borders.
+ * <p>
+ * Searches never leave the connected component of their source, so when overrides are applied only the affected
+ * countries are searched from again, on the pool the statistics were computed on, the others keeping their values.
+ */
+final class GraphStats implements CountryGraph.IncrementalData<GraphStats> {
+    private static final int NONE = -1;
+
+    private final int[] degrees;
+    private final int[] eccentricities;
+    private final int[] farthest;
+    private final double[] betweenness;
+    private final int diameterOrigin;
+    private final ForkJoinPool forkJoinPool;
+    private final long computeTimeNanos;
+
+    private GraphStats(int[] degrees, int[] eccentricities, int[] farthest, double[] betweenness,
+                       ForkJoinPool forkJoinPool, long computeTimeNanos) {
+        this.degrees = degrees;
+        this.eccentricities = eccentricities;
+        this.farthest = farthest;
+        this.betweenness = betweenness;
+        this.forkJoinPool = forkJoinPool;
+        this.computeTimeNanos = computeTimeNanos;
+
+        int origin = 0;
+        for (int country = 1; country < eccentricities.length; country++) {
+            if (eccentricities[country] > eccentricities[origin]) {
+                origin = country;
+            }
+        }
+        this.diameterOrigin = origin;
+    }
+
+    static GraphStats compute(CountryGraph countryGraph, ForkJoinPool forkJoinPool) {
+        long start = System.nanoTime();
+        int size = countryGraph.size();
+        int[] eccentricities = new int[size];
+        int[] farthest = new int[size];
+        double[] betweenness = search(countryGraph, forkJoinPool, IntStream.range(0, size), eccentricities, farthest);
+        return new GraphStats(degrees(countryGraph), eccentricities, farthest, betweenness, forkJoinPool,
+                System.nanoTime() - start);
+    }
+
+    @Override
+    public GraphStats update(CountryGraph updated, BitSet affectedCountries) {
+        long start = System.nanoTime();
+        int[] eccentricities = this.eccentricities.clone();
+        int[] farthest = this.farthest.clone();
+        double[] betweenness = this.betweenness.clone();
+        double[] affectedBetweenness = search(updated, forkJoinPool, affectedCountries.stream(), eccentricities,
+                farthest);
+        affectedCountries.stream().forEach(country -> betweenness[country] = affectedBetweenness[country]);
+        return new GraphStats(degrees(updated), eccentricities, farthest, betweenness, forkJoinPool,
+                System.nanoTime() - start);
+    }
+
+    private static int[] degrees(CountryGraph countryGraph) {
+        int[] degrees = new int[countryGraph.size()];
+        for (int country = 0; country < degrees.length; country++) {
+            degrees[country] = countryGraph.degree(country);
+        }
+        return degrees;
+    }
+
+    /**
+     * Searches from every country of {@code sources}, recording their eccentricity and farthest country, and returns
+     * the betweenness accumulated from them.
+     */
+    private static double[] search(CountryGraph countryGraph, ForkJoinPool forkJoinPool, IntStream sources,
+                                   int[] eccentricities, int[] farthest) {
+        int size = countryGraph.size();
+        return forkJoinPool.submit(() -> sources.parallel().collect(
+                () -> new Accumulator(size),
+                (accumulator, source) -> accumulator.search(countryGraph, source, eccentricities, farthest),
+                Accumulator::add)).join().betweenness;
+    }
+
+    int degree(int country) {
+        return degrees[country];
+    }
+
+    int eccentricity(int country) {
+        return eccentricities[country];
+    }
+
+    double betweenness(int country) {
+        return betweenness[country];
+    }
+
+    /**
+     * Returns the number of border crossings of the longest fewest hops land route.
+     */
+    int diameter() {
+        return eccentricities.length == 0 ? 0 : eccentricities[diameterOrigin];
+    }
+
+    /**
+     * Returns the origin of a longest fewest hops land route, or {@code -1} when no country has borders.
+     */
+    int diameterOrigin() {
+        return diameter() == 0 ? NONE : diameterOrigin;
+    }
+
+    /**
+     * Returns the destination of the longest fewest hops land route from {@link #diameterOrigin()}.
+     */
+    int diameterDestination() {
+        return diameter() == 0 ? NONE : farthest[diameterOrigin];
+    }
+
+    long computeTimeNanos() {
+        return computeTimeNanos;
+    }
+
+    /**
+     * Search buffers of one worker and the betweenness accumulated from its sources.
+     */
+    private static final class Accumulator {
+        private final double[] betweenness;
+        private final int[] distances;
+        private final double[] routeCounts;
+        private final double[] dependencies;
+        private final int[] order;
+
+        private Accumulator(int size) {
+            betweenness = new double[size];
+            distances = new int[size];
+            routeCounts = new double[size];
+            dependencies = new double[size];
+            order = new int[size];
+        }
+
+        private void search(CountryGraph countryGraph, int source, int[] eccentricities, int[] farthest) {
+            Arrays.fill(distances, NONE);
+            Arrays.fill(routeCounts, 0);
+            distances[source] = 0;
+            routeCounts[source] = 1;
+
+            int head = 0;
+            int tail = 0;
+            order[tail++] = source;
+            while (head < tail) {
+                int current = order[head++];
+                int last = countryGraph.lastNeighborIndex(current);
+                for (int i = countryGraph.firstNeighborIndex(current); i < last; i++) {
+                    int neighbor = countryGraph.neighborAt(i);
+                    if (distances[neighbor] == NONE) {
+                        distances[neighbor] = distances[current] + 1;
+                        order[tail++] = neighbor;
+                    }
+                    if (distances[neighbor] == distances[current] + 1) {
+                        routeCounts[neighbor] += routeCounts[current];
+                    }
+                }
+            }
+            eccentricities[source] = distances[order[tail - 1]];
+            farthest[source] = order[tail - 1];
+
+            // the dependency of a country on its successors, which are all farther and so already accumulated
+            for (int index = tail - 1; index >= 0; index--) {
+                int current = order[index];
+                double dependency = 0;
+                int last = countryGraph.lastNeighborIndex(current);
+                for (int i = countryGraph.firstNeighborIndex(current); i < last; i++) {
+                    int neighbor = countryGraph.neighborAt(i);
+                    if (distances[neighbor] == distances[current] + 1) {
+                        dependency += routeCounts[current] / routeCounts[neighbor] * (1 + dependencies[neighbor]);
+                    }
+                }
+                dependencies[current] = dependency;
+                if (current != source) {
+                    betweenness[current] += dependency;
+                }
+            }
+        }
+
+        private void add(Accumulator other) {
+            for (int country = 0; country < betweenness.length; country++) {
+                betweenness[country] += other.betweenness[country];
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.CountryStatsDto;
+import com.stoicalcode.router.model.GraphStatsDto;
+import com.stoicalcode.router.model.RouteTree;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Serves the border graph statistics of the current country data snapshot. They are computed the first time they
+ * are asked for a snapshot and kept with it, so repeated calls are free.
+ */
+@Slf4j
+@Service
+public class GraphStatsService {
+
+    private static final String INVALID_COUNTRY_ERROR = "invalid country: '%s'";
+    private static final Comparator<CountryStatsDto> BY_DECREASING_BETWEENNESS =
+            Comparator.comparingDouble(CountryStatsDto::betweenness).reversed()
+                    .thenComparing(CountryStatsDto::country);
+
+    private final CountryService countryService;
+
+    @Autowired
+    public GraphStatsService(CountryService countryService) {
+        this.countryService = countryService;
+    }
+
+    /**
+     * Returns the graph statistics with the {@code top} countries of highest betweenness.
+     */
+    public GraphStatsDto getGraphStats(int top) throws IOException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        GraphStats graphStats = getGraphStats(countryGraph);
+        List<String> diameterRoute = graphStats.diameterOrigin() == -1 ? List.of()
+                : RouteTreeSearch.of(countryGraph, graphStats.diameterOrigin())
+                        .routeTo(graphStats.diameterDestination());
+        List<CountryStatsDto> topBetweenness = countryStats(countryGraph, graphStats).stream()
+                .sorted(BY_DECREASING_BETWEENNESS)
+                .limit(top)
+                .toList();
+        return new GraphStatsDto(countryGraph.getVersion(), countryGraph.size(), countryGraph.componentCount(),
+                graphStats.diameter(), diameterRoute, topBetweenness);
+    }
+
+    /**
+     * Returns the statistics of every country, by decreasing betweenness.
+     */
+    public List<CountryStatsDto> getCountryStats() throws IOException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        return countryStats(countryGraph, getGraphStats(countryGraph)).stream()
+                .sorted(BY_DECREASING_BETWEENNESS)
+                .toList();
+    }
+
+    public CountryStatsDto getCountryStats(String country) throws IOException, InvalidCountryException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        int ordinal = countryGraph.ordinalOf(country);
+        if (ordinal == -1) {
+            throw new InvalidCountryException(String.format(INVALID_COUNTRY_ERROR, country.toUpperCase()));
+        }
+        return countryStats(countryGraph, getGraphStats(countryGraph), ordinal);
+    }
+
+    private static List<CountryStatsDto> countryStats(CountryGraph countryGraph, GraphStats graphStats) {
+        return IntStream.range(0, countryGraph.size())
+                .mapToObj(ordinal -> countryStats(countryGraph, graphStats, ordinal))
+                .toList();
+    }
+
+    private static CountryStatsDto countryStats(CountryGraph countryGraph, GraphStats graphStats, int ordinal) {
+        return new CountryStatsDto(countryGraph.cca3Of(ordinal), graphStats.degree(ordinal),
+                graphStats.eccentricity(ordinal), graphStats.betweenness(ordinal));
+    }
+
+    private GraphStats getGraphStats(CountryGraph countryGraph) {
+        return countryGraph.derive(GraphStats.class, graph -> {
+            GraphStats graphStats = GraphStats.compute(graph, countryService.getSnapshotBuildPool());
+            log.info("Computed graph statistics for country data version {} in {} ms", graph.getVersion(),
+                    TimeUnit.NANOSECONDS.toMillis(graphStats.computeTimeNanos()));
+            return graphStats;
+        });
+    }
+}
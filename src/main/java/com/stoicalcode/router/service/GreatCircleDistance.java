@@ -0,0 +1,112 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
+
+import java.util.List;
+
+/**
+ * Great-circle distance in kilometers between the centroids or the capitals of two countries. The straight
+ * distance to the destination never exceeds the length of a route to it, so it is also the A* heuristic.
+ * <p>
+ * Countries without a capital location fall back to their centroid. When some country has no location at all,
+ * crossing into or out of it costs nothing and the heuristic is disabled for the whole snapshot, as it would no
+ * longer be consistent.
+ */
+public final class GreatCircleDistance implements EdgeCostFunction {
+    public static final GreatCircleDistance CENTROIDS = new GreatCircleDistance(false);
+    public static final GreatCircleDistance CAPITALS = new GreatCircleDistance(true);
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    // keeps the heuristic below the edge costs despite rounding, so A* and Dijkstra agree on the cheapest route
+    private static final double LOWER_BOUND_SCALE = 1 - 1e-9;
+
+    private final boolean capitals;
+    private volatile Coordinates lastCoordinates; // coordinates of the latest snapshot, to skip the derive lookup
+
+    private GreatCircleDistance(boolean capitals) {
+        this.capitals = capitals;
+    }
+
+    @Override
+    public double cost(CountryGraph countryGraph, int from, int to) {
+        Coordinates coordinates = coordinatesOf(countryGraph);
+        return coordinates.isLocated(from) && coordinates.isLocated(to) ? coordinates.distance(from, to) : 0;
+    }
+
+    @Override
+    public double lowerBound(CountryGraph countryGraph, int from, int to) {
+        Coordinates coordinates = coordinatesOf(countryGraph);
+        return coordinates.complete ? coordinates.distance(from, to) * LOWER_BOUND_SCALE : 0;
+    }
+
+    @Override
+    public String toString() {
+        return capitals ? "capital great-circle distance" : "centroid great-circle distance";
+    }
+
+    /**
+     * Haversine distance in kilometers between two points given in radians.
+     */
+    static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double sinHalfLatitude = Math.sin((latitude2 - latitude1) / 2);
+        double sinHalfLongitude = Math.sin((longitude2 - longitude1) / 2);
+        double a = sinHalfLatitude * sinHalfLatitude
+                + Math.cos(latitude1) * Math.cos(latitude2) * sinHalfLongitude * sinHalfLongitude;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private Coordinates coordinatesOf(CountryGraph countryGraph) {
+        Coordinates coordinates = lastCoordinates;
+        if (coordinates == null || coordinates.countryGraph != countryGraph) {
+            coordinates = countryGraph.derive(this, graph -> new Coordinates(graph, capitals));
+            lastCoordinates = coordinates;
+        }
+        return coordinates;
+    }
+
+    /**
+     * Country locations of one snapshot in radians, {@code NaN} when unknown.
+     */
+    private static final class Coordinates {
+        private final CountryGraph countryGraph;
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final boolean complete;
+
+        private Coordinates(CountryGraph countryGraph, boolean capitals) {
+            this.countryGraph = countryGraph;
+            latitudes = new double[countryGraph.size()];
+            longitudes = new double[countryGraph.size()];
+            boolean located = true;
+            for (int i = 0; i < countryGraph.size(); i++) {
+                CountryDto country = countryGraph.countryAt(i);
+                List<Double> latlng = country.getLatlng();
+                if (capitals && country.getCapitalInfo() != null && isValid(country.getCapitalInfo().getLatlng())) {
+                    latlng = country.getCapitalInfo().getLatlng();
+                }
+                if (isValid(latlng)) {
+                    latitudes[i] = Math.toRadians(latlng.get(0));
+                    longitudes[i] = Math.toRadians(latlng.get(1));
+                } else {
+                    latitudes[i] = Double.NaN;
+                    longitudes[i] = Double.NaN;
+                    located = false;
+                }
+            }
+            complete = located;
+        }
+
+        boolean isLocated(int ordinal) {
+            return !Double.isNaN(latitudes[ordinal]);
+        }
+
+        double distance(int from, int to) {
+            return GreatCircleDistance.distance(latitudes[from], longitudes[from], latitudes[to], longitudes[to]);
+        }
+
+        private static boolean isValid(List<Double> latlng) {
+            return latlng != null && latlng.size() == 2 && latlng.get(0) != null && latlng.get(1) != null;
+        }
+    }
+}
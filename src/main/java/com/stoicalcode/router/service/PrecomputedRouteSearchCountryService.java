@@ -0,0 +1,71 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.CountryValidationResponseDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers route queries from a {@link RoutingTable} built once per country data snapshot, so no search runs at
+ * request time.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "route-search-engine", havingValue = "precomputed")
+public class PrecomputedRouteSearchCountryService implements SearchCountryService {
+
+    private static final String PATH_NOT_FOUND_ERROR = "Not possible land route from '%s' to '%s'";
+    private static final String ENGINE = "precomputed";
+
+    private final CountryService countryService;
+    private RoutingMetrics.SearchMeters searchMeters = RoutingMetrics.noop().searchMeters(ENGINE);
+
+    @Autowired
+    public PrecomputedRouteSearchCountryService(CountryService countryService) {
+        this.countryService = countryService;
+        countryService.addDerivedDataBuilder(PrecomputedRouteSearchCountryService::getRoutingTable);
+    }
+
+    @Autowired(required = false)
+    public void setRoutingMetrics(RoutingMetrics routingMetrics) {
+        searchMeters = routingMetrics.searchMeters(ENGINE);
+    }
+
+    @Override
+    public List<String> findLandRoute(String origin, String destination)
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        CountryValidationResponseDto validationResponse =
+                countryService.validateCountries(countryGraph, origin, destination);
+        int source = countryGraph.ordinalOf(validationResponse.originCountry().getCca3());
+        int target = countryGraph.ordinalOf(validationResponse.destinationCountry().getCca3());
+
+        // there is no search at request time, the route is built from the routing table
+        long buildStartNanos = System.nanoTime();
+        List<String> route = getRoutingTable(countryGraph).route(countryGraph, source, target);
+        searchMeters.recordBuild(buildStartNanos);
+        if (route == null) {
+            throw new PathNotFoundException(String.format(PATH_NOT_FOUND_ERROR, origin, destination));
+        }
+        return route;
+    }
+
+    private static RoutingTable getRoutingTable(CountryGraph countryGraph) {
+        return countryGraph.derive(RoutingTable.class, graph -> {
+            RoutingTable routingTable = RoutingTable.build(graph, ForkJoinPool.commonPool());
+            log.info("Built routing table for country data version {} in {} ms ({} KB)", graph.getVersion(),
+                    TimeUnit.NANOSECONDS.toMillis(routingTable.buildTimeNanos()),
+                    routingTable.memoryFootprintBytes() / 1024);
+            return routingTable;
+        });
+    }
+}
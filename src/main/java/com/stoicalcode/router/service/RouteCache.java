@@ -0,0 +1,169 @@
+package com.stoicalcode.router.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.RouteCacheStatsDto;
+import com.stoicalcode.router.model.RouteMetric;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bounded cache of land route results, evicting the least recently used entries when full and, optionally, entries
+ * older than {@code route-cache-expire-after-write}.
+ * <p>
+ * Entries are keyed by the country data version they were computed from, so a refresh of the country data makes
+ * the old entries unreachable and they are evicted over time. Invalid countries and pairs without a land route are
+ * cached as well; I/O errors are not. When overrides are applied to the country data, the entries of the pairs
+ * outside the affected components are carried over to the new version.
+ * <p>
+ * Concurrent requests for a pair that is not cached yet are coalesced, so a burst of identical requests runs a
+ * single search.
+ */
+@Slf4j
+@Component
+public class RouteCache {
+
+    private final Cache<Key, CachedRoute> cache;
+    private final SingleFlight<Key, CachedRoute> searchesInFlight = new SingleFlight<>();
+
+    @Autowired
+    public RouteCache(@Value("${route-cache-maximum-size:10000}") long maximumSize,
+                      @Value("${route-cache-expire-after-write:#{null}}") Duration expireAfterWrite) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(maximumSize).recordStats();
+        if (expireAfterWrite != null) {
+            builder.expireAfterWrite(expireAfterWrite);
+        }
+        cache = builder.build();
+        log.info("Route cache holds up to {} routes, expiring after {}", maximumSize,
+                expireAfterWrite != null ? expireAfterWrite : "never");
+    }
+
+    /**
+     * Returns the cached result of the pair and metric for the snapshot, or searches it with {@code routeSearch} and
+     * caches it when missing. Concurrent misses of the same pair share a single search.
+     * <p>
+     * Entries are keyed by the cca3 codes of the countries, so the cca2, ccn3 and cca3 codes of a pair share a single
+     * entry and a single search; codes that are not valid are keyed as they are. Cached failures keep their message
+     * with the codes of the pair left out, so every request is told about the codes it asked for.
+     */
+    public List<String> findLandRoute(CountryGraph countryGraph, RouteMetric metric, String origin,
+                                      String destination, RouteSearch routeSearch)
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        Key key = new Key(countryGraph.getVersion(), metric, cca3Of(countryGraph, origin),
+                cca3Of(countryGraph, destination));
+        CachedRoute cachedRoute = cache.getIfPresent(key);
+        if (cachedRoute == null) {
+            cachedRoute = searchesInFlight.execute(key, () -> {
+                CachedRoute searchedRoute = search(routeSearch, origin, destination);
+                cache.put(key, searchedRoute);
+                return searchedRoute;
+            });
+        }
+        return cachedRoute.route(origin, destination);
+    }
+
+    private static String cca3Of(CountryGraph countryGraph, String code) {
+        int ordinal = countryGraph.ordinalOf(code);
+        return ordinal != -1 ? countryGraph.cca3Of(ordinal) : code.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Copies the entries of the previous version whose origin and destination are both unaffected by the overrides
+     * to the updated version, as their results did not change.
+     */
+    @EventListener
+    public void onCountryGraphUpdated(CountryGraphUpdatedEvent event) {
+        CountryGraph previous = event.previous();
+        BitSet affectedCountries = event.affectedCountries();
+        long updatedVersion = event.updated().getVersion();
+        int carried = 0;
+        for (var entry : cache.asMap().entrySet()) {
+            Key key = entry.getKey();
+            if (key.version() == previous.getVersion() && !isAffected(previous, affectedCountries, key.origin())
+                    && !isAffected(previous, affectedCountries, key.destination())) {
+                cache.put(new Key(updatedVersion, key.metric(), key.origin(), key.destination()), entry.getValue());
+                carried++;
+            }
+        }
+        log.info("Carried {} cached routes over to country data version {}", carried, updatedVersion);
+    }
+
+    private static boolean isAffected(CountryGraph countryGraph, BitSet affectedCountries, String country) {
+        int ordinal = countryGraph.ordinalOf(country);
+        return ordinal != -1 && affectedCountries.get(ordinal);
+    }
+
+    public RouteCacheStatsDto getStats() {
+        return RouteCacheStatsDto.of(cache.estimatedSize(), cache.stats(), searchesInFlight.coalescedCalls());
+    }
+
+    /**
+     * Performs the pending maintenance, such as evictions, that the cache otherwise does lazily.
+     */
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private static CachedRoute search(RouteSearch routeSearch, String origin, String destination)
+            throws IOException {
+        try {
+            return new CachedRoute(List.copyOf(routeSearch.findLandRoute()), null, false);
+        } catch (InvalidCountryException e) {
+            return new CachedRoute(null, messageFormatOf(e.getMessage(), origin, destination), true);
+        } catch (PathNotFoundException e) {
+            return new CachedRoute(null, messageFormatOf(e.getMessage(), origin, destination), false);
+        }
+    }
+
+    /**
+     * Returns the format of a failure message, the quoted codes of the pair being replaced with placeholders.
+     */
+    private static String messageFormatOf(String message, String origin, String destination) {
+        return message.replace("%", "%%")
+                .replace(quoted(destination), "'%2$s'")
+                .replace(quoted(origin), "'%1$s'");
+    }
+
+    private static String quoted(String code) {
+        return "'" + code.toUpperCase(Locale.ROOT) + "'";
+    }
+
+    @FunctionalInterface
+    public interface RouteSearch {
+        List<String> findLandRoute() throws IOException, InvalidCountryException, PathNotFoundException;
+    }
+
+    private record Key(long version, RouteMetric metric, String origin, String destination) {
+    }
+
+    /**
+     * A route, or the failure of its search, whose message is formatted with the codes of every request.
+     */
+    private record CachedRoute(List<String> cachedRoute, String failureFormat, boolean invalidCountry) {
+
+        List<String> route(String origin, String destination) throws InvalidCountryException, PathNotFoundException {
+            if (failureFormat == null) {
+                return cachedRoute;
+            }
+
+            String message = String.format(failureFormat, origin.toUpperCase(Locale.ROOT),
+                    destination.toUpperCase(Locale.ROOT));
+            if (invalidCountry) {
+                throw new InvalidCountryException(message);
+            }
+            throw new PathNotFoundException(message);
+        }
+    }
+}
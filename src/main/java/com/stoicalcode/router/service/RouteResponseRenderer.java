@@ -0,0 +1,228 @@
+package com.stoicalcode.router.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.RouteResponseDto;
+import com.stoicalcode.router.model.RouteTree;
+import jakarta.annotation.PostConstruct;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+/**
+ * Keeps the JSON bodies of fewest hops route responses rendered as bytes, together with their ETag, so the common
+ * route request is answered without searching, serializing or building an ETag.
+ * <p>
+ * With {@code route-response-rendering: lazy} a pair is rendered the first time it is requested for a snapshot,
+ * so only the pairs actually requested take memory; with {@code eager} all the pairs with a land route are
+ * rendered while a snapshot is built, on the snapshot build pool, before it replaces the current one. The default,
+ * {@code none}, renders nothing.
+ * <p>
+ * Routes are read from the breadth-first route tree of the origin, so for these requests rendering takes the place
+ * of the configured {@code route-search-engine} and of the route cache: the routes are the ones the {@code bfs},
+ * {@code compact-bfs} and {@code precomputed} engines return, and may differ from the {@code bidirectional} engine
+ * among routes of the same length. Rendered responses are recorded on the same validation, search (engine
+ * {@code rendered}) and route length meters as searched ones. The ETag is a checksum of the body, so it only changes
+ * when the route does, and the rendered responses of the countries not affected by overrides are carried over to the
+ * updated snapshot.
+ */
+@Slf4j
+@Service
+public class RouteResponseRenderer {
+    private static final String NONE = "none";
+    private static final String LAZY = "lazy";
+    private static final String EAGER = "eager";
+    private static final String ENGINE = "rendered";
+    private static final String BIDIRECTIONAL_ENGINE = "bidirectional";
+    private static final Object RENDERED_ROUTES_KEY = RenderedRoutes.class;
+
+    private final CountryService countryService;
+
+    @Value("${route-response-rendering:none}")
+    @Setter
+    private String rendering = NONE;
+
+    @Value("${route-search-engine:bfs}")
+    @Setter
+    private String routeSearchEngine = "bfs";
+
+    private RoutingMetrics routingMetrics = RoutingMetrics.noop();
+    private RoutingMetrics.SearchMeters searchMeters = RoutingMetrics.noop().searchMeters(ENGINE);
+
+    @Setter
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    public RouteResponseRenderer(CountryService countryService) {
+        this.countryService = countryService;
+        countryService.addDerivedDataBuilder(countryGraph -> {
+            if (EAGER.equals(rendering)) {
+                renderAll(countryGraph);
+            }
+        });
+    }
+
+    @Autowired(required = false)
+    public void setRoutingMetrics(RoutingMetrics routingMetrics) {
+        this.routingMetrics = routingMetrics;
+        searchMeters = routingMetrics.searchMeters(ENGINE);
+    }
+
+    @PostConstruct
+    public void logRendering() {
+        if (NONE.equals(rendering)) {
+            return;
+        }
+        if (BIDIRECTIONAL_ENGINE.equals(routeSearchEngine)) {
+            log.warn("Rendering ({}) serves breadth-first routes in place of the '{}' engine, so routes of the same "
+                    + "length may differ from the ones it searches", rendering, routeSearchEngine);
+        } else {
+            log.info("Rendering ({}) serves fewest hops routes in place of the '{}' engine and the route cache",
+                    rendering, routeSearchEngine);
+        }
+    }
+
+    /**
+     * Returns the rendered fewest hops route response of the pair, or {@code null} when rendering is disabled or
+     * the pair has no route, in which case the request is left to the regular route search.
+     */
+    public RenderedRoute findRenderedRoute(String origin, String destination) throws IOException {
+        if (NONE.equals(rendering)) {
+            return null;
+        }
+
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        long validationStartNanos = System.nanoTime();
+        int source = countryGraph.ordinalOf(origin);
+        int target = countryGraph.ordinalOf(destination);
+        if (source == -1 || target == -1 || source == target) {
+            return null;
+        }
+
+        // meters are only recorded for rendered routes, the others being recorded by the regular route search
+        long searchStartNanos = System.nanoTime();
+        int expanded = 0;
+        RenderedRoutes renderedRoutes = renderedRoutes(countryGraph);
+        RenderedRoute renderedRoute = renderedRoutes.get(source, target);
+        if (renderedRoute == null && LAZY.equals(rendering)) {
+            RouteTree routeTree = RouteTreeSearch.of(countryGraph, source);
+            expanded = routeTree.reachedCount();
+            renderedRoute = render(routeTree, target);
+            if (renderedRoute != null) {
+                renderedRoutes.set(source, target, renderedRoute);
+            }
+        }
+        if (renderedRoute != null) {
+            routingMetrics.recordValidation(validationStartNanos);
+            searchMeters.recordSearch(searchStartNanos, expanded);
+            routingMetrics.recordRoute(renderedRoute.countries());
+        }
+        return renderedRoute;
+    }
+
+    private RenderedRoutes renderedRoutes(CountryGraph countryGraph) {
+        return countryGraph.derive(RENDERED_ROUTES_KEY, graph -> new RenderedRoutes(graph.size()));
+    }
+
+    private void renderAll(CountryGraph countryGraph) {
+        long startNanos = System.nanoTime();
+        RenderedRoutes renderedRoutes = renderedRoutes(countryGraph);
+        countryService.getSnapshotBuildPool().submit(() -> IntStream.range(0, countryGraph.size()).parallel()
+                .forEach(source -> {
+                    if (!renderedRoutes.hasRow(source)) {
+                        renderRow(countryGraph, renderedRoutes, source);
+                    }
+                })).join();
+        log.info("Rendered route responses for country data version {} in {} ms", countryGraph.getVersion(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    private void renderRow(CountryGraph countryGraph, RenderedRoutes renderedRoutes, int source) {
+        RouteTree routeTree = RouteTreeSearch.of(countryGraph, source);
+        for (int i = 1; i < routeTree.reachedCount(); i++) {
+            int target = routeTree.reachedAt(i);
+            renderedRoutes.set(source, target, render(routeTree, target));
+        }
+        renderedRoutes.markRow(source);
+    }
+
+    private RenderedRoute render(RouteTree routeTree, int target) {
+        List<String> route = routeTree.routeTo(target);
+        if (route == null) {
+            return null;
+        }
+
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(new RouteResponseDto(route));
+            CRC32C checksum = new CRC32C();
+            checksum.update(body);
+            return new RenderedRoute(body, String.format("\"%08x\"", checksum.getValue()), route.size());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * JSON body of a route response, its ETag and the number of countries of the route.
+     */
+    public record RenderedRoute(byte[] body, String etag, int countries) {
+    }
+
+    /**
+     * Rendered responses of one snapshot, indexed by origin and destination ordinals, plus the origins whose
+     * responses have all been rendered.
+     */
+    private static final class RenderedRoutes implements CountryGraph.IncrementalData<RenderedRoutes> {
+        private final int size;
+        private final AtomicReferenceArray<RenderedRoute> responses;
+        private final BitSet renderedRows = new BitSet(); // guarded by this
+
+        private RenderedRoutes(int size) {
+            this.size = size;
+            this.responses = new AtomicReferenceArray<>(size * size);
+        }
+
+        RenderedRoute get(int source, int target) {
+            return responses.get(source * size + target);
+        }
+
+        void set(int source, int target, RenderedRoute renderedRoute) {
+            responses.set(source * size + target, renderedRoute);
+        }
+
+        synchronized boolean hasRow(int source) {
+            return renderedRows.get(source);
+        }
+
+        synchronized void markRow(int source) {
+            renderedRows.set(source);
+        }
+
+        @Override
+        public RenderedRoutes update(CountryGraph updated, BitSet affectedCountries) {
+            RenderedRoutes carried = new RenderedRoutes(size);
+            for (int source = affectedCountries.nextClearBit(0); source < size;
+                 source = affectedCountries.nextClearBit(source + 1)) {
+                for (int target = 0; target < size; target++) {
+                    carried.set(source, target, get(source, target));
+                }
+                if (hasRow(source)) {
+                    carried.markRow(source);
+                }
+            }
+            return carried;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.RouteTree;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first search of the {@link RouteTree} of an origin, visiting the neighbors in borders order.
+ */
+public final class RouteTreeSearch {
+    private static final int NONE = -1;
+
+    private RouteTreeSearch() {
+    }
+
+    /**
+     * Returns the route tree of {@code source}, searching it only the first time it is asked for a snapshot.
+     */
+    public static RouteTree of(CountryGraph countryGraph, int source) {
+        return countryGraph.derive(new Key(source), graph -> search(graph, source));
+    }
+
+    public static RouteTree search(CountryGraph countryGraph, int source) {
+        int size = countryGraph.size();
+        int[] parents = new int[size];
+        int[] distances = new int[size];
+        int[] queue = new int[size];
+        Arrays.fill(parents, NONE);
+        Arrays.fill(distances, NONE);
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        distances[source] = 0;
+
+        while (head < tail) {
+            int current = queue[head++];
+            int last = countryGraph.lastNeighborIndex(current);
+            for (int i = countryGraph.firstNeighborIndex(current); i < last; i++) {
+                int neighbor = countryGraph.neighborAt(i);
+                if (distances[neighbor] == NONE) {
+                    parents[neighbor] = current;
+                    distances[neighbor] = distances[current] + 1;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+
+        return new RouteTree(countryGraph, source, parents, distances, Arrays.copyOf(queue, tail));
+    }
+
+    private record Key(int source) {
+    }
+}
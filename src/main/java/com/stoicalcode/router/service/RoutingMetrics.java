@@ -0,0 +1,164 @@
+package com.stoicalcode.router.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the routing pipeline. Meters are registered once and phases are timed with
+ * {@link System#nanoTime()}, so recording costs a few atomic updates per request.
+ * <p>
+ * Components that are also created outside Spring (tests, benchmarks) default to {@link #noop()}.
+ */
+@Component
+public class RoutingMetrics {
+    static final String URL_SOURCE = "url";
+    static final String SNAPSHOT_FILE_SOURCE = "snapshot-file";
+    static final String LOADED_OUTCOME = "loaded";
+    static final String NOT_MODIFIED_OUTCOME = "not-modified";
+    static final String FAILED_OUTCOME = "failed";
+    private static final RoutingMetrics NOOP = new RoutingMetrics(new CompositeMeterRegistry());
+
+    private final MeterRegistry meterRegistry;
+    private final Timer validationTimer;
+    private final DistributionSummary routeLengthSummary;
+    private final Counter invalidCountryCounter;
+    private final Counter pathNotFoundCounter;
+    private final Counter ioErrorCounter;
+    private final Timer graphBuildTimer;
+    private final Counter rateLimitedCounter;
+    private final Counter overloadedCounter;
+    private final Map<String, Timer> fetchTimers = new HashMap<>();
+
+    @Autowired
+    public RoutingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        validationTimer = Timer.builder("router.route.validation")
+                .description("Validation of the origin and destination countries")
+                .register(meterRegistry);
+        routeLengthSummary = DistributionSummary.builder("router.route.length")
+                .description("Border crossings of the routes found")
+                .baseUnit("crossings")
+                .serviceLevelObjectives(1, 2, 3, 4, 5, 6, 8, 10, 12, 14, 16, 20)
+                .register(meterRegistry);
+        invalidCountryCounter = failureCounter("invalid_country");
+        pathNotFoundCounter = failureCounter("path_not_found");
+        ioErrorCounter = failureCounter("io_error");
+        graphBuildTimer = Timer.builder("router.country.data.build")
+                .description("Building of a country data snapshot from the parsed countries")
+                .register(meterRegistry);
+        rateLimitedCounter = rejectionCounter("rate_limited");
+        overloadedCounter = rejectionCounter("overloaded");
+        registerFetchTimer(URL_SOURCE, LOADED_OUTCOME);
+        registerFetchTimer(URL_SOURCE, NOT_MODIFIED_OUTCOME);
+        registerFetchTimer(URL_SOURCE, FAILED_OUTCOME);
+        registerFetchTimer(SNAPSHOT_FILE_SOURCE, LOADED_OUTCOME);
+        registerFetchTimer(SNAPSHOT_FILE_SOURCE, FAILED_OUTCOME);
+    }
+
+    public static RoutingMetrics noop() {
+        return NOOP;
+    }
+
+    public SearchMeters searchMeters(String engine) {
+        return new SearchMeters(
+                Timer.builder("router.route.search")
+                        .description("Route searches, excluding validation and route building")
+                        .tag("engine", engine)
+                        .register(meterRegistry),
+                DistributionSummary.builder("router.route.search.expanded")
+                        .description("Countries expanded per route search")
+                        .baseUnit("countries")
+                        .tag("engine", engine)
+                        .register(meterRegistry),
+                Timer.builder("router.route.build")
+                        .description("Building of the cca3 route from the search result")
+                        .tag("engine", engine)
+                        .register(meterRegistry));
+    }
+
+    /**
+     * Records a country data load from {@code source} ({@code url} or {@code snapshot-file}) ending with
+     * {@code outcome} ({@code loaded}, {@code not-modified} or {@code failed}), including the download and the parsing.
+     */
+    public void recordFetch(String source, String outcome, long startNanos) {
+        fetchTimers.get(source + ':' + outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordValidation(long startNanos) {
+        validationTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordGraphBuild(long startNanos) {
+        graphBuildTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRoute(int countries) {
+        routeLengthSummary.record(countries - 1);
+    }
+
+    public void recordInvalidCountry() {
+        invalidCountryCounter.increment();
+    }
+
+    public void recordPathNotFound() {
+        pathNotFoundCounter.increment();
+    }
+
+    public void recordIOError() {
+        ioErrorCounter.increment();
+    }
+
+    public void recordRateLimited() {
+        rateLimitedCounter.increment();
+    }
+
+    public void recordOverloaded() {
+        overloadedCounter.increment();
+    }
+
+    private void registerFetchTimer(String source, String outcome) {
+        fetchTimers.put(source + ':' + outcome, Timer.builder("router.country.data.fetch")
+                .description("Download and parsing of the country data")
+                .tag("source", source)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private Counter rejectionCounter(String reason) {
+        return Counter.builder("router.admission.rejections")
+                .description("Routing requests rejected by the admission control, by reason")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private Counter failureCounter(String error) {
+        return Counter.builder("router.route.failures")
+                .description("Route requests failed, by error type")
+                .tag("error", error)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Meters of one search engine.
+     */
+    public record SearchMeters(Timer searchTimer, DistributionSummary expandedSummary, Timer buildTimer) {
+
+        public void recordSearch(long startNanos, int expanded) {
+            searchTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            expandedSummary.record(expanded);
+        }
+
+        public void recordBuild(long startNanos) {
+            buildTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
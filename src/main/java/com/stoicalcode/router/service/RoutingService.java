@@ -2,24 +2,182 @@ package com.stoicalcode.router.service;
 
 import com.stoicalcode.router.exception.InvalidCountryException;
 import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.AlternativeRoutesResponseDto;
+import com.stoicalcode.router.model.BatchRouteResultDto;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.CountryValidationResponseDto;
+import com.stoicalcode.router.model.RouteConstraints;
+import com.stoicalcode.router.model.RouteMetric;
+import com.stoicalcode.router.model.RoutePairDto;
+import com.stoicalcode.router.model.RouteTree;
+import lombok.Setter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.ObjIntConsumer;
 
 @Service
 public class RoutingService {
 
+    private static final String PATH_NOT_FOUND_ERROR = "Not possible land route from '%s' to '%s'";
+
     private final SearchCountryService searchCountryService;
+    private final WeightedSearchCountryService weightedSearchCountryService;
+    private final ConstrainedSearchCountryService constrainedSearchCountryService;
+    private final CountryService countryService;
+    private final SearchBuffersPool searchBuffersPool;
+    private final RouteCache routeCache;
+
+    @Autowired(required = false)
+    @Setter
+    private RoutingMetrics routingMetrics = RoutingMetrics.noop();
 
     @Autowired
-    public RoutingService(SearchCountryService searchCountryService) {
+    public RoutingService(SearchCountryService searchCountryService,
+                          WeightedSearchCountryService weightedSearchCountryService,
+                          ConstrainedSearchCountryService constrainedSearchCountryService,
+                          CountryService countryService, SearchBuffersPool searchBuffersPool, RouteCache routeCache) {
         this.searchCountryService = searchCountryService;
+        this.weightedSearchCountryService = weightedSearchCountryService;
+        this.constrainedSearchCountryService = constrainedSearchCountryService;
+        this.countryService = countryService;
+        this.searchBuffersPool = searchBuffersPool;
+        this.routeCache = routeCache;
     }
 
     public List<String> findLandRoute(String origin, String destination)
             throws IOException, InvalidCountryException, PathNotFoundException {
-        return searchCountryService.findLandRoute(origin, destination);
+        return findLandRoute(origin, destination, RouteMetric.HOPS);
+    }
+
+    /**
+     * Finds the land route minimizing {@code metric} through the route cache, searching it only when the pair is
+     * not cached for the current country data version. Fewest hops routes come from the configured search engine,
+     * the other metrics from the weighted search.
+     */
+    public List<String> findLandRoute(String origin, String destination, RouteMetric metric)
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        return recordRoute(() -> {
+            return routeCache.findLandRoute(countryService.getCountryGraph(), metric, origin, destination,
+                    () -> metric == RouteMetric.HOPS
+                            ? searchCountryService.findLandRoute(origin, destination)
+                            : weightedSearchCountryService.findLandRoute(origin, destination, metric));
+        });
+    }
+
+    /**
+     * Finds the land route minimizing {@code metric} under {@code constraints}. Constrained routes are searched on
+     * every request, as the constraints make the cache keys too diverse to be worth caching.
+     */
+    public List<String> findLandRoute(String origin, String destination, RouteMetric metric,
+                                      RouteConstraints constraints)
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        if (constraints.isEmpty()) {
+            return findLandRoute(origin, destination, metric);
+        }
+        return recordRoute(() -> constrainedSearchCountryService.findLandRoute(origin, destination, metric,
+                constraints));
+    }
+
+    public AlternativeRoutesResponseDto findAlternativeRoutes(String origin, String destination, RouteMetric metric,
+                                                              int count)
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        return weightedSearchCountryService.findAlternativeRoutes(origin, destination, metric, count);
+    }
+
+    /**
+     * Finds the routes from the origin to every country reachable from it by land with a single breadth-first
+     * search, shared by the requests for the same origin and snapshot whatever the search engine.
+     */
+    public RouteTree findRouteTree(String origin) throws IOException, InvalidCountryException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        return RouteTreeSearch.of(countryGraph, countryService.validateOrigin(countryGraph, origin));
+    }
+
+    private List<String> recordRoute(RouteCache.RouteSearch routeSearch)
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        try {
+            List<String> route = routeSearch.findLandRoute();
+            routingMetrics.recordRoute(route.size());
+            return route;
+        } catch (InvalidCountryException e) {
+            routingMetrics.recordInvalidCountry();
+            throw e;
+        } catch (PathNotFoundException e) {
+            routingMetrics.recordPathNotFound();
+            throw e;
+        } catch (IOException e) {
+            routingMetrics.recordIOError();
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the land routes of all the pairs, returning one result per pair in the same order as the pairs.
+     */
+    public List<BatchRouteResultDto> findLandRoutes(List<RoutePairDto> pairs) throws IOException {
+        BatchRouteResultDto[] results = new BatchRouteResultDto[pairs.size()];
+        findLandRoutes(pairs, (result, index) -> results[index] = result);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Finds the land routes of all the pairs and hands every result, together with the index of its pair, to
+     * {@code resultConsumer} as soon as it is known. Results are not produced in the order of the pairs.
+     * <p>
+     * The whole batch is served from a single country data snapshot. Pairs are grouped by origin, so a single
+     * breadth-first search per distinct origin answers all its destinations, and the search buffers are shared by
+     * the whole batch.
+     */
+    public void findLandRoutes(List<RoutePairDto> pairs, ObjIntConsumer<BatchRouteResultDto> resultConsumer)
+            throws IOException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        long[] sourceAndIndexKeys = new long[pairs.size()];
+        int[] targets = new int[pairs.size()];
+        int validPairs = 0;
+
+        for (int index = 0; index < pairs.size(); index++) {
+            String origin = Objects.requireNonNullElse(pairs.get(index).origin(), "");
+            String destination = Objects.requireNonNullElse(pairs.get(index).destination(), "");
+            try {
+                CountryValidationResponseDto validationResponse =
+                        countryService.validateCountries(countryGraph, origin, destination);
+                long source = countryGraph.ordinalOf(validationResponse.originCountry().getCca3());
+                targets[index] = countryGraph.ordinalOf(validationResponse.destinationCountry().getCca3());
+                sourceAndIndexKeys[validPairs++] = source << 32 | index;
+            } catch (InvalidCountryException | PathNotFoundException e) {
+                resultConsumer.accept(BatchRouteResultDto.failure(origin, destination, e.getMessage()), index);
+            }
+        }
+
+        Arrays.sort(sourceAndIndexKeys, 0, validPairs);
+        SearchBuffers buffers = searchBuffersPool.acquire(countryGraph.size());
+        try {
+            int currentSource = -1;
+            for (int i = 0; i < validPairs; i++) {
+                int source = (int) (sourceAndIndexKeys[i] >>> 32);
+                int index = (int) sourceAndIndexKeys[i];
+                if (source != currentSource) {
+                    buffers.searchTree(countryGraph, source, Integer.MAX_VALUE);
+                    currentSource = source;
+                }
+
+                RoutePairDto pair = pairs.get(index);
+                int target = targets[index];
+                if (buffers.isVisited(target)) {
+                    resultConsumer.accept(BatchRouteResultDto.success(pair.origin(), pair.destination(),
+                            buffers.routeTo(countryGraph, target)), index);
+                } else {
+                    resultConsumer.accept(BatchRouteResultDto.failure(pair.origin(), pair.destination(),
+                            String.format(PATH_NOT_FOUND_ERROR, pair.origin(), pair.destination())), index);
+                }
+            }
+        } finally {
+            searchBuffersPool.release(buffers);
+        }
     }
-}
\ No newline at end of file
+}
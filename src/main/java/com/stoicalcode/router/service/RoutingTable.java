@@ -0,0 +1,125 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.RouteTree;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * All-pairs shortest land routes of a {@link CountryGraph}. Row {@code s} holds the breadth-first search tree rooted
+ * at {@code s} as predecessor links: the entry for {@code t} is the country before {@code t} on the route from
+ * {@code s}. Routes are rebuilt by walking the links back from the destination, so they are the same as the ones
+ * the breadth-first search engines return.
+ * <p>
+ * Ordinals are stored in a {@code byte[]} when the graph has less than 255 countries and in a {@code short[]}
+ * otherwise.
+ * <p>
+ * When overrides are applied to the snapshot only the rows of the affected countries are searched again, the
+ * others are copied.
+ */
+final class RoutingTable implements CountryGraph.IncrementalData<RoutingTable> {
+    private static final int NONE = -1;
+    private static final int BYTE_NONE = 0xFF;
+    private static final int SHORT_NONE = 0xFFFF;
+
+    private final int size;
+    private final byte[] bytePredecessors;
+    private final short[] shortPredecessors;
+    private final long buildTimeNanos;
+
+    private RoutingTable(int size, byte[] bytePredecessors, short[] shortPredecessors, long buildTimeNanos) {
+        this.size = size;
+        this.bytePredecessors = bytePredecessors;
+        this.shortPredecessors = shortPredecessors;
+        this.buildTimeNanos = buildTimeNanos;
+    }
+
+    static RoutingTable build(CountryGraph countryGraph, ForkJoinPool forkJoinPool) {
+        long start = System.nanoTime();
+        int size = countryGraph.size();
+        if (size >= SHORT_NONE) {
+            throw new IllegalArgumentException("Too many countries for a routing table: " + size);
+        }
+
+        boolean compact = size < BYTE_NONE;
+        byte[] bytePredecessors = compact ? new byte[size * size] : null;
+        short[] shortPredecessors = compact ? null : new short[size * size];
+
+        forkJoinPool.submit(() -> IntStream.range(0, size).parallel().forEach(source ->
+                fillRow(countryGraph, source, bytePredecessors, shortPredecessors))).join();
+
+        return new RoutingTable(size, bytePredecessors, shortPredecessors, System.nanoTime() - start);
+    }
+
+    @Override
+    public RoutingTable update(CountryGraph updated, BitSet affectedCountries) {
+        long start = System.nanoTime();
+        byte[] bytePredecessors = this.bytePredecessors != null ? this.bytePredecessors.clone() : null;
+        short[] shortPredecessors = this.shortPredecessors != null ? this.shortPredecessors.clone() : null;
+        ForkJoinPool.commonPool().submit(() -> affectedCountries.stream().parallel().forEach(source ->
+                fillRow(updated, source, bytePredecessors, shortPredecessors))).join();
+        return new RoutingTable(size, bytePredecessors, shortPredecessors, System.nanoTime() - start);
+    }
+
+    private static void fillRow(CountryGraph countryGraph, int source, byte[] bytePredecessors,
+                                short[] shortPredecessors) {
+        RouteTree routeTree = RouteTreeSearch.search(countryGraph, source);
+        int size = countryGraph.size();
+        int row = source * size;
+        for (int target = 0; target < size; target++) {
+            int predecessor = routeTree.parentOf(target);
+            if (bytePredecessors != null) {
+                bytePredecessors[row + target] = (byte) (predecessor == NONE ? BYTE_NONE : predecessor);
+            } else {
+                shortPredecessors[row + target] = (short) (predecessor == NONE ? SHORT_NONE : predecessor);
+            }
+        }
+    }
+
+    /**
+     * Returns the country before {@code target} on the route from {@code source}, or {@code -1} when {@code target}
+     * is the source itself or cannot be reached from it.
+     */
+    int predecessor(int source, int target) {
+        int index = source * size + target;
+        if (bytePredecessors != null) {
+            int predecessor = bytePredecessors[index] & BYTE_NONE;
+            return predecessor == BYTE_NONE ? NONE : predecessor;
+        }
+
+        int predecessor = shortPredecessors[index] & SHORT_NONE;
+        return predecessor == SHORT_NONE ? NONE : predecessor;
+    }
+
+    /**
+     * Returns the route from {@code source} to {@code target}, or {@code null} when there is no land route.
+     */
+    List<String> route(CountryGraph countryGraph, int source, int target) {
+        int length = 1;
+        for (int country = target; country != source; country = predecessor(source, country)) {
+            if (country == NONE) {
+                return null;
+            }
+            length++;
+        }
+
+        String[] route = new String[length];
+        for (int country = target; country != source; country = predecessor(source, country)) {
+            route[--length] = countryGraph.cca3Of(country);
+        }
+        route[0] = countryGraph.cca3Of(source);
+        return Arrays.asList(route);
+    }
+
+    long memoryFootprintBytes() {
+        return bytePredecessors != null ? bytePredecessors.length : shortPredecessors.length * 2L;
+    }
+
+    long buildTimeNanos() {
+        return buildTimeNanos;
+    }
+}
@@ -0,0 +1,101 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.model.CountryGraph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reusable scratch arrays for searches over the ordinals of a {@link CountryGraph}. Visited marks are stamped with
+ * an epoch, so starting a new search is O(1) instead of clearing the arrays.
+ */
+final class SearchBuffers {
+    static final int NO_PARENT = -1;
+
+    final int[] parents;
+    final int[] distances;
+    final int[] queue;
+    int expanded; // countries expanded by the last search, for metrics
+    private final int[] visitedEpochs;
+    private int epoch;
+
+    SearchBuffers(int capacity) {
+        parents = new int[capacity];
+        distances = new int[capacity];
+        queue = new int[capacity];
+        visitedEpochs = new int[capacity];
+    }
+
+    int capacity() {
+        return parents.length;
+    }
+
+    void reset() {
+        expanded = 0;
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(visitedEpochs, 0);
+            epoch = 1;
+        }
+    }
+
+    boolean isVisited(int ordinal) {
+        return visitedEpochs[ordinal] == epoch;
+    }
+
+    void markVisited(int ordinal) {
+        visitedEpochs[ordinal] = epoch;
+    }
+
+    /**
+     * Runs a complete breadth-first search from {@code source}, visiting the neighbors in borders order, and leaves
+     * the search tree in {@link #parents} and {@link #distances}. Countries further than {@code maxHops} crossings
+     * away are not visited.
+     *
+     * @return the number of visited countries, which are {@code queue[0]} to {@code queue[count - 1]}
+     */
+    int searchTree(CountryGraph countryGraph, int source, int maxHops) {
+        reset();
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        parents[source] = NO_PARENT;
+        distances[source] = 0;
+        markVisited(source);
+
+        while (head < tail) {
+            int current = queue[head++];
+            if (distances[current] >= maxHops) {
+                continue;
+            }
+
+            int last = countryGraph.lastNeighborIndex(current);
+            for (int i = countryGraph.firstNeighborIndex(current); i < last; i++) {
+                int neighbor = countryGraph.neighborAt(i);
+                if (!isVisited(neighbor)) {
+                    markVisited(neighbor);
+                    parents[neighbor] = current;
+                    distances[neighbor] = distances[current] + 1;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+
+        return tail;
+    }
+
+    /**
+     * Builds the cca3 route from the search source to {@code target} by following the parent links.
+     */
+    List<String> routeTo(CountryGraph countryGraph, int target) {
+        int length = 0;
+        for (int country = target; country != NO_PARENT; country = parents[country]) {
+            length++;
+        }
+
+        String[] route = new String[length];
+        for (int country = target; country != NO_PARENT; country = parents[country]) {
+            route[--length] = countryGraph.cca3Of(country);
+        }
+        return Arrays.asList(route);
+    }
+}
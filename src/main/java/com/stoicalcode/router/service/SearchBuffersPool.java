@@ -0,0 +1,29 @@
+package com.stoicalcode.router.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded pool of {@link SearchBuffers}, so that searches do not allocate their scratch arrays on every request.
+ */
+@Component
+public class SearchBuffersPool {
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 4;
+
+    private final BlockingQueue<SearchBuffers> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    SearchBuffers acquire(int size) {
+        SearchBuffers buffers = pool.poll();
+        if (buffers == null || buffers.capacity() < size) {
+            buffers = new SearchBuffers(size);
+        }
+        buffers.reset();
+        return buffers;
+    }
+
+    void release(SearchBuffers buffers) {
+        pool.offer(buffers);
+    }
+}
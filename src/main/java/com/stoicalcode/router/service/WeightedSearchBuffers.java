@@ -0,0 +1,189 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.model.CountryGraph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reusable scratch arrays for the weighted route searches: the cheapest known cost and parent of every country and
+ * an indexed binary min-heap of the open countries keyed by their priority, with decrease-key. Like
+ * {@link SearchBuffers}, countries are marked as seen with an epoch, so starting a new search is O(1).
+ * <p>
+ * Countries and edges (by neighbor index) can also be blocked, so that consecutive searches over the same buffers
+ * avoid them. Blocks survive {@link #reset()} and are only lifted by {@link #clearBlocks(int)}. On top of them, a
+ * bitset of excluded country ordinals can be set for all the searches of a request.
+ */
+final class WeightedSearchBuffers {
+    static final int NO_PARENT = -1;
+    private static final int CLOSED = -1;
+
+    final double[] costs;
+    final int[] parents;
+    int expanded; // countries expanded by the last search, for metrics
+    private final double[] priorities;
+    private final int[] heap;
+    private final int[] heapPositions; // position of every open country in the heap, CLOSED once polled
+    private final int[] seenEpochs;
+    private int epoch;
+    private int heapSize;
+    private final int[] blockedCountryEpochs;
+    private int[] blockedEdgeEpochs = new int[0];
+    private int blockEpoch = 1;
+    private long[] excludedCountries; // bit i set when country i must not be crossed, null when none
+
+    WeightedSearchBuffers(int capacity) {
+        costs = new double[capacity];
+        parents = new int[capacity];
+        priorities = new double[capacity];
+        heap = new int[capacity];
+        heapPositions = new int[capacity];
+        seenEpochs = new int[capacity];
+        blockedCountryEpochs = new int[capacity];
+    }
+
+    int capacity() {
+        return costs.length;
+    }
+
+    void reset() {
+        expanded = 0;
+        heapSize = 0;
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(seenEpochs, 0);
+            epoch = 1;
+        }
+    }
+
+    /**
+     * Lifts all the blocks, making room to block any of the {@code edgeCount} edges of the snapshot.
+     */
+    void clearBlocks(int edgeCount) {
+        if (blockedEdgeEpochs.length < edgeCount) {
+            blockedEdgeEpochs = new int[edgeCount];
+        }
+        if (++blockEpoch == Integer.MAX_VALUE) {
+            Arrays.fill(blockedCountryEpochs, 0);
+            Arrays.fill(blockedEdgeEpochs, 0);
+            blockEpoch = 1;
+        }
+    }
+
+    void excludeCountries(long[] excludedCountries) {
+        this.excludedCountries = excludedCountries;
+    }
+
+    void blockCountry(int ordinal) {
+        blockedCountryEpochs[ordinal] = blockEpoch;
+    }
+
+    void blockEdge(int neighborIndex) {
+        blockedEdgeEpochs[neighborIndex] = blockEpoch;
+    }
+
+    boolean isBlocked(int ordinal, int neighborIndex) {
+        return excludedCountries != null && (excludedCountries[ordinal >>> 6] & 1L << ordinal) != 0
+                || blockedCountryEpochs[ordinal] == blockEpoch
+                || neighborIndex < blockedEdgeEpochs.length && blockedEdgeEpochs[neighborIndex] == blockEpoch;
+    }
+
+    boolean isEmpty() {
+        return heapSize == 0;
+    }
+
+    boolean isClosed(int ordinal) {
+        return seenEpochs[ordinal] == epoch && heapPositions[ordinal] == CLOSED;
+    }
+
+    /**
+     * Opens {@code ordinal} with the given cost, or lowers the cost of an open country when {@code cost} is smaller
+     * than its current one. Closed countries are left untouched.
+     */
+    void offer(int ordinal, double cost, double priority, int parent) {
+        if (seenEpochs[ordinal] != epoch) {
+            seenEpochs[ordinal] = epoch;
+            heapPositions[ordinal] = heapSize;
+            heap[heapSize++] = ordinal;
+        } else if (heapPositions[ordinal] == CLOSED || cost >= costs[ordinal]) {
+            return;
+        }
+
+        costs[ordinal] = cost;
+        priorities[ordinal] = priority;
+        parents[ordinal] = parent;
+        siftUp(heapPositions[ordinal]);
+    }
+
+    /**
+     * Removes the open country with the lowest priority, ties broken by the lowest ordinal, and closes it.
+     */
+    int poll() {
+        int first = heap[0];
+        heapPositions[first] = CLOSED;
+        if (--heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapPositions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return first;
+    }
+
+    /**
+     * Builds the cca3 route from the search source to {@code target} by following the parent links.
+     */
+    List<String> routeTo(CountryGraph countryGraph, int target) {
+        int length = 0;
+        for (int country = target; country != NO_PARENT; country = parents[country]) {
+            length++;
+        }
+
+        String[] route = new String[length];
+        for (int country = target; country != NO_PARENT; country = parents[country]) {
+            route[--length] = countryGraph.cca3Of(country);
+        }
+        return Arrays.asList(route);
+    }
+
+    private void siftUp(int position) {
+        int ordinal = heap[position];
+        while (position > 0) {
+            int parentPosition = (position - 1) >>> 1;
+            int parent = heap[parentPosition];
+            if (!precedes(ordinal, parent)) {
+                break;
+            }
+            heap[position] = parent;
+            heapPositions[parent] = position;
+            position = parentPosition;
+        }
+        heap[position] = ordinal;
+        heapPositions[ordinal] = position;
+    }
+
+    private void siftDown(int position) {
+        int ordinal = heap[position];
+        int half = heapSize >>> 1;
+        while (position < half) {
+            int childPosition = 2 * position + 1;
+            int child = heap[childPosition];
+            int rightPosition = childPosition + 1;
+            if (rightPosition < heapSize && precedes(heap[rightPosition], child)) {
+                childPosition = rightPosition;
+                child = heap[childPosition];
+            }
+            if (!precedes(child, ordinal)) {
+                break;
+            }
+            heap[position] = child;
+            heapPositions[child] = position;
+            position = childPosition;
+        }
+        heap[position] = ordinal;
+        heapPositions[ordinal] = position;
+    }
+
+    private boolean precedes(int ordinal1, int ordinal2) {
+        return priorities[ordinal1] < priorities[ordinal2]
+                || priorities[ordinal1] == priorities[ordinal2] && ordinal1 < ordinal2;
+    }
+}
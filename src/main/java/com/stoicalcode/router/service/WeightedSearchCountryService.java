@@ -0,0 +1,234 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.AlternativeRoutesResponseDto;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.CountryValidationResponseDto;
+import com.stoicalcode.router.model.RouteMetric;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Cheapest land route search for the {@link RouteMetric}s, each backed by an {@link EdgeCostFunction}. It runs A*
+ * over the compressed sparse row adjacency of the {@link CountryGraph}, with the lower bound of the cost function as
+ * heuristic, which is plain Dijkstra for cost functions without one.
+ * <p>
+ * Edge costs are computed once per snapshot and cost function, and the search works on pooled primitive arrays,
+ * so a search does not allocate besides the returned route.
+ */
+@Service
+public class WeightedSearchCountryService {
+
+    private static final String PATH_NOT_FOUND_ERROR = "Not possible land route from '%s' to '%s'";
+    private static final String ENGINE = "weighted";
+    private static final String ALTERNATIVES_ENGINE = "alternatives";
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 4;
+    private static final EdgeCostFunction HOPS = (countryGraph, from, to) -> 1;
+
+    private final CountryService countryService;
+    private final Map<RouteMetric, RoutingMetrics.SearchMeters> alternativesMeters = new EnumMap<>(RouteMetric.class);
+    private final Map<RouteMetric, EdgeCostFunction> costFunctions = new EnumMap<>(RouteMetric.class);
+    private final Map<RouteMetric, RoutingMetrics.SearchMeters> searchMeters = new EnumMap<>(RouteMetric.class);
+    private final BlockingQueue<WeightedSearchBuffers> buffersPool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    @Value("${routing-alternatives-max-expanded:20000}")
+    @Setter
+    private int alternativesMaxExpanded = 20000;
+
+    @Autowired
+    public WeightedSearchCountryService(CountryService countryService) {
+        this(countryService, Map.of());
+    }
+
+    /**
+     * Creates the service with {@code costFunctions} replacing the default cost functions of their metrics. Cost
+     * functions are fixed for the lifetime of the service, as cached routes are only keyed by their metric.
+     */
+    WeightedSearchCountryService(CountryService countryService, Map<RouteMetric, EdgeCostFunction> costFunctions) {
+        this.countryService = countryService;
+        this.costFunctions.put(RouteMetric.HOPS, HOPS);
+        this.costFunctions.put(RouteMetric.DISTANCE, GreatCircleDistance.CENTROIDS);
+        this.costFunctions.put(RouteMetric.CAPITAL_DISTANCE, GreatCircleDistance.CAPITALS);
+        this.costFunctions.putAll(costFunctions);
+        setRoutingMetrics(RoutingMetrics.noop());
+    }
+
+    @Autowired(required = false)
+    public void setRoutingMetrics(RoutingMetrics routingMetrics) {
+        for (RouteMetric metric : RouteMetric.values()) {
+            searchMeters.put(metric, routingMetrics.searchMeters(ENGINE + "-" + metric.parameter()));
+            alternativesMeters.put(metric, routingMetrics.searchMeters(ALTERNATIVES_ENGINE + "-" + metric.parameter()));
+        }
+    }
+
+    public List<String> findLandRoute(String origin, String destination, RouteMetric metric)
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        CountryValidationResponseDto validationResponse =
+                countryService.validateCountries(countryGraph, origin, destination);
+        int source = countryGraph.ordinalOf(validationResponse.originCountry().getCca3());
+        int target = countryGraph.ordinalOf(validationResponse.destinationCountry().getCca3());
+        RoutingMetrics.SearchMeters meters = searchMeters.get(metric);
+
+        WeightedSearchBuffers buffers = acquireBuffers(countryGraph.size());
+        try {
+            long searchStartNanos = System.nanoTime();
+            boolean found = search(countryGraph, source, target, costFunctions.get(metric), true, buffers);
+            meters.recordSearch(searchStartNanos, buffers.expanded);
+            if (!found) {
+                throw new PathNotFoundException(String.format(PATH_NOT_FOUND_ERROR, origin, destination));
+            }
+
+            long buildStartNanos = System.nanoTime();
+            List<String> route = buffers.routeTo(countryGraph, target);
+            meters.recordBuild(buildStartNanos);
+            return route;
+        } finally {
+            releaseBuffers(buffers);
+        }
+    }
+
+    /**
+     * Finds up to {@code count} cheapest loopless land routes minimizing {@code metric} with Yen's algorithm. The
+     * spur searches of a request expand at most {@code routing-alternatives-max-expanded} countries in total; the
+     * routes found until the budget runs out are returned as truncated.
+     */
+    public AlternativeRoutesResponseDto findAlternativeRoutes(String origin, String destination, RouteMetric metric,
+                                                              int count)
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        CountryValidationResponseDto validationResponse =
+                countryService.validateCountries(countryGraph, origin, destination);
+        int source = countryGraph.ordinalOf(validationResponse.originCountry().getCca3());
+        int target = countryGraph.ordinalOf(validationResponse.destinationCountry().getCca3());
+        RoutingMetrics.SearchMeters meters = alternativesMeters.get(metric);
+
+        WeightedSearchBuffers buffers = acquireBuffers(countryGraph.size());
+        try {
+            long searchStartNanos = System.nanoTime();
+            AlternativeRoutesSearch search = new AlternativeRoutesSearch(countryGraph, costFunctions.get(metric),
+                    buffers, alternativesMaxExpanded);
+            List<AlternativeRoutesSearch.Route> routes = search.search(source, target, count);
+            meters.recordSearch(searchStartNanos, search.expanded());
+            if (routes.isEmpty() && !search.isTruncated()) {
+                throw new PathNotFoundException(String.format(PATH_NOT_FOUND_ERROR, origin, destination));
+            }
+
+            long buildStartNanos = System.nanoTime();
+            List<AlternativeRoutesResponseDto.AlternativeRoute> alternativeRoutes = new ArrayList<>(routes.size());
+            for (AlternativeRoutesSearch.Route route : routes) {
+                String[] countries = new String[route.countries().length];
+                for (int i = 0; i < countries.length; i++) {
+                    countries[i] = countryGraph.cca3Of(route.countries()[i]);
+                }
+                alternativeRoutes.add(new AlternativeRoutesResponseDto.AlternativeRoute(Arrays.asList(countries),
+                        route.cost()));
+            }
+            meters.recordBuild(buildStartNanos);
+            return new AlternativeRoutesResponseDto(metric.parameter(), alternativeRoutes, search.isTruncated());
+        } finally {
+            releaseBuffers(buffers);
+        }
+    }
+
+    /**
+     * Searches the cheapest route from {@code source} to {@code target}, leaving it in the parents of
+     * {@code buffers}.
+     */
+    static boolean search(CountryGraph countryGraph, int source, int target, EdgeCostFunction costFunction,
+                          boolean heuristic, WeightedSearchBuffers buffers) {
+        return search(countryGraph, source, target, costFunction, heuristic, Integer.MAX_VALUE, buffers);
+    }
+
+    /**
+     * Searches the cheapest route from {@code source} to {@code target} avoiding the blocked countries and edges of
+     * {@code buffers}, leaving it in their parents. Without {@code heuristic} the lower bound of the cost function is
+     * ignored (Dijkstra). The search gives up after expanding {@code maxExpanded} countries, leaving the heap of
+     * {@code buffers} not empty.
+     *
+     * @return whether {@code target} is reachable
+     */
+    static boolean search(CountryGraph countryGraph, int source, int target, EdgeCostFunction costFunction,
+                          boolean heuristic, int maxExpanded, WeightedSearchBuffers buffers) {
+        double[] edgeCosts = edgeCostsOf(countryGraph, costFunction);
+        double[] costs = buffers.costs;
+
+        buffers.reset();
+        buffers.offer(source, 0, heuristic ? costFunction.lowerBound(countryGraph, source, target) : 0,
+                WeightedSearchBuffers.NO_PARENT);
+        while (!buffers.isEmpty() && buffers.expanded < maxExpanded) {
+            int current = buffers.poll();
+            buffers.expanded++;
+            if (current == target) {
+                return true;
+            }
+
+            int last = countryGraph.lastNeighborIndex(current);
+            for (int i = countryGraph.firstNeighborIndex(current); i < last; i++) {
+                int neighbor = countryGraph.neighborAt(i);
+                if (!buffers.isClosed(neighbor) && !buffers.isBlocked(neighbor, i)) {
+                    double cost = costs[current] + edgeCosts[i];
+                    double priority = heuristic ? cost + costFunction.lowerBound(countryGraph, neighbor, target) : cost;
+                    buffers.offer(neighbor, cost, priority, current);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the cost of every edge, aligned with the neighbor indexes of the snapshot.
+     */
+    static double[] edgeCostsOf(CountryGraph countryGraph, EdgeCostFunction costFunction) {
+        return countryGraph.derive(new EdgeCostsKey(costFunction), graph -> edgeCosts(graph, costFunction));
+    }
+
+    private static double[] edgeCosts(CountryGraph countryGraph, EdgeCostFunction costFunction) {
+        double[] edgeCosts = new double[countryGraph.edgeCount()];
+        for (int country = 0; country < countryGraph.size(); country++) {
+            for (int i = countryGraph.firstNeighborIndex(country); i < countryGraph.lastNeighborIndex(country); i++) {
+                double cost = costFunction.cost(countryGraph, country, countryGraph.neighborAt(i));
+                if (!(cost >= 0)) {
+                    throw new IllegalStateException(String.format("Invalid cost %s from '%s' to '%s' with %s", cost,
+                            countryGraph.cca3Of(country), countryGraph.cca3Of(countryGraph.neighborAt(i)),
+                            costFunction));
+                }
+                edgeCosts[i] = cost;
+            }
+        }
+        return edgeCosts;
+    }
+
+    EdgeCostFunction costFunctionOf(RouteMetric metric) {
+        return costFunctions.get(metric);
+    }
+
+    WeightedSearchBuffers acquireBuffers(int size) {
+        WeightedSearchBuffers buffers = buffersPool.poll();
+        if (buffers == null || buffers.capacity() < size) {
+            buffers = new WeightedSearchBuffers(size);
+        }
+        buffers.clearBlocks(0);
+        buffers.excludeCountries(null);
+        return buffers;
+    }
+
+    void releaseBuffers(WeightedSearchBuffers buffers) {
+        buffersPool.offer(buffers);
+    }
+
+    private record EdgeCostsKey(EdgeCostFunction costFunction) {
+    }
+}
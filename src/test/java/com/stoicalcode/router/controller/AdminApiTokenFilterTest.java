@@ -0,0 +1,61 @@
+package com.stoicalcode.router.controller;
+
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdminApiTokenFilterTest {
+
+    private final AdminApiTokenFilter sut = new AdminApiTokenFilter("secret");
+
+    @Test
+    void shouldRejectAdminRequest_whenTokenMissingOrWrong() throws ServletException, IOException {
+        MockHttpServletResponse missing = filter(adminRequest(null));
+        MockHttpServletResponse wrong = filter(adminRequest("guess"));
+
+        assertThat(missing.getStatus()).isEqualTo(401);
+        assertThat(missing.getContentAsString()).isEqualTo("missing or invalid X-Admin-Token header");
+        assertThat(wrong.getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    void shouldPassAdminRequest_whenTokenMatches() throws ServletException, IOException {
+        MockFilterChain filterChain = new MockFilterChain();
+        sut.doFilter(adminRequest("secret"), new MockHttpServletResponse(), filterChain);
+
+        assertThat(filterChain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void shouldNotFilterOtherEndpoints() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/routing/CZE/ITA");
+
+        assertThat(filter(request).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void shouldNotStart_whenTokenNotSet() {
+        assertThrows(IllegalStateException.class, () -> new AdminApiTokenFilter(""));
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        sut.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest adminRequest(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/admin/borders/AUT/ITA");
+        if (token != null) {
+            request.addHeader(AdminApiTokenFilter.ADMIN_TOKEN_HEADER, token);
+        }
+        return request;
+    }
+}
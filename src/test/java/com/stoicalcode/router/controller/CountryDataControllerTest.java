@@ -0,0 +1,57 @@
+package com.stoicalcode.router.controller;
+
+import com.stoicalcode.router.model.CountryDataInfoDto;
+import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.service.CountryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CountryDataControllerTest {
+
+    @Mock
+    private CountryService mockCountryService;
+
+    private CountryDataController sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new CountryDataController(mockCountryService);
+    }
+
+    @Test
+    void shouldReturnCountryDataVersion() throws IOException {
+        Instant loadedAt = Instant.parse("2023-08-01T10:15:30Z");
+        CountryGraph countryGraph = new CountryGraph(List.of(CountryDto.builder().cca3("CZE").build()),
+                3, loadedAt, "\"etag\"", null);
+        when(mockCountryService.getCountryGraph()).thenReturn(countryGraph);
+
+        ResponseEntity<?> response = sut.getCountryDataInfo();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(new CountryDataInfoDto(3, loadedAt, 1, "\"etag\"", null));
+    }
+
+    @Test
+    void shouldReturnInternalServerError_whenCountryDataNotAvailable() throws IOException {
+        when(mockCountryService.getCountryGraph()).thenThrow(new IOException("Internal error"));
+
+        ResponseEntity<?> response = sut.getCountryDataInfo();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(response.getBody()).isEqualTo("Internal error");
+    }
+}
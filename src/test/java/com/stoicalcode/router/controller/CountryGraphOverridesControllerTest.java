@@ -0,0 +1,63 @@
+package com.stoicalcode.router.controller;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.CountryGraphOverrides;
+import com.stoicalcode.router.model.CountryGraphOverridesDto;
+import com.stoicalcode.router.service.CountryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CountryGraphOverridesControllerTest {
+
+    @Mock
+    private CountryService mockCountryService;
+
+    private CountryGraphOverridesController sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new CountryGraphOverridesController(mockCountryService);
+    }
+
+    @Test
+    void shouldReturnOverrides_whenBorderClosed() throws IOException, InvalidCountryException {
+        CountryGraph loaded = new CountryGraph(List.of(
+                CountryDto.builder().cca3("AUT").borders(List.of("ITA")).build(),
+                CountryDto.builder().cca3("ITA").borders(List.of("AUT")).build()), 1, Instant.now(), null, null);
+        CountryGraph updated = loaded.withOverrides(loaded,
+                CountryGraphOverrides.NONE.withBorderClosed("ITA", "AUT"), 2).countryGraph();
+        when(mockCountryService.closeBorder("ita", "aut")).thenReturn(updated);
+
+        ResponseEntity<?> response = sut.closeBorder("ita", "aut");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(new CountryGraphOverridesDto(2,
+                List.of(), List.of(new CountryGraphOverrides.Border("AUT", "ITA")), List.of()));
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenInvalidCountry() throws IOException, InvalidCountryException {
+        when(mockCountryService.setCountryUnavailable("XXX", true))
+                .thenThrow(new InvalidCountryException("invalid country: 'XXX'"));
+
+        ResponseEntity<?> response = sut.makeCountryUnavailable("XXX");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo("invalid country: 'XXX'");
+    }
+}
@@ -0,0 +1,54 @@
+package com.stoicalcode.router.controller;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.DistanceResponseDto;
+import com.stoicalcode.router.service.DistanceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DistanceControllerTest {
+
+    @Mock
+    private DistanceService mockDistanceService;
+
+    private DistanceController sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new DistanceController(mockDistanceService);
+    }
+
+    @Test
+    void shouldReturnDistance() throws IOException, InvalidCountryException, PathNotFoundException {
+        DistanceResponseDto distance = new DistanceResponseDto("CZE", "ITA", 2);
+        when(mockDistanceService.findDistance("CZE", "ITA")).thenReturn(distance);
+
+        ResponseEntity<?> response = sut.findDistance("CZE", "ITA");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(distance);
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenNoLandRoute() throws IOException, InvalidCountryException, PathNotFoundException {
+        when(mockDistanceService.findDistance("GBR", "FRA"))
+                .thenThrow(new PathNotFoundException("origin and destination not connected by land"));
+
+        ResponseEntity<?> response = sut.findDistance("GBR", "FRA");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo("origin and destination not connected by land");
+    }
+}
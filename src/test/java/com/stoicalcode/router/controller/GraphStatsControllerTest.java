@@ -0,0 +1,66 @@
+package com.stoicalcode.router.controller;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.model.CountryStatsDto;
+import com.stoicalcode.router.model.GraphStatsDto;
+import com.stoicalcode.router.service.GraphStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GraphStatsControllerTest {
+
+    @Mock
+    private GraphStatsService mockGraphStatsService;
+
+    private GraphStatsController sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new GraphStatsController(mockGraphStatsService);
+    }
+
+    @Test
+    void shouldReturnGraphStats() throws IOException {
+        GraphStatsDto graphStats = new GraphStatsDto(1, 3, 1, 2, List.of("AUT", "CZE", "POL"),
+                List.of(new CountryStatsDto("CZE", 2, 1, 2.0)));
+        when(mockGraphStatsService.getGraphStats(1)).thenReturn(graphStats);
+
+        ResponseEntity<?> response = sut.getGraphStats(1);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(graphStats);
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenTopNegative() {
+        ResponseEntity<?> response = sut.getGraphStats(-1);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo("top must not be negative: -1");
+        verifyNoInteractions(mockGraphStatsService);
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenInvalidCountry() throws IOException, InvalidCountryException {
+        when(mockGraphStatsService.getCountryStats("XXX"))
+                .thenThrow(new InvalidCountryException("invalid country: 'XXX'"));
+
+        ResponseEntity<?> response = sut.getCountryStats("XXX");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo("invalid country: 'XXX'");
+    }
+}
@@ -0,0 +1,82 @@
+package com.stoicalcode.router.controller;
+
+import com.stoicalcode.router.service.AdmissionService;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoutingAdmissionFilterTest {
+
+    private RoutingAdmissionFilter sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new RoutingAdmissionFilter(new AdmissionService(1, 3, 10, 1000, Duration.ofMillis(10), 100));
+    }
+
+    @Test
+    void shouldRejectWithRetryAfter_whenRateLimitExceeded() throws ServletException, IOException {
+        sut.setClientHeader("X-Client-Id");
+        MockHttpServletResponse admitted = filter(route("client", "3"));
+        MockHttpServletResponse rejected = filter(route("client", null));
+
+        assertThat(admitted.getStatus()).isEqualTo(200);
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).isEqualTo("rate limit of client 'client' exceeded");
+        assertThat(filter(route("other client", null)).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void shouldTellClientsApartByAddress_whenNoClientHeader() throws ServletException, IOException {
+        MockHttpServletRequest otherAddress = route("client", null);
+        otherAddress.setRemoteAddr("10.0.0.1");
+
+        assertThat(filter(route("client", "3")).getStatus()).isEqualTo(200);
+        assertThat(filter(route("other client", null)).getStatus()).isEqualTo(429);
+        assertThat(filter(otherAddress).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void shouldNotFilterOtherEndpoints() throws ServletException, IOException {
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/country-data");
+            assertThat(filter(request).getStatus()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void shouldEstimateCost() {
+        MockHttpServletRequest alternatives = route("client", "3");
+        alternatives.setParameter("via", "AUT,DEU");
+        MockHttpServletRequest batch = new MockHttpServletRequest("POST", "/routing/batch");
+        batch.setContent(new byte[400]);
+
+        assertThat(RoutingAdmissionFilter.estimateCost(route("client", null))).isOne();
+        assertThat(RoutingAdmissionFilter.estimateCost(alternatives)).isEqualTo(9);
+        assertThat(RoutingAdmissionFilter.estimateCost(batch)).isEqualTo(10);
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        sut.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest route(String client, String alternatives) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/routing/CZE/ITA");
+        request.addHeader("X-Client-Id", client);
+        if (alternatives != null) {
+            request.setParameter("alternatives", alternatives);
+        }
+        return request;
+    }
+}
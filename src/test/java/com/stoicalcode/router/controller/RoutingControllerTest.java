@@ -1,22 +1,48 @@
 package com.stoicalcode.router.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stoicalcode.router.exception.InvalidCountryException;
 import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.AlternativeRoutesResponseDto;
+import com.stoicalcode.router.model.BatchRouteResultDto;
+import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.Region;
+import com.stoicalcode.router.model.RoutePairDto;
+import com.stoicalcode.router.model.RouteConstraints;
+import com.stoicalcode.router.model.RouteMetric;
 import com.stoicalcode.router.model.RouteResponseDto;
+import com.stoicalcode.router.model.RouteTree;
+import com.stoicalcode.router.model.RouteTreeResponseDto;
+import com.stoicalcode.router.service.CountryService;
+import com.stoicalcode.router.service.RouteResponseRenderer;
+import com.stoicalcode.router.service.RouteTreeSearch;
 import com.stoicalcode.router.service.RoutingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,28 +55,102 @@ class RoutingControllerTest {
 
     @BeforeEach
     void setUp() {
-        sut = new RoutingController(mockRoutingService);
+        sut = new RoutingController(mockRoutingService, new ObjectMapper());
+        sut.setBatchStreamingThreshold(2);
     }
 
     @Test
     void testFindLandRoute_whenValid() throws IOException, InvalidCountryException, PathNotFoundException {
         List<String> route = Arrays.asList("CZE", "AUT", "ITA");
-        when(mockRoutingService.findLandRoute("CZE", "ITA")).thenReturn(route);
+        when(mockRoutingService.findLandRoute("CZE", "ITA", RouteMetric.HOPS, RouteConstraints.NONE)).thenReturn(route);
 
-        ResponseEntity<?> response = sut.findLandRoute("CZE", "ITA");
+        ResponseEntity<?> response = sut.findLandRoute("CZE", "ITA", "hops", null, null, null, null, null);
         RouteResponseDto routeResponse = (RouteResponseDto) response.getBody();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(routeResponse.getRoute()).isEqualTo(route);
-        verify(mockRoutingService, times(1)).findLandRoute("CZE", "ITA");
+        verify(mockRoutingService, times(1)).findLandRoute("CZE", "ITA", RouteMetric.HOPS, RouteConstraints.NONE);
         verifyNoMoreInteractions(mockRoutingService);
     }
 
     @Test
-    public void testFindLandRoute_whenInvalidCountryException() {
-        when(sut.findLandRoute(any(), any())).thenThrow(new InvalidCountryException("Invalid country"));
+    void testFindLandRoute_whenDistanceMetric() throws IOException, InvalidCountryException, PathNotFoundException {
+        List<String> route = Arrays.asList("CZE", "AUT", "ITA");
+        when(mockRoutingService.findLandRoute("CZE", "ITA", RouteMetric.CAPITAL_DISTANCE, RouteConstraints.NONE)).thenReturn(route);
+
+        ResponseEntity<?> response = sut.findLandRoute("CZE", "ITA", "capital-distance", null, null, null, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(((RouteResponseDto) response.getBody()).getRoute()).isEqualTo(route);
+    }
+
+    @Test
+    void testFindLandRoute_whenAlternatives() throws IOException, InvalidCountryException, PathNotFoundException {
+        AlternativeRoutesResponseDto alternatives = new AlternativeRoutesResponseDto("hops", List.of(
+                new AlternativeRoutesResponseDto.AlternativeRoute(List.of("CZE", "AUT", "ITA"), 2),
+                new AlternativeRoutesResponseDto.AlternativeRoute(List.of("CZE", "DEU", "CHE", "ITA"), 3)), false);
+        when(mockRoutingService.findAlternativeRoutes("CZE", "ITA", RouteMetric.HOPS, 2)).thenReturn(alternatives);
+
+        ResponseEntity<?> response = sut.findLandRoute("CZE", "ITA", "hops", 2, null, null, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(alternatives);
+        verify(mockRoutingService, never()).findLandRoute(any(), any(), any(), any());
+    }
+
+    @Test
+    void testFindLandRoute_whenInvalidAlternatives() {
+        sut.setAlternativesMaxCount(5);
+
+        assertThat(sut.findLandRoute("CZE", "ITA", "hops", 0, null, null, null, null).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        ResponseEntity<?> response = sut.findLandRoute("CZE", "ITA", "hops", 6, null, null, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo("alternatives must be between 1 and 5: 6");
+        verifyNoInteractions(mockRoutingService);
+    }
+
+    @Test
+    void testFindLandRoute_whenConstrained() throws IOException, InvalidCountryException, PathNotFoundException {
+        List<String> route = Arrays.asList("CZE", "DEU", "CHE", "ITA");
+        RouteConstraints constraints = new RouteConstraints(List.of("AUT"), List.of("DEU"), Set.of(Region.Europe));
+        when(mockRoutingService.findLandRoute("CZE", "ITA", RouteMetric.HOPS, constraints)).thenReturn(route);
+
+        ResponseEntity<?> response = sut.findLandRoute("CZE", "ITA", "hops", null, List.of("AUT"), List.of("DEU"),
+                List.of("europe"), null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(((RouteResponseDto) response.getBody()).getRoute()).isEqualTo(route);
+    }
+
+    @Test
+    void testFindLandRoute_whenInvalidConstraints() {
+        ResponseEntity<?> response = sut.findLandRoute("CZE", "ITA", "hops", null, null, null, List.of("Atlantis"), null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo("unknown region: 'Atlantis'");
 
-        ResponseEntity<?> response = sut.findLandRoute("InvalidOrigin", "Destination");
+        response = sut.findLandRoute("CZE", "ITA", "hops", 3, List.of("AUT"), null, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo("alternatives can not be combined with avoid, via or regions");
+        verifyNoInteractions(mockRoutingService);
+    }
+
+    @Test
+    void testFindLandRoute_whenInvalidMetric() {
+        ResponseEntity<?> response = sut.findLandRoute("CZE", "ITA", "fuel", null, null, null, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo("metric must be 'hops', 'distance' or 'capital-distance': 'fuel'");
+        verifyNoInteractions(mockRoutingService);
+    }
+
+    @Test
+    public void testFindLandRoute_whenInvalidCountryException() throws Exception {
+        when(mockRoutingService.findLandRoute(any(), any(), any(), any())).thenThrow(new InvalidCountryException("Invalid country"));
+
+        ResponseEntity<?> response = sut.findLandRoute("InvalidOrigin", "Destination", "hops", null, null, null, null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         assertThat(response.getBody() instanceof String).isTrue();
@@ -58,10 +158,10 @@ class RoutingControllerTest {
     }
 
     @Test
-    public void testFindLandRoute_whenPathNotFoundException() {
-        when(sut.findLandRoute(any(), any())).thenThrow(new PathNotFoundException("Path not found"));
+    public void testFindLandRoute_whenPathNotFoundException() throws Exception {
+        when(mockRoutingService.findLandRoute(any(), any(), any(), any())).thenThrow(new PathNotFoundException("Path not found"));
 
-        ResponseEntity<?> response = sut.findLandRoute("Origin", "NotFoundDestination");
+        ResponseEntity<?> response = sut.findLandRoute("Origin", "NotFoundDestination", "hops", null, null, null, null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         assertThat(response.getBody() instanceof String).isTrue();
@@ -69,13 +169,188 @@ class RoutingControllerTest {
     }
 
     @Test
-    public void testFindLandRoute_whenIOException() {
-        when(sut.findLandRoute(any(), any())).thenThrow(new IOException("Internal error"));
+    public void testFindLandRoute_whenIOException() throws Exception {
+        when(mockRoutingService.findLandRoute(any(), any(), any(), any())).thenThrow(new IOException("Internal error"));
 
-        ResponseEntity<?> response = sut.findLandRoute("Origin", "Destination");
+        ResponseEntity<?> response = sut.findLandRoute("Origin", "Destination", "hops", null, null, null, null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
         assertThat(response.getBody() instanceof String).isTrue();
         assertThat(response.getBody()).isEqualTo("Internal error");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindLandRoutes_whenBatchBelowStreamingThreshold() throws IOException {
+        List<RoutePairDto> pairs = List.of(new RoutePairDto("CZE", "ITA"), new RoutePairDto("CZE", "GBR"));
+        List<BatchRouteResultDto> results = List.of(
+                BatchRouteResultDto.success("CZE", "ITA", List.of("CZE", "AUT", "ITA")),
+                BatchRouteResultDto.failure("CZE", "GBR", "Path not found"));
+        when(mockRoutingService.findLandRoutes(pairs)).thenReturn(results);
+
+        ResponseEntity<?> response = sut.findLandRoutes(pairs, new MockHttpServletResponse());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(results);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFindLandRoutes_whenBatchAboveStreamingThreshold() throws IOException {
+        List<RoutePairDto> pairs = List.of(new RoutePairDto("CZE", "ITA"), new RoutePairDto("CZE", "AUT"),
+                new RoutePairDto("CZE", "GBR"));
+        doAnswer(invocation -> {
+            ObjIntConsumer<BatchRouteResultDto> consumer = invocation.getArgument(1);
+            consumer.accept(BatchRouteResultDto.success("CZE", "AUT", List.of("CZE", "AUT")), 1);
+            consumer.accept(BatchRouteResultDto.failure("CZE", "GBR", "Path not found"), 2);
+            return null;
+        }).when(mockRoutingService).findLandRoutes(anyList(), any(ObjIntConsumer.class));
+
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        ResponseEntity<?> response = sut.findLandRoutes(pairs, servletResponse);
+
+        assertThat(response).isNull();
+        assertThat(servletResponse.getContentType()).isEqualTo("application/x-ndjson");
+        assertThat(servletResponse.getContentAsString()).isEqualTo("""
+                {"origin":"CZE","destination":"AUT","route":["CZE","AUT"]}
+                {"origin":"CZE","destination":"GBR","error":"Path not found"}
+                """);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFindLandRoutes_whenStreamingFails() throws IOException {
+        List<RoutePairDto> pairs = List.of(new RoutePairDto("CZE", "ITA"), new RoutePairDto("CZE", "AUT"),
+                new RoutePairDto("CZE", "GBR"));
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        doAnswer(invocation -> {
+            ObjIntConsumer<BatchRouteResultDto> consumer = invocation.getArgument(1);
+            consumer.accept(BatchRouteResultDto.success("CZE", "AUT", List.of("CZE", "AUT")), 1);
+            servletResponse.flushBuffer();
+            throw new UncheckedIOException(new IOException("Broken pipe"));
+        }).when(mockRoutingService).findLandRoutes(anyList(), any(ObjIntConsumer.class));
+
+        assertThatThrownBy(() -> sut.findLandRoutes(pairs, servletResponse))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("Broken pipe");
+        assertThat(servletResponse.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void testFindLandRoutes_whenBatchTooLarge() {
+        sut.setBatchMaxPairs(1);
+        List<RoutePairDto> pairs = List.of(new RoutePairDto("CZE", "ITA"), new RoutePairDto("CZE", "GBR"));
+
+        ResponseEntity<?> response = sut.findLandRoutes(pairs, new MockHttpServletResponse());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo("batch must not have more than 1 pairs: 2");
+        verifyNoInteractions(mockRoutingService);
+    }
+
+    @Test
+    void testFindRouteTree_whenMaxHops() throws IOException, InvalidCountryException {
+        when(mockRoutingService.findRouteTree("cze")).thenReturn(RouteTreeSearch.of(centralEurope(), 0));
+
+        ResponseEntity<?> response = sut.findRouteTree("cze", 1, "routes", webRequest(null));
+        RouteTreeResponseDto routeTree = (RouteTreeResponseDto) response.getBody();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"7-CZE-1-routes\"");
+        assertThat(routeTree.origin()).isEqualTo("CZE");
+        assertThat(routeTree.version()).isEqualTo(7);
+        assertThat(routeTree.routes()).containsExactly(entry("AUT", List.of("CZE", "AUT")));
+        assertThat(routeTree.parents()).isNull();
+    }
+
+    @Test
+    void testFindRouteTree_whenTreeView() throws IOException, InvalidCountryException {
+        when(mockRoutingService.findRouteTree("CZE")).thenReturn(RouteTreeSearch.of(centralEurope(), 0));
+
+        ResponseEntity<?> response = sut.findRouteTree("CZE", null, "tree", webRequest(null));
+        RouteTreeResponseDto routeTree = (RouteTreeResponseDto) response.getBody();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(routeTree.parents()).containsExactly(entry("AUT", "CZE"), entry("ITA", "AUT"));
+        assertThat(routeTree.routes()).isNull();
+    }
+
+    @Test
+    void testFindLandRoute_whenRendered() throws IOException {
+        sut.setRouteResponseRenderer(routeResponseRenderer());
+
+        ResponseEntity<?> response = sut.findLandRoute("CZE", "ITA", "hops", null, null, null, null, webRequest(null));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).matches("\"[0-9a-f]{8}\"");
+        assertThat(new String((byte[]) response.getBody(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"route\":[\"CZE\",\"AUT\",\"ITA\"]}");
+        verifyNoInteractions(mockRoutingService);
+    }
+
+    @Test
+    void testFindLandRoute_whenRenderedAndNotModified() throws IOException {
+        sut.setRouteResponseRenderer(routeResponseRenderer());
+        String etag = sut.findLandRoute("CZE", "ITA", "hops", null, null, null, null, webRequest(null))
+                .getHeaders().getETag();
+        ServletWebRequest webRequest = webRequest(etag);
+
+        ResponseEntity<?> response = sut.findLandRoute("CZE", "ITA", "hops", null, null, null, null, webRequest);
+
+        assertThat(response).isNull();
+        assertThat(webRequest.getResponse().getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+    }
+
+    @Test
+    void testFindRouteTree_whenNotModified() throws IOException, InvalidCountryException {
+        when(mockRoutingService.findRouteTree("CZE")).thenReturn(RouteTreeSearch.of(centralEurope(), 0));
+        ServletWebRequest webRequest = webRequest("\"7-CZE-all-routes\"");
+
+        ResponseEntity<?> response = sut.findRouteTree("CZE", null, "routes", webRequest);
+
+        assertThat(response).isNull();
+        assertThat(webRequest.getResponse().getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+    }
+
+    @Test
+    void testFindRouteTree_whenInvalidParameters() {
+        assertThat(sut.findRouteTree("CZE", -1, "routes", webRequest(null)).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(sut.findRouteTree("CZE", null, "graph", webRequest(null)).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(mockRoutingService);
+    }
+
+    @Test
+    void testFindRouteTree_whenInvalidCountryException() throws IOException, InvalidCountryException {
+        when(mockRoutingService.findRouteTree("XXX")).thenThrow(new InvalidCountryException("Invalid country"));
+
+        ResponseEntity<?> response = sut.findRouteTree("XXX", null, "routes", webRequest(null));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo("Invalid country");
+    }
+
+    private static RouteResponseRenderer routeResponseRenderer() throws IOException {
+        CountryService countryService = mock(CountryService.class);
+        when(countryService.getCountryGraph()).thenReturn(centralEurope());
+        RouteResponseRenderer routeResponseRenderer = new RouteResponseRenderer(countryService);
+        routeResponseRenderer.setRendering("lazy");
+        return routeResponseRenderer;
+    }
+
+    private static ServletWebRequest webRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/routing/CZE");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private static CountryGraph centralEurope() {
+        return new CountryGraph(List.of(
+                CountryDto.builder().cca3("CZE").region(Region.Europe).borders(List.of("AUT")).build(),
+                CountryDto.builder().cca3("AUT").region(Region.Europe).borders(List.of("CZE", "ITA")).build(),
+                CountryDto.builder().cca3("ITA").region(Region.Europe).borders(List.of("AUT")).build()),
+                7, Instant.now(), null, null);
+    }
+}
@@ -0,0 +1,80 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.AdmissionRejectedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdmissionServiceTest {
+
+    @Test
+    void shouldRejectClient_whenBurstSpent() throws AdmissionRejectedException {
+        AdmissionService sut = new AdmissionService(1, 3, 10, 1000, Duration.ofMillis(10), 100);
+
+        sut.release(sut.admit("client", 2));
+        sut.release(sut.admit("client", 1));
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class,
+                () -> sut.admit("client", 1));
+
+        assertThat(exception.getMessage()).isEqualTo("rate limit of client 'client' exceeded");
+        assertThat(exception.getRetryAfter()).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(1));
+        assertThat(sut.admit("other client", 3)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldChargeWholeCost_whenHigherThanBurst() throws AdmissionRejectedException {
+        AdmissionService sut = new AdmissionService(1, 3, 10, 1000, Duration.ofMillis(10), 100);
+
+        sut.release(sut.admit("client", 6));
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class,
+                () -> sut.admit("client", 1));
+
+        assertThat(exception.getRetryAfter()).isGreaterThan(Duration.ofSeconds(3));
+    }
+
+    @Test
+    void shouldKeepDebt_whenIdleLongerThanBurst() throws AdmissionRejectedException, InterruptedException {
+        AdmissionService sut = new AdmissionService(100, 2, 100, 100, Duration.ofMillis(10), 100);
+
+        sut.release(sut.admit("client", 100));
+        Thread.sleep(100);
+
+        assertThrows(AdmissionRejectedException.class, () -> sut.admit("client", 1));
+    }
+
+    @Test
+    void shouldCapCostInFlight_whenHigherThanInFlightLimit() throws AdmissionRejectedException {
+        AdmissionService sut = new AdmissionService(1, 3, 10, 1000, Duration.ofMillis(10), 100);
+
+        assertThat(sut.admit("client", 1000)).isEqualTo(10);
+        assertThrows(AdmissionRejectedException.class, () -> sut.admit("other client", 1));
+    }
+
+    @Test
+    void shouldRejectRequest_whenTooManyInFlight() throws AdmissionRejectedException {
+        AdmissionService sut = new AdmissionService(1000, 10, 4, 1000, Duration.ofMillis(10), 100);
+        int admittedCost = sut.admit("client", 4);
+
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class,
+                () -> sut.admit("other client", 1));
+
+        assertThat(exception.getMessage()).isEqualTo("too many requests in flight");
+        assertThat(exception.getRetryAfter()).isEqualTo(Duration.ofSeconds(1));
+        sut.release(admittedCost);
+        assertThat(sut.admit("other client", 1)).isOne();
+    }
+
+    @Test
+    void shouldGiveTokensBack_whenRejectedForTooManyInFlight() throws AdmissionRejectedException {
+        AdmissionService sut = new AdmissionService(1, 2, 2, 1000, Duration.ofMillis(10), 100);
+        int admittedCost = sut.admit("client", 2);
+        assertThrows(AdmissionRejectedException.class, () -> sut.admit("other client", 2));
+
+        sut.release(admittedCost);
+
+        assertThat(sut.admit("other client", 2)).isEqualTo(2);
+    }
+}
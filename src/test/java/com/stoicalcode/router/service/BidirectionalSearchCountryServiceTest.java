@@ -0,0 +1,101 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static com.stoicalcode.router.service.CompactBreadthFirstSearchCountryServiceTest.findLandRoute;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BidirectionalSearchCountryServiceTest {
+
+    private CountryService countryService;
+
+    private BidirectionalSearchCountryService sut;
+
+    @BeforeEach
+    void setUp() {
+        countryService = new CountryService();
+        countryService.setCountryDataUrl(getClass().getResource("/countries.json").toString());
+        sut = new BidirectionalSearchCountryService(countryService, new SearchBuffersPool());
+    }
+
+    @Test
+    void shouldFindValidLandRoute() throws InvalidCountryException, IOException, PathNotFoundException {
+        assertThat(sut.findLandRoute("CZE", "ITA")).isEqualTo(List.of("CZE", "AUT", "ITA"));
+        assertThat(sut.findLandRoute("CZE", "AUT")).isEqualTo(List.of("CZE", "AUT"));
+    }
+
+    @Test
+    void shouldThrowPathNotFoundException_whenCountriesNotConnected() {
+        assertThrows(PathNotFoundException.class, () -> sut.findLandRoute("GBR", "FRA"));
+    }
+
+    @Test
+    void shouldReturnSameRoute_whenCalledRepeatedly() throws InvalidCountryException, IOException, PathNotFoundException {
+        List<String> route = sut.findLandRoute("ZAF", "KOR");
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(sut.findLandRoute("ZAF", "KOR")).isEqualTo(route);
+        }
+    }
+
+    @Test
+    void shouldCrossOnlyListedBorders_whenBorderOneSided()
+            throws InvalidCountryException, IOException, PathNotFoundException {
+        // DDD lists a border with AAA that AAA does not list
+        CountryDataParser countryDataParser = mock(CountryDataParser.class);
+        when(countryDataParser.parse(any(InputStream.class))).thenReturn(List.of(
+                CountryDto.builder().cca3("AAA").borders(List.of("BBB", "EEE", "FFF")).build(),
+                CountryDto.builder().cca3("BBB").borders(List.of("AAA", "CCC")).build(),
+                CountryDto.builder().cca3("CCC").borders(List.of("BBB", "DDD")).build(),
+                CountryDto.builder().cca3("DDD").borders(List.of("CCC", "AAA")).build(),
+                CountryDto.builder().cca3("EEE").borders(List.of("AAA")).build(),
+                CountryDto.builder().cca3("FFF").borders(List.of("AAA")).build()));
+        countryService.setCountryDataParser(countryDataParser);
+
+        assertThat(sut.findLandRoute("AAA", "DDD")).isEqualTo(List.of("AAA", "BBB", "CCC", "DDD"));
+        assertThat(sut.findLandRoute("DDD", "AAA")).isEqualTo(List.of("DDD", "AAA"));
+    }
+
+    @Test
+    void shouldFindRoutesWithSameHopsAsBreadthFirstSearch() throws IOException {
+        CompactBreadthFirstSearchCountryService breadthFirstSearch =
+                new CompactBreadthFirstSearchCountryService(countryService, new SearchBuffersPool());
+        CountryGraph countryGraph = countryService.getCountryGraph();
+
+        for (int origin = 0; origin < countryGraph.size(); origin++) {
+            for (int destination = 0; destination < countryGraph.size(); destination++) {
+                String originCode = countryGraph.cca3Of(origin);
+                String destinationCode = countryGraph.cca3Of(destination);
+                Object expected = findLandRoute(breadthFirstSearch, originCode, destinationCode);
+                Object actual = findLandRoute(sut, originCode, destinationCode);
+
+                if (expected instanceof List<?> expectedRoute) {
+                    assertThat(actual).isInstanceOf(List.class);
+                    List<?> actualRoute = (List<?>) actual;
+                    assertThat(actualRoute).as("%s -> %s", originCode, destinationCode).hasSameSizeAs(expectedRoute);
+                    assertThat(actualRoute.get(0)).isEqualTo(originCode);
+                    assertThat(actualRoute.get(actualRoute.size() - 1)).isEqualTo(destinationCode);
+                    for (int i = 1; i < actualRoute.size(); i++) {
+                        assertThat(countryGraph.getCca3ToCountryMap().get(actualRoute.get(i - 1)).getBorders())
+                                .contains((String) actualRoute.get(i));
+                    }
+                } else {
+                    assertThat(actual).as("%s -> %s", originCode, destinationCode).isEqualTo(expected);
+                }
+            }
+        }
+    }
+}
@@ -71,4 +71,15 @@ class BreadthFirstSearchCountryServiceTest {
 
         assertThrows(PathNotFoundException.class, () -> sut.findLandRoute("C1", "C2"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldAvoidClosedBorder() throws InvalidCountryException, IOException, PathNotFoundException {
+        CountryService countryService = new CountryService();
+        countryService.setCountryDataUrl(getClass().getResource("/countries.json").toString());
+        BreadthFirstSearchCountryService breadthFirstSearch = new BreadthFirstSearchCountryService(countryService);
+
+        countryService.closeBorder("AUT", "ITA");
+
+        assertThat(breadthFirstSearch.findLandRoute("CZE", "ITA")).isEqualTo(List.of("CZE", "AUT", "SVN", "ITA"));
+    }
+}
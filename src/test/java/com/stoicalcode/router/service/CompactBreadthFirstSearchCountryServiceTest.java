@@ -0,0 +1,75 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.CountryGraph;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompactBreadthFirstSearchCountryServiceTest {
+
+    private CountryService countryService;
+
+    private CompactBreadthFirstSearchCountryService sut;
+
+    @BeforeEach
+    void setUp() {
+        countryService = new CountryService();
+        countryService.setCountryDataUrl(getClass().getResource("/countries.json").toString());
+        sut = new CompactBreadthFirstSearchCountryService(countryService, new SearchBuffersPool());
+    }
+
+    @Test
+    void shouldFindValidLandRoute() throws InvalidCountryException, IOException, PathNotFoundException {
+        assertThat(sut.findLandRoute("CZE", "ITA")).isEqualTo(List.of("CZE", "AUT", "ITA"));
+        assertThat(sut.findLandRoute("cze", "ItA")).isEqualTo(List.of("CZE", "AUT", "ITA"));
+    }
+
+    @Test
+    void shouldRecordSearchMetrics() throws InvalidCountryException, IOException, PathNotFoundException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        sut.setRoutingMetrics(new RoutingMetrics(meterRegistry));
+
+        sut.findLandRoute("CZE", "ITA");
+
+        assertThat(meterRegistry.get("router.route.search").tag("engine", "compact-bfs").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("router.route.search.expanded").summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get("router.route.build").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldThrowPathNotFoundException_whenCountriesNotConnected() {
+        assertThrows(PathNotFoundException.class, () -> sut.findLandRoute("GBR", "FRA"));
+    }
+
+    @Test
+    void shouldFindSameRoutesAsBreadthFirstSearch() throws IOException {
+        BreadthFirstSearchCountryService breadthFirstSearch = new BreadthFirstSearchCountryService(countryService);
+        CountryGraph countryGraph = countryService.getCountryGraph();
+
+        for (int origin = 0; origin < countryGraph.size(); origin++) {
+            for (int destination = 0; destination < countryGraph.size(); destination++) {
+                String originCode = countryGraph.cca3Of(origin);
+                String destinationCode = countryGraph.cca3Of(destination);
+                assertThat(findLandRoute(sut, originCode, destinationCode))
+                        .as("%s -> %s", originCode, destinationCode)
+                        .isEqualTo(findLandRoute(breadthFirstSearch, originCode, destinationCode));
+            }
+        }
+    }
+
+    static Object findLandRoute(SearchCountryService searchCountryService, String origin, String destination) {
+        try {
+            return searchCountryService.findLandRoute(origin, destination);
+        } catch (Exception e) {
+            return e.getClass();
+        }
+    }
+}
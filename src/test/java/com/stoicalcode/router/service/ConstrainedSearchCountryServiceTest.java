@@ -0,0 +1,153 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.Region;
+import com.stoicalcode.router.model.RouteConstraints;
+import com.stoicalcode.router.model.RouteMetric;
+import com.stoicalcode.router.model.RouteTree;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConstrainedSearchCountryServiceTest {
+
+    private CountryService countryService;
+
+    private WeightedSearchCountryService weightedSearchCountryService;
+
+    private ConstrainedSearchCountryService sut;
+
+    @BeforeEach
+    void setUp() {
+        countryService = new CountryService();
+        countryService.setCountryDataUrl(getClass().getResource("/countries.json").toString());
+        weightedSearchCountryService = new WeightedSearchCountryService(countryService);
+        sut = new ConstrainedSearchCountryService(countryService, new SearchBuffersPool(),
+                weightedSearchCountryService);
+    }
+
+    @Test
+    void shouldAvoidCountries() throws InvalidCountryException, IOException, PathNotFoundException {
+        for (RouteMetric metric : RouteMetric.values()) {
+            List<String> route = sut.findLandRoute("CZE", "ITA", metric, avoid("AUT"));
+
+            assertThat(route).as(metric.parameter()).startsWith("CZE").endsWith("ITA").doesNotContain("AUT");
+            assertBordering(route);
+        }
+        assertThat(sut.findLandRoute("cze", "ita", RouteMetric.HOPS, avoid("at"))).hasSize(4);
+    }
+
+    @Test
+    void shouldThrowPathNotFoundException_whenAvoidedCountryDisconnects() {
+        assertThrows(PathNotFoundException.class, () -> sut.findLandRoute("PRT", "FRA", RouteMetric.HOPS, avoid("ESP")));
+        assertThrows(PathNotFoundException.class,
+                () -> sut.findLandRoute("PRT", "FRA", RouteMetric.DISTANCE, avoid("ESP")));
+        assertThrows(PathNotFoundException.class, () -> sut.findLandRoute("PRT", "FRA", RouteMetric.HOPS, avoid("PRT")));
+    }
+
+    @Test
+    void shouldComposeViaRouteFromRouteTrees() throws InvalidCountryException, IOException, PathNotFoundException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        List<String> expected = new ArrayList<>(RouteTreeSearch.of(countryGraph, countryGraph.ordinalOf("CZE"))
+                .routeTo(countryGraph.ordinalOf("POL")));
+        List<String> secondLeg = RouteTreeSearch.of(countryGraph, countryGraph.ordinalOf("POL"))
+                .routeTo(countryGraph.ordinalOf("ITA"));
+        expected.addAll(secondLeg.subList(1, secondLeg.size()));
+
+        List<String> route = sut.findLandRoute("CZE", "ITA", RouteMetric.HOPS,
+                new RouteConstraints(null, List.of("POL"), null));
+
+        assertThat(route).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldPassThroughWaypointsInOrder() throws InvalidCountryException, IOException, PathNotFoundException {
+        for (RouteMetric metric : RouteMetric.values()) {
+            List<String> route = sut.findLandRoute("ESP", "AUT", metric,
+                    new RouteConstraints(List.of("DEU"), List.of("BEL", "POL"), null));
+
+            assertThat(route).as(metric.parameter()).startsWith("ESP").endsWith("AUT").doesNotContain("DEU");
+            assertThat(route.indexOf("BEL")).isPositive().isLessThan(route.indexOf("POL"));
+            assertBordering(route);
+        }
+    }
+
+    @Test
+    void shouldOnlyCrossAllowedRegions() throws InvalidCountryException, IOException, PathNotFoundException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        RouteConstraints europeAndAsia = new RouteConstraints(null, null, Set.of(Region.Europe, Region.Asia));
+
+        List<String> route = sut.findLandRoute("ESP", "CHN", RouteMetric.DISTANCE, europeAndAsia);
+
+        assertThat(route).startsWith("ESP").endsWith("CHN");
+        assertThat(route).allMatch(cca3 -> Set.of(Region.Europe, Region.Asia)
+                .contains(countryGraph.getCca3ToCountryMap().get(cca3).getRegion()));
+        assertThrows(PathNotFoundException.class, () -> sut.findLandRoute("ESP", "CHN", RouteMetric.HOPS,
+                new RouteConstraints(null, null, Set.of(Region.Europe))));
+    }
+
+    @Test
+    void shouldFindSameHopsWithBreadthFirstAndWeightedSearch_whenAvoidingCountries() throws IOException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        Random random = new Random(42);
+        weightedSearchCountryService = new WeightedSearchCountryService(countryService,
+                Map.of(RouteMetric.DISTANCE, (graph, from, to) -> 1));
+        sut = new ConstrainedSearchCountryService(countryService, new SearchBuffersPool(), weightedSearchCountryService);
+
+        for (int i = 0; i < 500; i++) {
+            String origin = countryGraph.cca3Of(random.nextInt(countryGraph.size()));
+            String destination = countryGraph.cca3Of(random.nextInt(countryGraph.size()));
+            List<String> avoided = List.of(countryGraph.cca3Of(random.nextInt(countryGraph.size())),
+                    countryGraph.cca3Of(random.nextInt(countryGraph.size())));
+            RouteConstraints constraints = new RouteConstraints(avoided, null, null);
+
+            Object bfsRoute = findLandRoute(origin, destination, RouteMetric.HOPS, constraints);
+            Object weightedRoute = findLandRoute(origin, destination, RouteMetric.DISTANCE, constraints);
+
+            if (bfsRoute instanceof List<?> route) {
+                assertThat(route).as("%s -> %s avoiding %s", origin, destination, avoided)
+                        .noneMatch(avoided::contains)
+                        .hasSameSizeAs((List<?>) weightedRoute);
+            } else {
+                assertThat(weightedRoute).isEqualTo(bfsRoute);
+            }
+        }
+    }
+
+    @Test
+    void shouldThrowInvalidCountryException_whenConstraintCountryInvalid() {
+        assertThrows(InvalidCountryException.class, () -> sut.findLandRoute("CZE", "ITA", RouteMetric.HOPS, avoid("XXX")));
+        assertThrows(InvalidCountryException.class, () -> sut.findLandRoute("CZE", "ITA", RouteMetric.HOPS,
+                new RouteConstraints(null, List.of("XXX"), null)));
+    }
+
+    private Object findLandRoute(String origin, String destination, RouteMetric metric, RouteConstraints constraints) {
+        try {
+            return sut.findLandRoute(origin, destination, metric, constraints);
+        } catch (Exception e) {
+            return e.getClass();
+        }
+    }
+
+    private void assertBordering(List<String> route) throws IOException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        for (int i = 1; i < route.size(); i++) {
+            assertThat(countryGraph.getCca3ToCountryMap().get(route.get(i - 1)).getBorders()).contains(route.get(i));
+        }
+    }
+
+    private static RouteConstraints avoid(String... countries) {
+        return new RouteConstraints(List.of(countries), null, null);
+    }
+}
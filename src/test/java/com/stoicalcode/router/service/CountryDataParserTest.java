@@ -0,0 +1,72 @@
+package com.stoicalcode.router.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.NameDto;
+import com.stoicalcode.router.model.Region;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CountryDataParserTest {
+
+    private final CountryDataParser sut = new CountryDataParser();
+
+    @Test
+    void shouldParseSameCountriesAsObjectMapper() throws IOException {
+        CountryDto[] expected;
+        try (InputStream inputStream = getClass().getResourceAsStream("/countries.json")) {
+            expected = new ObjectMapper().readValue(inputStream, CountryDto[].class);
+        }
+
+        List<CountryDto> actual;
+        try (InputStream inputStream = getClass().getResourceAsStream("/countries.json")) {
+            actual = sut.parse(inputStream);
+        }
+
+        assertThat(actual).containsExactly(expected);
+        for (int i = 0; i < expected.length; i++) {
+            assertThat(actual.get(i).getBorders()).isEqualTo(expected[i].getBorders());
+        }
+    }
+
+    @Test
+    void shouldSkipUnknownFieldsAndShareCodes() throws IOException {
+        List<CountryDto> countries = parse("""
+                [
+                  {"name": {"common": "Spain", "official": "Kingdom of Spain", "nativeName": {"spa": {"common": "España"}}},
+                   "translations": {"ces": {"official": "Španělské království"}}, "tld": [".es"], "independent": true,
+                   "cca3": "ESP", "region": "Europe", "borders": ["AND", "FRA"], "latlng": [40.0, -4.0]},
+                  {"cca3": "AND", "region": "Europe", "borders": ["ESP", "FRA"], "name": null},
+                  {"cca3": "FRA", "region": "Europe"}
+                ]
+                """);
+
+        assertThat(countries).extracting(CountryDto::getCca3).containsExactly("ESP", "AND", "FRA");
+        assertThat(countries.get(0).getName()).isEqualTo(NameDto.builder().common("Spain").official("Kingdom of Spain").build());
+        assertThat(countries.get(0).getRegion()).isEqualTo(Region.Europe);
+        assertThat(countries.get(1).getName()).isNull();
+        assertThat(countries.get(2).getBorders()).isNull();
+        assertThat(countries.get(0).getBorders().get(0)).isSameAs(countries.get(1).getCca3());
+        assertThat(countries.get(1).getBorders().get(0)).isSameAs(countries.get(0).getCca3());
+    }
+
+    @Test
+    void shouldThrowJsonParseException_whenInvalidCountryData() {
+        assertThrows(JsonParseException.class, () -> parse("{\"cca3\": \"ESP\"}"));
+        assertThrows(JsonParseException.class, () -> parse("[\"ESP\"]"));
+        assertThrows(JsonParseException.class, () -> parse("[{\"cca3\": \"ESP\", \"region\": \"Atlantis\"}]"));
+    }
+
+    private List<CountryDto> parse(String json) throws IOException {
+        return sut.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
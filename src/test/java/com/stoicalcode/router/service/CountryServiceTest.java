@@ -1,25 +1,41 @@
 package com.stoicalcode.router.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stoicalcode.router.exception.InvalidCountryException;
 import com.stoicalcode.router.exception.PathNotFoundException;
 import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.CountryGraphOverrides;
 import com.stoicalcode.router.model.CountryValidationResponseDto;
 import com.stoicalcode.router.model.NameDto;
 import com.stoicalcode.router.model.Region;
+import com.stoicalcode.router.model.RouteTree;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.ArgumentsProvider;
 import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
-import java.net.URL;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -29,19 +45,23 @@ import static org.mockito.Mockito.*;
 
 class CountryServiceTest {
 
-    private static final String COUNTRY_DATA_URL = "https://dummyurl.com/";
-
     private CountryService sut;
 
     @Mock
-    private ObjectMapper mockObjectMapper;
+    private CountryDataParser mockCountryDataParser;
+
+    @TempDir
+    private Path tempDir;
+
+    private Path countryDataFile;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws IOException {
         MockitoAnnotations.openMocks(this);
+        countryDataFile = Files.writeString(tempDir.resolve("countries.json"), "[]");
         sut = new CountryService();
-        sut.setObjectMapper(mockObjectMapper);
-        sut.setCountryDataUrl(COUNTRY_DATA_URL);
+        sut.setCountryDataParser(mockCountryDataParser);
+        sut.setCountryDataUrl(countryDataFile.toUri().toString());
     }
 
     @Test
@@ -56,9 +76,9 @@ class CountryServiceTest {
                 .cca3(origin).name(usaName).borders(List.of("CAN", "MEX")).region(Region.Americas).build();
         CountryDto destinationCountry = CountryDto.builder()
                 .cca3(destination).name(canadaName).borders(List.of("USA")).region(Region.Americas).build();
-        CountryDto[] countries = {originCountry, destinationCountry};
+        List<CountryDto> countries = List.of(originCountry, destinationCountry);
 
-        when(mockObjectMapper.readValue(any(URL.class), eq(CountryDto[].class))).thenReturn(countries);
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(countries);
 
         CountryValidationResponseDto response = sut.validateCountries(origin, destination);
 
@@ -80,10 +100,10 @@ class CountryServiceTest {
         CountryDto originCountry = CountryDto.builder()
                 .cca3("USA").name(usaName).borders(List.of("CAN", "MEX")).region(Region.Americas).build();
         CountryDto destinationCountry = CountryDto.builder()
-                .cca3("CAN").name(canadaName).borders(List.of("USA")).region(Region.Americas).build();
-        CountryDto[] countries = {originCountry, destinationCountry};
+                .cca3("CAN").cca2("CA").name(canadaName).borders(List.of("USA")).region(Region.Americas).build();
+        List<CountryDto> countries = List.of(originCountry, destinationCountry);
 
-        when(mockObjectMapper.readValue(any(URL.class), eq(CountryDto[].class))).thenReturn(countries);
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(countries);
 
         InvalidCountryException exception = assertThrows(InvalidCountryException.class,
                 () -> sut.validateCountries(origin, destination));
@@ -99,7 +119,8 @@ class CountryServiceTest {
                     Arguments.of("USA", "INVALID_CCA3_CAN", "invalid destination country: 'INVALID_CCA3_CAN'"),
                     Arguments.of("INVALID_CCA3_USA", "INVALID_CCA3_CAN",
                             "invalid origin country: 'INVALID_CCA3_USA', invalid destination country: 'INVALID_CCA3_CAN'"),
-                    Arguments.of("CAN", "CAN", "origin and destination countries are the same: 'CAN'")
+                    Arguments.of("CAN", "CAN", "origin and destination countries are the same: 'CAN'"),
+                    Arguments.of("can", "CA", "origin and destination countries are the same: 'CA'")
             );
         }
     }
@@ -116,9 +137,9 @@ class CountryServiceTest {
                 .cca3(origin).name(usaName).borders(List.of("CAN", "MEX")).region(Region.Americas).build();
         CountryDto destinationCountry = CountryDto.builder()
                 .cca3(destination).name(italyName).borders(Collections.emptyList()).region(Region.Europe).build();
-        CountryDto[] countries = {originCountry, destinationCountry};
+        List<CountryDto> countries = List.of(originCountry, destinationCountry);
 
-        when(mockObjectMapper.readValue(any(URL.class), eq(CountryDto[].class))).thenReturn(countries);
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(countries);
 
         PathNotFoundException exception = assertThrows(PathNotFoundException.class,
                 () -> sut.validateCountries(origin, destination));
@@ -139,9 +160,9 @@ class CountryServiceTest {
                 .cca3(origin).name(usaName).borders(List.of("MEX", "CAN")).region(Region.Americas).build();
         CountryDto destinationCountry = CountryDto.builder()
                 .cca3(destination).name(saintLuciaName).borders(Collections.emptyList()).region(Region.Americas).build();
-        CountryDto[] countries = {originCountry, destinationCountry};
+        List<CountryDto> countries = List.of(originCountry, destinationCountry);
 
-        when(mockObjectMapper.readValue(any(URL.class), eq(CountryDto[].class))).thenReturn(countries);
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(countries);
 
         PathNotFoundException exception = assertThrows(PathNotFoundException.class,
                 () -> sut.validateCountries(origin, destination));
@@ -149,5 +170,337 @@ class CountryServiceTest {
         String expectedMessage = "countries has no borders";
         assertThat(exception.getMessage()).contains(expectedMessage);
     }
-}
 
+    @Test
+    void shouldThrowPathNotFoundException_whenBordersNotConnected() throws IOException {
+        CountryDto unitedKingdom = CountryDto.builder()
+                .cca3("GBR").borders(List.of("IRL")).region(Region.Europe).build();
+        CountryDto ireland = CountryDto.builder()
+                .cca3("IRL").borders(List.of("GBR")).region(Region.Europe).build();
+        CountryDto france = CountryDto.builder()
+                .cca3("FRA").borders(List.of("ESP")).region(Region.Europe).build();
+        CountryDto spain = CountryDto.builder()
+                .cca3("ESP").borders(List.of("FRA")).region(Region.Europe).build();
+        List<CountryDto> countries = List.of(unitedKingdom, ireland, france, spain);
+
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(countries);
+
+        PathNotFoundException exception = assertThrows(PathNotFoundException.class,
+                () -> sut.validateCountries("GBR", "FRA"));
+
+        assertThat(exception.getMessage()).isEqualTo("origin and destination not connected by land: 'GBR', 'FRA'");
+    }
+
+    @Test
+    void shouldGetValidResponse_whenBorderCrossesRegions() throws IOException, InvalidCountryException, PathNotFoundException {
+        CountryDto indonesia = CountryDto.builder()
+                .cca3("IDN").borders(List.of("PNG")).region(Region.Asia).build();
+        CountryDto papuaNewGuinea = CountryDto.builder()
+                .cca3("PNG").borders(List.of("IDN")).region(Region.Oceania).build();
+        List<CountryDto> countries = List.of(indonesia, papuaNewGuinea);
+
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(countries);
+
+        CountryValidationResponseDto response = sut.validateCountries("IDN", "PNG");
+
+        assertThat(response.originCountry()).isEqualTo(indonesia);
+        assertThat(response.destinationCountry()).isEqualTo(papuaNewGuinea);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"USA, CAN", "usa, can", "US, CA", "us, Ca", "840, 124", "USA, 124"})
+    void shouldGetValidResponse_whenCountriesGivenByAnyCode(String origin, String destination)
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(usaAndCanada());
+
+        CountryValidationResponseDto response = sut.validateCountries(origin, destination);
+
+        assertThat(response.originCountry().getCca3()).isEqualTo("USA");
+        assertThat(response.destinationCountry().getCca3()).isEqualTo("CAN");
+    }
+
+    @Test
+    void shouldLoadCountryDataOnlyOnce_whenValidatingSeveralTimes() throws IOException, InvalidCountryException, PathNotFoundException {
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(usaAndCanada());
+
+        sut.validateCountries("USA", "CAN");
+        sut.validateCountries("CAN", "USA");
+
+        verify(mockCountryDataParser, times(1)).parse(any(InputStream.class));
+        assertThat(sut.getCountryGraph().getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFetchCountryDataOnceOnFetcherThread_whenConcurrentFirstRequests() throws Exception {
+        Set<String> fetchingThreads = ConcurrentHashMap.newKeySet();
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenAnswer(invocation -> {
+            fetchingThreads.add(Thread.currentThread().getName());
+            Thread.sleep(100);
+            return usaAndCanada();
+        });
+
+        ExecutorService requests = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CountryGraph>> loaded = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                loaded.add(requests.submit(sut::getCountryGraph));
+            }
+            for (Future<CountryGraph> graph : loaded) {
+                assertThat(graph.get()).isSameAs(loaded.get(0).get());
+            }
+        } finally {
+            requests.shutdownNow();
+        }
+
+        verify(mockCountryDataParser, times(1)).parse(any(InputStream.class));
+        assertThat(fetchingThreads).containsExactly("country-data-fetcher");
+    }
+
+    @Test
+    void shouldFailEveryRequest_whenShutDown() {
+        sut.shutdown();
+
+        assertThrows(IOException.class, sut::getCountryGraph);
+        assertThrows(IOException.class, sut::getCountryGraph);
+    }
+
+    @Test
+    void shouldStopWaiting_whenFetchTimesOut() throws IOException {
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return usaAndCanada();
+        });
+        sut.setCountryDataFetchTimeout(Duration.ofMillis(100));
+
+        assertThrows(IOException.class, sut::getCountryGraph);
+        sut.shutdown();
+    }
+
+    @Test
+    void shouldKeepLastGoodSnapshot_whenRefreshFails() throws IOException {
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(usaAndCanada());
+        CountryGraph loaded = sut.getCountryGraph();
+
+        Files.delete(countryDataFile);
+        sut.refreshCountryGraph();
+
+        assertThat(sut.getCountryGraph()).isSameAs(loaded);
+    }
+
+    @Test
+    void shouldSwapSnapshot_whenRefreshSucceeds() throws IOException {
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(usaAndCanada());
+        CountryGraph loaded = sut.getCountryGraph();
+
+        sut.refreshCountryGraph();
+
+        CountryGraph refreshed = sut.getCountryGraph();
+        assertThat(refreshed).isNotSameAs(loaded);
+        assertThat(refreshed.getVersion()).isEqualTo(loaded.getVersion() + 1);
+    }
+
+    @Test
+    void shouldBuildDerivedDataBeforeSwap_whenRefreshSucceeds() throws IOException {
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(usaAndCanada());
+        CountryGraph loaded = sut.getCountryGraph();
+        List<CountryGraph> currentWhileBuilding = new ArrayList<>();
+        sut.addDerivedDataBuilder(countryGraph -> {
+            try {
+                currentWhileBuilding.add(sut.getCountryGraph());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            countryGraph.derive("USA", graph -> RouteTreeSearch.search(graph, graph.ordinalOf("USA")));
+        });
+        sut.addDerivedDataBuilder(countryGraph -> {
+            throw new IllegalStateException("failed");
+        });
+
+        sut.refreshCountryGraph();
+
+        CountryGraph refreshed = sut.getCountryGraph();
+        assertThat(currentWhileBuilding).containsExactly(loaded);
+        assertThat(refreshed.isConnected(refreshed.ordinalOf("USA"), refreshed.ordinalOf("CAN"))).isTrue();
+        assertThat(refreshed.<RouteTree>derive("USA", graph -> null)).isNotNull();
+    }
+
+    @Test
+    void shouldSkipParsing_whenCountryDataNotModified() throws IOException {
+        AtomicInteger fullResponses = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/countries.json", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                fullResponses.incrementAndGet();
+                exchange.getResponseHeaders().add("ETag", "\"v1\"");
+                exchange.sendResponseHeaders(200, 2);
+                exchange.getResponseBody().write("[]".getBytes());
+            }
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(usaAndCanada());
+            sut.setCountryDataUrl("http://localhost:" + server.getAddress().getPort() + "/countries.json");
+            CountryGraph loaded = sut.getCountryGraph();
+
+            sut.refreshCountryGraph();
+
+            assertThat(sut.getCountryGraph()).isSameAs(loaded);
+            assertThat(loaded.getEtag()).isEqualTo("\"v1\"");
+            assertThat(fullResponses.get()).isEqualTo(1);
+            verify(mockCountryDataParser, times(1)).parse(any(InputStream.class));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void shouldLoadCountryDataFromSnapshotFile_whenFresh() throws IOException {
+        Path snapshotFile = tempDir.resolve("countries.snapshot");
+        CountrySnapshotFile.write(new CountryGraph(usaAndCanada(), 1, Instant.now(), "\"v1\"", null),
+                Instant.now(), snapshotFile);
+        sut.setCountrySnapshotFile(snapshotFile.toString());
+
+        CountryGraph loaded = sut.getCountryGraph();
+
+        assertThat(loaded.getCountries()).isEqualTo(usaAndCanada());
+        assertThat(loaded.getEtag()).isEqualTo("\"v1\"");
+        verifyNoInteractions(mockCountryDataParser);
+    }
+
+    @Test
+    void shouldLoadCountryDataFromUrl_whenSnapshotFileStale() throws IOException {
+        Path snapshotFile = tempDir.resolve("countries.snapshot");
+        Instant createdAt = Instant.now().minus(Duration.ofDays(2));
+        CountrySnapshotFile.write(new CountryGraph(List.of(), 1, Instant.now(), null, null), createdAt, snapshotFile);
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(usaAndCanada());
+        sut.setCountrySnapshotFile(snapshotFile.toString());
+
+        CountryGraph loaded = sut.getCountryGraph();
+
+        assertThat(loaded.getCountries()).isEqualTo(usaAndCanada());
+        assertThat(CountrySnapshotFile.read(snapshotFile).countries()).isEqualTo(usaAndCanada());
+    }
+
+    @Test
+    void shouldWriteSnapshotFile_whenMissing() throws IOException {
+        Path snapshotFile = tempDir.resolve("countries.snapshot");
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(usaAndCanada());
+        sut.setCountrySnapshotFile(snapshotFile.toString());
+
+        sut.getCountryGraph();
+
+        assertThat(CountrySnapshotFile.read(snapshotFile).countries()).isEqualTo(usaAndCanada());
+    }
+
+    @Test
+    void shouldRejectRoute_whenBorderClosed() throws IOException, InvalidCountryException {
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(usaAndCanada());
+        CountryGraph loaded = sut.getCountryGraph();
+
+        CountryGraph updated = sut.closeBorder("usa", "CA");
+
+        assertThat(sut.getCountryGraph()).isSameAs(updated);
+        assertThat(updated.getVersion()).isGreaterThan(loaded.getVersion());
+        assertThat(updated.getOverrides().closedBorders()).containsExactly(new CountryGraphOverrides.Border("CAN", "USA"));
+        assertThat(updated.countryAt(updated.ordinalOf("USA")).getBorders()).isEmpty();
+        assertThat(loaded.countryAt(loaded.ordinalOf("USA")).getBorders()).containsExactly("CAN");
+        assertThrows(PathNotFoundException.class, () -> sut.validateCountries("USA", "CAN"));
+    }
+
+    @Test
+    void shouldRestoreRoute_whenClosedBorderOpened() throws IOException, InvalidCountryException, PathNotFoundException {
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(usaAndCanada());
+        sut.closeBorder("USA", "CAN");
+
+        CountryGraph updated = sut.openBorder("CAN", "USA");
+
+        assertThat(updated.getOverrides().closedBorders()).isEmpty();
+        assertThat(updated.countryAt(updated.ordinalOf("USA")).getBorders()).containsExactly("CAN");
+        assertThat(sut.validateCountries("USA", "CAN").destinationCountry().getCca3()).isEqualTo("CAN");
+    }
+
+    @Test
+    void shouldRejectRoute_whenCountryUnavailable() throws IOException, InvalidCountryException, PathNotFoundException {
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(usaAndCanada());
+
+        sut.setCountryUnavailable("CAN", true);
+        assertThrows(PathNotFoundException.class, () -> sut.validateCountries("USA", "CAN"));
+
+        sut.setCountryUnavailable("CAN", false);
+        assertThat(sut.validateCountries("USA", "CAN").destinationCountry().getCca3()).isEqualTo("CAN");
+    }
+
+    @Test
+    void shouldKeepOverrides_whenRefreshSucceeds() throws IOException, InvalidCountryException {
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(usaAndCanada());
+        CountryGraph updated = sut.closeBorder("USA", "CAN");
+
+        sut.refreshCountryGraph();
+
+        CountryGraph refreshed = sut.getCountryGraph();
+        assertThat(refreshed.getVersion()).isGreaterThan(updated.getVersion());
+        assertThat(refreshed.getOverrides()).isEqualTo(updated.getOverrides());
+        assertThrows(PathNotFoundException.class, () -> sut.validateCountries("USA", "CAN"));
+    }
+
+    @Test
+    void shouldThrowInvalidCountryException_whenOverridingUnknownCountry() throws IOException {
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(usaAndCanada());
+
+        assertThrows(InvalidCountryException.class, () -> sut.closeBorder("USA", "XXX"));
+        assertThrows(InvalidCountryException.class, () -> sut.openBorder("USA", "US"));
+        assertThrows(InvalidCountryException.class, () -> sut.setCountryUnavailable("XXX", true));
+        assertThat(sut.getCountryGraph().getOverrides().isEmpty()).isTrue();
+    }
+
+    @Test
+    void shouldRecomputeOnlyAffectedComponents_whenOverridesApplied() throws IOException, InvalidCountryException {
+        List<CountryDto> countries = new ArrayList<>(usaAndCanada());
+        countries.add(CountryDto.builder().cca3("FRA").borders(List.of("ESP")).region(Region.Europe).build());
+        countries.add(CountryDto.builder().cca3("ESP").borders(List.of("FRA")).region(Region.Europe).build());
+        when(mockCountryDataParser.parse(any(InputStream.class))).thenReturn(countries);
+        List<Object> events = new ArrayList<>();
+        sut.setEventPublisher(events::add);
+        CountryGraph loaded = sut.getCountryGraph();
+        int france = loaded.ordinalOf("FRA");
+        int usa = loaded.ordinalOf("USA");
+        AtomicInteger searches = new AtomicInteger();
+        loaded.derive("FRA", graph -> search(graph, france, searches));
+        loaded.derive("USA", graph -> search(graph, usa, searches));
+
+        CountryGraph updated = sut.closeBorder("USA", "CAN");
+
+        assertThat(updated.componentCount()).isEqualTo(3);
+        assertThat(updated.isConnected(usa, updated.ordinalOf("CAN"))).isFalse();
+        assertThat(updated.isConnected(france, updated.ordinalOf("ESP"))).isTrue();
+        assertThat(updated.countryAt(france)).isSameAs(loaded.countryAt(france));
+        CountryGraphUpdatedEvent updatedEvent = events.stream()
+                .filter(CountryGraphUpdatedEvent.class::isInstance)
+                .map(CountryGraphUpdatedEvent.class::cast)
+                .findFirst().orElseThrow();
+        assertThat(updatedEvent.affectedCountries().stream().boxed().toList())
+                .containsExactlyInAnyOrder(usa, updated.ordinalOf("CAN"));
+
+        assertThat(updated.derive("FRA", graph -> search(graph, france, searches)).getCountryGraph()).isSameAs(updated);
+        assertThat(searches).hasValue(2);
+        assertThat(updated.derive("USA", graph -> search(graph, usa, searches)).reachedCount()).isOne();
+        assertThat(searches).hasValue(3);
+    }
+
+    private static RouteTree search(CountryGraph countryGraph, int source, AtomicInteger searches) {
+        searches.incrementAndGet();
+        return RouteTreeSearch.search(countryGraph, source);
+    }
+
+    private static List<CountryDto> usaAndCanada() {
+        CountryDto usa = CountryDto.builder()
+                .cca3("USA").cca2("US").ccn3("840").borders(List.of("CAN")).region(Region.Americas).build();
+        CountryDto canada = CountryDto.builder()
+                .cca3("CAN").cca2("CA").ccn3("124").borders(List.of("USA")).region(Region.Americas).build();
+        return List.of(usa, canada);
+    }
+}
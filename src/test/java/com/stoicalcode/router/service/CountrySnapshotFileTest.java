@@ -0,0 +1,84 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CountrySnapshotFileTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2023-08-01T10:15:30Z");
+
+    @TempDir
+    private Path tempDir;
+
+    private Path snapshotFile;
+
+    private CountryGraph countryGraph;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        snapshotFile = tempDir.resolve("countries.snapshot");
+        try (InputStream inputStream = getClass().getResourceAsStream("/countries.json")) {
+            countryGraph = new CountryGraph(new CountryDataParser().parse(inputStream), 1, Instant.now(),
+                    "\"etag\"", null);
+        }
+    }
+
+    @Test
+    void shouldReadSameCountryGraph_whenWritten() throws IOException {
+        CountrySnapshotFile.write(countryGraph, CREATED_AT, snapshotFile);
+
+        CountrySnapshotFile.Contents contents = CountrySnapshotFile.read(snapshotFile);
+        CountryGraph read = new CountryGraph(contents.countries(), 2, Instant.now(), contents.etag(),
+                contents.lastModified());
+
+        assertThat(contents.createdAt()).isEqualTo(CREATED_AT);
+        assertThat(contents.etag()).isEqualTo("\"etag\"");
+        assertThat(contents.lastModified()).isNull();
+        assertThat(read.getCountries()).isEqualTo(countryGraph.getCountries());
+        assertThat(read.edgeCount()).isEqualTo(countryGraph.edgeCount());
+        for (int i = 0; i < countryGraph.size(); i++) {
+            assertThat(read.countryAt(i).getBorders()).isEqualTo(bordersOf(countryGraph, i));
+            assertThat(read.componentOf(i)).isEqualTo(countryGraph.componentOf(i));
+        }
+    }
+
+    @Test
+    void shouldThrowIOException_whenFileCorrupted() throws IOException {
+        CountrySnapshotFile.write(countryGraph, CREATED_AT, snapshotFile);
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(snapshotFile, bytes);
+
+        IOException exception = assertThrows(IOException.class, () -> CountrySnapshotFile.read(snapshotFile));
+
+        assertThat(exception.getMessage()).startsWith("Corrupted country snapshot file");
+    }
+
+    @Test
+    void shouldThrowIOException_whenNotSnapshotFile() throws IOException {
+        Files.writeString(snapshotFile, "[{\"cca3\": \"ESP\"}]");
+
+        assertThrows(IOException.class, () -> CountrySnapshotFile.read(snapshotFile));
+    }
+
+    private static List<String> bordersOf(CountryGraph countryGraph, int ordinal) {
+        return IntStream.range(countryGraph.firstNeighborIndex(ordinal),
+                        countryGraph.lastNeighborIndex(ordinal))
+                .mapToObj(i -> countryGraph.cca3Of(countryGraph.neighborAt(i)))
+                .toList();
+    }
+}
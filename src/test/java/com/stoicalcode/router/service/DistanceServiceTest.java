@@ -0,0 +1,141 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.DistanceOracleStatsDto;
+import com.stoicalcode.router.model.DistanceResponseDto;
+import com.stoicalcode.router.model.RouteTree;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DistanceServiceTest {
+
+    private CountryService countryService;
+
+    private DistanceService sut;
+
+    @BeforeEach
+    void setUp() {
+        countryService = new CountryService();
+        countryService.setCountryDataUrl(getClass().getResource("/countries.json").toString());
+        sut = new DistanceService(countryService);
+    }
+
+    @Test
+    void shouldFindDistance() throws InvalidCountryException, IOException, PathNotFoundException {
+        assertThat(sut.findDistance("cz", "380")).isEqualTo(new DistanceResponseDto("CZE", "ITA", 2));
+    }
+
+    @Test
+    void shouldThrowPathNotFoundException_whenCountriesNotConnected() {
+        assertThrows(PathNotFoundException.class, () -> sut.findDistance("GBR", "FRA"));
+    }
+
+    @Test
+    void shouldThrowInvalidCountryException_whenInvalidCountry() {
+        assertThrows(InvalidCountryException.class, () -> sut.findDistance("XXX", "FRA"));
+    }
+
+    @Test
+    void shouldFindSameHopsAsBreadthFirstSearch() throws IOException {
+        assertSameHopsAsBreadthFirstSearch();
+    }
+
+    @Test
+    void shouldFindSameHopsAsBreadthFirstSearch_whenBorderClosed()
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        assertThat(sut.findDistance("CZE", "ITA").hops()).isEqualTo(2);
+
+        countryService.closeBorder("AUT", "ITA");
+
+        assertThat(sut.findDistance("CZE", "ITA").hops()).isEqualTo(3);
+        assertSameHopsAsBreadthFirstSearch();
+    }
+
+    private void assertSameHopsAsBreadthFirstSearch() throws IOException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        DistanceOracle distanceOracle = countryGraph.derive(DistanceOracle.class,
+                graph -> DistanceOracle.build(graph, ForkJoinPool.commonPool()));
+
+        for (int origin = 0; origin < countryGraph.size(); origin++) {
+            RouteTree routeTree = RouteTreeSearch.search(countryGraph, origin);
+            for (int destination = 0; destination < countryGraph.size(); destination++) {
+                assertThat(distanceOracle.hops(origin, destination))
+                        .as("%s -> %s", countryGraph.cca3Of(origin), countryGraph.cca3Of(destination))
+                        .isEqualTo(routeTree.hopsTo(destination));
+            }
+        }
+    }
+
+    @Test
+    void shouldStoreOnlyPairsOfSameComponent() throws IOException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        long[] componentSizes = new long[countryGraph.componentCount()];
+        for (int country = 0; country < countryGraph.size(); country++) {
+            componentSizes[countryGraph.componentOf(country)]++;
+        }
+
+        DistanceOracleStatsDto stats = sut.getStats();
+
+        assertThat(stats.version()).isEqualTo(countryGraph.getVersion());
+        assertThat(stats.storedPairs())
+                .isEqualTo(Arrays.stream(componentSizes).filter(size -> size > 1).map(size -> size * size).sum())
+                .isLessThan((long) countryGraph.size() * countryGraph.size() / 2);
+    }
+
+    @Test
+    void shouldFindHops_whenRoutesLong() {
+        CountryGraph countryGraph = chainGraph(20);
+
+        DistanceOracle distanceOracle = DistanceOracle.build(countryGraph, ForkJoinPool.commonPool());
+
+        assertThat(distanceOracle.storedPairs()).isEqualTo(400);
+        assertThat(distanceOracle.hops(0, 19)).isEqualTo(19);
+        assertThat(distanceOracle.hops(12, 3)).isEqualTo(9);
+        assertThat(distanceOracle.hops(20, 20)).isZero();
+        assertThat(distanceOracle.hops(20, 0)).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldFindHops_whenRoutesLongerThanByte() {
+        CountryGraph countryGraph = chainGraph(300);
+
+        DistanceOracle distanceOracle = DistanceOracle.build(countryGraph, ForkJoinPool.commonPool());
+
+        assertThat(distanceOracle.storedPairs()).isEqualTo(90000);
+        assertThat(distanceOracle.hops(0, 299)).isEqualTo(299);
+        assertThat(distanceOracle.hops(0, 255)).isEqualTo(255);
+        assertThat(distanceOracle.hops(300, 0)).isEqualTo(-1);
+    }
+
+    /**
+     * Returns a graph of {@code length} countries bordering the next one, and an island.
+     */
+    private static CountryGraph chainGraph(int length) {
+        List<CountryDto> chain = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            List<String> borders = new ArrayList<>();
+            if (i > 0) {
+                borders.add("C" + (i - 1));
+            }
+            if (i < length - 1) {
+                borders.add("C" + (i + 1));
+            }
+            chain.add(CountryDto.builder().cca3("C" + i).borders(borders).build());
+        }
+        chain.add(CountryDto.builder().cca3("ISL").build());
+        return new CountryGraph(chain, 1, Instant.now(), null, null);
+    }
+}
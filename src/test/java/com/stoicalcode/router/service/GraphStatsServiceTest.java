@@ -0,0 +1,105 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.CountryStatsDto;
+import com.stoicalcode.router.model.GraphStatsDto;
+import com.stoicalcode.router.model.RouteTree;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GraphStatsServiceTest {
+
+    private CountryService countryService;
+
+    private GraphStatsService sut;
+
+    @BeforeEach
+    void setUp() {
+        countryService = new CountryService();
+        countryService.setCountryDataUrl(getClass().getResource("/countries.json").toString());
+        sut = new GraphStatsService(countryService);
+    }
+
+    @Test
+    void shouldComputeDegreeEccentricityAndBetweenness() {
+        // A - B, A - C, B - D, C - D, D - E, and F without borders
+        CountryGraph countryGraph = new CountryGraph(List.of(
+                country("A", "B", "C"), country("B", "A", "D"), country("C", "A", "D"),
+                country("D", "B", "C", "E"), country("E", "D"), country("F")), 1, Instant.now(), null, null);
+
+        GraphStats graphStats = GraphStats.compute(countryGraph, ForkJoinPool.commonPool());
+
+        assertThat(List.of(0, 1, 2, 3, 4, 5)).map(graphStats::degree).containsExactly(2, 2, 2, 3, 1, 0);
+        assertThat(List.of(0, 1, 2, 3, 4, 5)).map(graphStats::eccentricity).containsExactly(3, 2, 2, 2, 3, 0);
+        assertThat(List.of(0, 1, 2, 3, 4, 5)).map(graphStats::betweenness)
+                .containsExactly(1.0, 2.0, 2.0, 7.0, 0.0, 0.0);
+        assertThat(graphStats.diameter()).isEqualTo(3);
+        assertThat(graphStats.diameterOrigin()).isZero();
+        assertThat(graphStats.diameterDestination()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldFindDiameter() throws IOException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        int diameter = 0;
+        for (int origin = 0; origin < countryGraph.size(); origin++) {
+            RouteTree routeTree = RouteTreeSearch.search(countryGraph, origin);
+            diameter = Math.max(diameter, routeTree.hopsTo(routeTree.reachedAt(routeTree.reachedCount() - 1)));
+        }
+
+        GraphStatsDto graphStats = sut.getGraphStats(3);
+
+        assertThat(graphStats.diameter()).isEqualTo(diameter);
+        assertThat(graphStats.diameterRoute()).hasSize(diameter + 1);
+        assertThat(graphStats.topBetweenness()).hasSize(3)
+                .isSortedAccordingTo((country1, country2) ->
+                        Double.compare(country2.betweenness(), country1.betweenness()));
+        assertThat(sut.getGraphStats(3)).isEqualTo(graphStats);
+    }
+
+    @Test
+    void shouldReturnCountryStats() throws IOException, InvalidCountryException {
+        CountryStatsDto czechia = sut.getCountryStats("cz");
+
+        assertThat(czechia.country()).isEqualTo("CZE");
+        assertThat(czechia.degree()).isEqualTo(4);
+        assertThat(sut.getCountryStats()).hasSize(countryService.getCountryGraph().size()).contains(czechia);
+    }
+
+    @Test
+    void shouldThrowInvalidCountryException_whenInvalidCountry() {
+        assertThrows(InvalidCountryException.class, () -> sut.getCountryStats("XXX"));
+    }
+
+    @Test
+    void shouldComputeSameStats_whenBorderClosed() throws IOException, InvalidCountryException {
+        sut.getGraphStats(10);
+
+        countryService.closeBorder("AUT", "ITA");
+
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        GraphStats computed = GraphStats.compute(countryGraph, ForkJoinPool.commonPool());
+        for (CountryStatsDto countryStats : sut.getCountryStats()) {
+            int ordinal = countryGraph.ordinalOf(countryStats.country());
+            assertThat(countryStats.degree()).isEqualTo(computed.degree(ordinal));
+            assertThat(countryStats.eccentricity()).isEqualTo(computed.eccentricity(ordinal));
+            assertThat(countryStats.betweenness()).isCloseTo(computed.betweenness(ordinal), within(1e-6));
+        }
+        assertThat(sut.getGraphStats(0).diameter()).isEqualTo(computed.diameter());
+    }
+
+    private static CountryDto country(String cca3, String... borders) {
+        return CountryDto.builder().cca3(cca3).borders(List.of(borders)).build();
+    }
+}
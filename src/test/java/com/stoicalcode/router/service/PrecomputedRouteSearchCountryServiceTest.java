@@ -0,0 +1,80 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.CountryGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.stoicalcode.router.service.CompactBreadthFirstSearchCountryServiceTest.findLandRoute;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PrecomputedRouteSearchCountryServiceTest {
+
+    private CountryService countryService;
+
+    private PrecomputedRouteSearchCountryService sut;
+
+    @BeforeEach
+    void setUp() {
+        countryService = new CountryService();
+        countryService.setCountryDataUrl(getClass().getResource("/countries.json").toString());
+        sut = new PrecomputedRouteSearchCountryService(countryService);
+    }
+
+    @Test
+    void shouldFindValidLandRoute() throws InvalidCountryException, IOException, PathNotFoundException {
+        assertThat(sut.findLandRoute("CZE", "ITA")).isEqualTo(List.of("CZE", "AUT", "ITA"));
+    }
+
+    @Test
+    void shouldThrowPathNotFoundException_whenCountriesNotConnected() {
+        assertThrows(PathNotFoundException.class, () -> sut.findLandRoute("GBR", "FRA"));
+    }
+
+    @Test
+    void shouldFindSameRoutesAsBreadthFirstSearch() throws IOException {
+        assertSameRoutesAsBreadthFirstSearch();
+    }
+
+    @Test
+    void shouldFindSameRoutesAsBreadthFirstSearch_whenBorderClosed()
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        assertThat(sut.findLandRoute("CZE", "ITA")).isEqualTo(List.of("CZE", "AUT", "ITA"));
+
+        countryService.closeBorder("AUT", "ITA");
+
+        assertThat(sut.findLandRoute("CZE", "ITA")).isEqualTo(List.of("CZE", "AUT", "SVN", "ITA"));
+        assertSameRoutesAsBreadthFirstSearch();
+    }
+
+    private void assertSameRoutesAsBreadthFirstSearch() throws IOException {
+        CompactBreadthFirstSearchCountryService breadthFirstSearch =
+                new CompactBreadthFirstSearchCountryService(countryService, new SearchBuffersPool());
+        CountryGraph countryGraph = countryService.getCountryGraph();
+
+        for (int origin = 0; origin < countryGraph.size(); origin++) {
+            for (int destination = 0; destination < countryGraph.size(); destination++) {
+                String originCode = countryGraph.cca3Of(origin);
+                String destinationCode = countryGraph.cca3Of(destination);
+                assertThat(findLandRoute(sut, originCode, destinationCode))
+                        .as("%s -> %s", originCode, destinationCode)
+                        .isEqualTo(findLandRoute(breadthFirstSearch, originCode, destinationCode));
+            }
+        }
+    }
+
+    @Test
+    void shouldStoreRoutingTableInOneBytePerPair() throws IOException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+
+        RoutingTable routingTable = RoutingTable.build(countryGraph, ForkJoinPool.commonPool());
+
+        assertThat(routingTable.memoryFootprintBytes()).isEqualTo((long) countryGraph.size() * countryGraph.size());
+    }
+}
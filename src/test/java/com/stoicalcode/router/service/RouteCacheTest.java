@@ -0,0 +1,157 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.CountryGraphOverrides;
+import com.stoicalcode.router.model.RouteCacheStatsDto;
+import com.stoicalcode.router.model.RouteMetric;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RouteCacheTest {
+
+    private final AtomicInteger searches = new AtomicInteger();
+
+    @Test
+    void shouldCountHitsAndMisses() throws IOException, InvalidCountryException, PathNotFoundException {
+        RouteCache sut = new RouteCache(100, Duration.ofMinutes(10));
+
+        sut.findLandRoute(graph(1), RouteMetric.HOPS, "CZE", "ITA", this::czeItaRoute);
+        sut.findLandRoute(graph(1), RouteMetric.HOPS, "cze", "ita", this::czeItaRoute);
+        sut.findLandRoute(graph(2), RouteMetric.HOPS, "CZE", "ITA", this::czeItaRoute);
+
+        RouteCacheStatsDto stats = sut.getStats();
+        assertThat(searches).hasValue(2);
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldShareEntry_whenCountryCodesAreAliases()
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        RouteCache sut = new RouteCache(100, null);
+        CountryGraph countryGraph = graph(1);
+
+        sut.findLandRoute(countryGraph, RouteMetric.HOPS, "CZE", "ITA", this::czeItaRoute);
+        sut.findLandRoute(countryGraph, RouteMetric.HOPS, "cz", "it", this::czeItaRoute);
+        sut.findLandRoute(countryGraph, RouteMetric.HOPS, "203", "380", this::czeItaRoute);
+
+        assertThat(searches).hasValue(1);
+        assertThat(sut.getStats().size()).isOne();
+    }
+
+    @Test
+    void shouldCacheInvalidCountries() throws IOException, InvalidCountryException, PathNotFoundException {
+        RouteCache sut = new RouteCache(100, null);
+        RouteCache.RouteSearch invalidCountry = () -> {
+            searches.incrementAndGet();
+            throw new InvalidCountryException("invalid origin country: 'XXX'");
+        };
+        CountryGraph countryGraph = graph(1);
+
+        assertThrows(InvalidCountryException.class,
+                () -> sut.findLandRoute(countryGraph, RouteMetric.HOPS, "XXX", "ITA", invalidCountry));
+        assertThrows(InvalidCountryException.class,
+                () -> sut.findLandRoute(countryGraph, RouteMetric.HOPS, "XXX", "ITA", invalidCountry));
+
+        assertThat(searches).hasValue(1);
+    }
+
+    @Test
+    void shouldNotCacheIOExceptions() {
+        RouteCache sut = new RouteCache(100, null);
+        RouteCache.RouteSearch failingSearch = () -> {
+            searches.incrementAndGet();
+            throw new IOException("Internal error");
+        };
+        CountryGraph countryGraph = graph(1);
+
+        assertThrows(IOException.class,
+                () -> sut.findLandRoute(countryGraph, RouteMetric.HOPS, "CZE", "ITA", failingSearch));
+        assertThrows(IOException.class,
+                () -> sut.findLandRoute(countryGraph, RouteMetric.HOPS, "CZE", "ITA", failingSearch));
+
+        assertThat(searches).hasValue(2);
+        assertThat(sut.getStats().size()).isZero();
+    }
+
+    @Test
+    void shouldEvict_whenFull() throws IOException, InvalidCountryException, PathNotFoundException {
+        RouteCache sut = new RouteCache(10, null);
+
+        for (int version = 0; version < 100; version++) {
+            sut.findLandRoute(graph(version), RouteMetric.HOPS, "CZE", "ITA", this::czeItaRoute);
+        }
+        sut.cleanUp();
+
+        assertThat(sut.getStats().size()).isLessThanOrEqualTo(10);
+        assertThat(sut.getStats().evictions()).isGreaterThanOrEqualTo(90);
+    }
+
+    @Test
+    void shouldCarryUnaffectedRoutesOver_whenCountryGraphUpdated()
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        RouteCache sut = new RouteCache(100, null);
+        CountryGraph previous = new CountryGraph(List.of(country("CZE", "AUT"), country("AUT", "CZE", "ITA"),
+                country("ITA", "AUT"), country("USA", "CAN"), country("CAN", "USA")), 1, Instant.now(), null, null);
+        CountryGraph.Update update = previous.withOverrides(previous,
+                CountryGraphOverrides.NONE.withBorderClosed("USA", "CAN"), 2);
+        sut.findLandRoute(previous, RouteMetric.HOPS, "CZE", "ITA", this::czeItaRoute);
+        sut.findLandRoute(previous, RouteMetric.HOPS, "USA", "CAN", this::czeItaRoute);
+
+        sut.onCountryGraphUpdated(new CountryGraphUpdatedEvent(previous, update.countryGraph(),
+                update.affectedCountries()));
+        sut.findLandRoute(update.countryGraph(), RouteMetric.HOPS, "CZE", "ITA", this::czeItaRoute);
+        sut.findLandRoute(update.countryGraph(), RouteMetric.HOPS, "USA", "CAN", this::czeItaRoute);
+
+        assertThat(searches).hasValue(3);
+    }
+
+    @Test
+    void shouldFormatCachedFailure_withCountryCodesOfRequest()
+            throws IOException, InvalidCountryException, PathNotFoundException {
+        RouteCache sut = new RouteCache(100, null);
+        CountryGraph countryGraph = graph(1);
+        RouteCache.RouteSearch notConnected = () -> {
+            searches.incrementAndGet();
+            throw new PathNotFoundException("origin and destination not connected by land: 'CZ', 'GB'");
+        };
+
+        PathNotFoundException first = assertThrows(PathNotFoundException.class,
+                () -> sut.findLandRoute(countryGraph, RouteMetric.HOPS, "cz", "gb", notConnected));
+        PathNotFoundException second = assertThrows(PathNotFoundException.class,
+                () -> sut.findLandRoute(countryGraph, RouteMetric.HOPS, "CZE", "GBR", notConnected));
+
+        assertThat(searches).hasValue(1);
+        assertThat(first.getMessage()).isEqualTo("origin and destination not connected by land: 'CZ', 'GB'");
+        assertThat(second.getMessage()).isEqualTo("origin and destination not connected by land: 'CZE', 'GBR'");
+    }
+
+    private static CountryGraph graph(long version) {
+        return new CountryGraph(List.of(
+                CountryDto.builder().cca3("CZE").cca2("CZ").ccn3("203").borders(List.of("AUT")).build(),
+                CountryDto.builder().cca3("AUT").cca2("AT").ccn3("040").borders(List.of("CZE", "ITA")).build(),
+                CountryDto.builder().cca3("ITA").cca2("IT").ccn3("380").borders(List.of("AUT")).build(),
+                CountryDto.builder().cca3("GBR").cca2("GB").ccn3("826").build()),
+                version, Instant.now(), null, null);
+    }
+
+    private static CountryDto country(String cca3, String... borders) {
+        return CountryDto.builder().cca3(cca3).borders(List.of(borders)).build();
+    }
+
+    private List<String> czeItaRoute() {
+        searches.incrementAndGet();
+        return List.of("CZE", "AUT", "ITA");
+    }
+}
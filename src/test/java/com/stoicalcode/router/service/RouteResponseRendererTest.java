@@ -0,0 +1,88 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteResponseRendererTest {
+
+    private CountryService countryService;
+
+    private RouteResponseRenderer sut;
+
+    @BeforeEach
+    void setUp() {
+        countryService = new CountryService();
+        countryService.setCountryDataUrl(getClass().getResource("/countries.json").toString());
+        sut = new RouteResponseRenderer(countryService);
+    }
+
+    @Test
+    void shouldRenderNothing_whenDisabled() throws IOException {
+        assertThat(sut.findRenderedRoute("CZE", "ITA")).isNull();
+    }
+
+    @Test
+    void shouldRenderRouteOnce_whenLazy() throws IOException {
+        sut.setRendering("lazy");
+
+        RouteResponseRenderer.RenderedRoute renderedRoute = sut.findRenderedRoute("CZE", "ITA");
+
+        assertThat(new String(renderedRoute.body(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"route\":[\"CZE\",\"AUT\",\"ITA\"]}");
+        assertThat(renderedRoute.etag()).matches("\"[0-9a-f]{8}\"");
+        assertThat(renderedRoute.countries()).isEqualTo(3);
+        assertThat(sut.findRenderedRoute("cz", "380")).isSameAs(renderedRoute);
+    }
+
+    @Test
+    void shouldRecordRouteMetrics_whenRendered() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        sut.setRoutingMetrics(new RoutingMetrics(meterRegistry));
+        sut.setRendering("lazy");
+
+        sut.findRenderedRoute("CZE", "ITA");
+        sut.findRenderedRoute("CZE", "ITA");
+        sut.findRenderedRoute("XXX", "ITA");
+
+        assertThat(meterRegistry.get("router.route.search").tag("engine", "rendered").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("router.route.validation").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("router.route.length").summary().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldLeaveInvalidPairsToRouteSearch() throws IOException {
+        sut.setRendering("lazy");
+
+        assertThat(sut.findRenderedRoute("XXX", "ITA")).isNull();
+        assertThat(sut.findRenderedRoute("ITA", "ITA")).isNull();
+        assertThat(sut.findRenderedRoute("GBR", "FRA")).isNull();
+    }
+
+    @Test
+    void shouldRenderAllRoutes_whenEager() throws IOException {
+        sut.setRendering("eager");
+        countryService.getCountryGraph();
+
+        assertThat(sut.findRenderedRoute("CZE", "ITA")).isNotNull();
+        assertThat(sut.findRenderedRoute("ZAF", "MYS")).isNotNull();
+    }
+
+    @Test
+    void shouldKeepRenderedRoutes_whenOverridesDoNotAffectThem() throws IOException, InvalidCountryException {
+        sut.setRendering("lazy");
+        RouteResponseRenderer.RenderedRoute usaToMexico = sut.findRenderedRoute("USA", "MEX");
+        RouteResponseRenderer.RenderedRoute czechiaToItaly = sut.findRenderedRoute("CZE", "ITA");
+
+        countryService.closeBorder("AUT", "ITA");
+
+        assertThat(sut.findRenderedRoute("USA", "MEX")).isSameAs(usaToMexico);
+        assertThat(sut.findRenderedRoute("CZE", "ITA").etag()).isNotEqualTo(czechiaToItaly.etag());
+    }
+}
@@ -2,6 +2,12 @@ package com.stoicalcode.router.service;
 
 import com.stoicalcode.router.exception.InvalidCountryException;
 import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.BatchRouteResultDto;
+import com.stoicalcode.router.model.CountryDto;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.RoutePairDto;
+import com.stoicalcode.router.model.RouteTree;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +15,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -25,11 +33,17 @@ class RoutingServiceTest {
     @Mock
     private SearchCountryService mockSearchCountryService;
 
+    @Mock
+    private CountryService mockCountryService;
+
+    private CountryService countryService;
+
     private RoutingService sut;
 
     @BeforeEach
-    void setUp() {
-        sut = new RoutingService(mockSearchCountryService);
+    void setUp() throws IOException {
+        sut = routingService(mockCountryService);
+        lenient().when(mockCountryService.getCountryGraph()).thenReturn(countryGraph(1));
     }
 
     @Test
@@ -62,4 +76,146 @@ class RoutingServiceTest {
         verify(mockSearchCountryService, times(1)).findLandRoute(ORIGIN, DESTINATION);
         verifyNoMoreInteractions(mockSearchCountryService);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldSearchLandRouteOnlyOnce_whenSamePairAndVersion() throws IOException, InvalidCountryException, PathNotFoundException {
+        when(mockSearchCountryService.findLandRoute(any(), any())).thenReturn(List.of("CZE", "AUT", "ITA"));
+
+        sut.findLandRoute(ORIGIN, DESTINATION);
+        List<String> actual = sut.findLandRoute("cze", "ita");
+
+        assertThat(actual).isEqualTo(List.of("CZE", "AUT", "ITA"));
+        verify(mockSearchCountryService, times(1)).findLandRoute(ORIGIN, DESTINATION);
+        verifyNoMoreInteractions(mockSearchCountryService);
+    }
+
+    @Test
+    void shouldSearchLandRouteAgain_whenCountryDataRefreshed() throws IOException, InvalidCountryException, PathNotFoundException {
+        when(mockSearchCountryService.findLandRoute(ORIGIN, DESTINATION)).thenReturn(List.of("CZE", "AUT", "ITA"));
+
+        sut.findLandRoute(ORIGIN, DESTINATION);
+        when(mockCountryService.getCountryGraph()).thenReturn(countryGraph(2));
+        sut.findLandRoute(ORIGIN, DESTINATION);
+
+        verify(mockSearchCountryService, times(2)).findLandRoute(ORIGIN, DESTINATION);
+    }
+
+    @Test
+    void shouldCacheNegativeResults() throws IOException, InvalidCountryException, PathNotFoundException {
+        when(mockSearchCountryService.findLandRoute(ORIGIN, "GBR")).thenThrow(new PathNotFoundException("Path not found"));
+
+        assertThrows(PathNotFoundException.class, () -> sut.findLandRoute(ORIGIN, "GBR"));
+        PathNotFoundException cached = assertThrows(PathNotFoundException.class, () -> sut.findLandRoute(ORIGIN, "GBR"));
+
+        assertThat(cached.getMessage()).isEqualTo("Path not found");
+        verify(mockSearchCountryService, times(1)).findLandRoute(ORIGIN, "GBR");
+    }
+
+    @Test
+    void shouldRecordRouteLengthAndFailures() throws IOException, InvalidCountryException, PathNotFoundException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        sut.setRoutingMetrics(new RoutingMetrics(meterRegistry));
+        when(mockSearchCountryService.findLandRoute(ORIGIN, DESTINATION)).thenReturn(List.of("CZE", "AUT", "ITA"));
+        when(mockSearchCountryService.findLandRoute(ORIGIN, "GBR")).thenThrow(new PathNotFoundException("Path not found"));
+
+        sut.findLandRoute(ORIGIN, DESTINATION);
+        assertThrows(PathNotFoundException.class, () -> sut.findLandRoute(ORIGIN, "GBR"));
+        assertThrows(PathNotFoundException.class, () -> sut.findLandRoute(ORIGIN, "GBR"));
+
+        assertThat(meterRegistry.get("router.route.length").summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get("router.route.failures").tag("error", "path_not_found").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("router.route.failures").tag("error", "invalid_country").counter().count())
+                .isZero();
+    }
+
+    @Test
+    void shouldFindLandRoutesInPairsOrder() throws IOException {
+        RoutingService routingService = withCountryData();
+        List<RoutePairDto> pairs = List.of(
+                new RoutePairDto("CZE", "ITA"),
+                new RoutePairDto("ESP", "CZE"),
+                new RoutePairDto("cze", "ESP"),
+                new RoutePairDto("CZE", "GBR"),
+                new RoutePairDto("XXX", "ITA"));
+
+        List<BatchRouteResultDto> actual = routingService.findLandRoutes(pairs);
+
+        assertThat(actual).containsExactly(
+                BatchRouteResultDto.success("CZE", "ITA", List.of("CZE", "AUT", "ITA")),
+                BatchRouteResultDto.success("ESP", "CZE", List.of("ESP", "FRA", "DEU", "CZE")),
+                BatchRouteResultDto.success("cze", "ESP", List.of("CZE", "DEU", "FRA", "ESP")),
+                BatchRouteResultDto.failure("CZE", "GBR",
+                        "origin and destination not connected by land: 'CZE', 'GBR'"),
+                BatchRouteResultDto.failure("XXX", "ITA", "invalid origin country: 'XXX'"));
+    }
+
+    @Test
+    void shouldFindSameLandRoutesAsSearchCountryService() throws IOException {
+        RoutingService routingService = withCountryData();
+        BreadthFirstSearchCountryService breadthFirstSearch = new BreadthFirstSearchCountryService(countryService);
+        List<RoutePairDto> pairs = new ArrayList<>();
+        for (String origin : List.of("PRT", "ZAF", "MYS", "CAN")) {
+            for (String destination : List.of("VNM", "KOR", "ZAF", "PAN", "CHN")) {
+                pairs.add(new RoutePairDto(origin, destination));
+            }
+        }
+
+        List<BatchRouteResultDto> actual = routingService.findLandRoutes(pairs);
+
+        for (int i = 0; i < pairs.size(); i++) {
+            RoutePairDto pair = pairs.get(i);
+            Object expected = CompactBreadthFirstSearchCountryServiceTest.findLandRoute(
+                    breadthFirstSearch, pair.origin(), pair.destination());
+            if (expected instanceof List<?>) {
+                assertThat(actual.get(i).route()).isEqualTo(expected);
+            } else {
+                assertThat(actual.get(i).error()).isNotNull();
+            }
+        }
+    }
+
+    @Test
+    void shouldFindRouteTreeWithSameRoutesAsLandRoutes() throws IOException, InvalidCountryException {
+        RoutingService routingService = withCountryData();
+        CompactBreadthFirstSearchCountryService breadthFirstSearch =
+                new CompactBreadthFirstSearchCountryService(countryService, new SearchBuffersPool());
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        RouteTree routeTree = routingService.findRouteTree("cze");
+
+        assertThat(routingService.findRouteTree("CZE")).isSameAs(routeTree);
+        assertThat(routeTree.routeTo(countryGraph.ordinalOf("GBR"))).isNull();
+        for (int i = 1; i < routeTree.reachedCount(); i++) {
+            String destination = countryGraph.cca3Of(routeTree.reachedAt(i));
+            assertThat(routeTree.routeTo(routeTree.reachedAt(i))).isEqualTo(
+                    CompactBreadthFirstSearchCountryServiceTest.findLandRoute(breadthFirstSearch, "CZE", destination));
+            assertThat(routeTree.hopsTo(routeTree.reachedAt(i)))
+                    .isGreaterThanOrEqualTo(routeTree.hopsTo(routeTree.reachedAt(i - 1)));
+        }
+    }
+
+    @Test
+    void shouldThrowInvalidCountryException_whenRouteTreeOriginInvalid() {
+        RoutingService routingService = withCountryData();
+
+        assertThrows(InvalidCountryException.class, () -> routingService.findRouteTree("XXX"));
+    }
+
+    private RoutingService withCountryData() {
+        countryService = new CountryService();
+        countryService.setCountryDataUrl(getClass().getResource("/countries.json").toString());
+        return routingService(countryService);
+    }
+
+    private RoutingService routingService(CountryService countryService) {
+        WeightedSearchCountryService weightedSearchCountryService = new WeightedSearchCountryService(countryService);
+        SearchBuffersPool searchBuffersPool = new SearchBuffersPool();
+        return new RoutingService(mockSearchCountryService, weightedSearchCountryService,
+                new ConstrainedSearchCountryService(countryService, searchBuffersPool, weightedSearchCountryService),
+                countryService, searchBuffersPool, new RouteCache(100, null));
+    }
+
+    private static CountryGraph countryGraph(long version) {
+        return new CountryGraph(List.of(CountryDto.builder().cca3(ORIGIN).build()), version, Instant.now(), null, null);
+    }
+}
@@ -0,0 +1,112 @@
+package com.stoicalcode.router.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SingleFlight<String, String> sut = new SingleFlight<>();
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void shouldRunCallOnce_whenConcurrentCallsWithSameKey() throws Exception {
+        List<Future<String>> results = submit("CZE-ITA", () -> {
+            calls.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return "CZE-AUT-ITA";
+        });
+        awaitCallersWaiting();
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get()).isEqualTo("CZE-AUT-ITA");
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(sut.coalescedCalls()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void shouldShareException_whenCallFails() throws Exception {
+        List<Future<String>> results = submit("CZE-ITA", () -> {
+            calls.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            throw new IOException("Internal error");
+        });
+        awaitCallersWaiting();
+        release.countDown();
+
+        for (Future<String> result : results) {
+            ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+            assertThat(exception.getCause()).isInstanceOf(IOException.class).hasMessage("Internal error");
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void shouldRunCallAgain_whenPreviousCallCompleted() throws IOException {
+        sut.execute("CZE-ITA", () -> "route " + calls.incrementAndGet());
+
+        assertThat(sut.execute("CZE-ITA", () -> "route " + calls.incrementAndGet())).isEqualTo("route 2");
+        assertThat(sut.coalescedCalls()).isZero();
+    }
+
+    @Test
+    void shouldNotWait_whenDifferentKeys() throws IOException {
+        submit("CZE-ITA", () -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "CZE-AUT-ITA";
+        });
+
+        assertThat(sut.execute("ESP-FRA", () -> "ESP-FRA")).isEqualTo("ESP-FRA");
+        release.countDown();
+    }
+
+    private List<Future<String>> submit(String key, InterruptibleCall call) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> sut.execute(key, () -> {
+                try {
+                    return call.call();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            })));
+        }
+        return results;
+    }
+
+    private void awaitCallersWaiting() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls.get() + sut.coalescedCalls() < CALLERS && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    @FunctionalInterface
+    private interface InterruptibleCall {
+        String call() throws IOException, InterruptedException;
+    }
+}
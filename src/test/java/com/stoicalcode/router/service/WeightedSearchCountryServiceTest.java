@@ -0,0 +1,253 @@
+package com.stoicalcode.router.service;
+
+import com.stoicalcode.router.exception.InvalidCountryException;
+import com.stoicalcode.router.exception.PathNotFoundException;
+import com.stoicalcode.router.model.AlternativeRoutesResponseDto;
+import com.stoicalcode.router.model.CountryGraph;
+import com.stoicalcode.router.model.RouteMetric;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WeightedSearchCountryServiceTest {
+
+    private CountryService countryService;
+
+    private WeightedSearchCountryService sut;
+
+    @BeforeEach
+    void setUp() {
+        countryService = new CountryService();
+        countryService.setCountryDataUrl(getClass().getResource("/countries.json").toString());
+        sut = new WeightedSearchCountryService(countryService);
+    }
+
+    @Test
+    void shouldFindShortestDistanceRoute() throws InvalidCountryException, IOException, PathNotFoundException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        List<String> hopsRoute = sut.findLandRoute("PRT", "POL", RouteMetric.HOPS);
+        List<String> distanceRoute = sut.findLandRoute("prt", "pol", RouteMetric.DISTANCE);
+
+        assertThat(hopsRoute).hasSize(5);
+        assertThat(distanceRoute).startsWith("PRT").endsWith("POL");
+        assertThat(routeCost(countryGraph, distanceRoute, GreatCircleDistance.CENTROIDS))
+                .isLessThanOrEqualTo(routeCost(countryGraph, hopsRoute, GreatCircleDistance.CENTROIDS));
+    }
+
+    @Test
+    void shouldFindRoutesWithFewestHops_whenHopsMetric() throws IOException {
+        BreadthFirstSearchCountryService breadthFirstSearch = new BreadthFirstSearchCountryService(countryService);
+        CountryGraph countryGraph = countryService.getCountryGraph();
+
+        for (int origin = 0; origin < countryGraph.size(); origin += 7) {
+            for (int destination = 0; destination < countryGraph.size(); destination++) {
+                String originCode = countryGraph.cca3Of(origin);
+                String destinationCode = countryGraph.cca3Of(destination);
+                Object expected = CompactBreadthFirstSearchCountryServiceTest.findLandRoute(breadthFirstSearch,
+                        originCode, destinationCode);
+                Object actual = findLandRoute(originCode, destinationCode, RouteMetric.HOPS);
+                if (expected instanceof List<?> expectedRoute) {
+                    assertThat((List<?>) actual).as("%s -> %s", originCode, destinationCode).hasSameSizeAs(expectedRoute);
+                } else {
+                    assertThat(actual).as("%s -> %s", originCode, destinationCode).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldFindCheapestRoutes_whenAStarOrDijkstra() throws IOException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        WeightedSearchBuffers buffers = new WeightedSearchBuffers(countryGraph.size());
+
+        for (EdgeCostFunction costFunction : List.of(GreatCircleDistance.CENTROIDS, GreatCircleDistance.CAPITALS)) {
+            for (int origin = 0; origin < countryGraph.size(); origin += 3) {
+                double[] expectedCosts = bellmanFord(countryGraph, origin, costFunction);
+                for (int destination = 0; destination < countryGraph.size(); destination++) {
+                    for (boolean heuristic : new boolean[]{true, false}) {
+                        boolean found = WeightedSearchCountryService.search(countryGraph, origin, destination,
+                                costFunction, heuristic, buffers);
+
+                        assertThat(found).isEqualTo(expectedCosts[destination] != Double.POSITIVE_INFINITY);
+                        if (found) {
+                            List<String> route = buffers.routeTo(countryGraph, destination);
+                            assertThat(routeCost(countryGraph, route, costFunction))
+                                    .as("%s -> %s", countryGraph.cca3Of(origin), countryGraph.cca3Of(destination))
+                                    .isCloseTo(expectedCosts[destination], within(1e-6));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldExpandFewerCountries_whenAStar() throws IOException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        WeightedSearchBuffers buffers = new WeightedSearchBuffers(countryGraph.size());
+        int source = countryGraph.ordinalOf("PRT");
+        int target = countryGraph.ordinalOf("CHN");
+
+        WeightedSearchCountryService.search(countryGraph, source, target, GreatCircleDistance.CENTROIDS, false, buffers);
+        int dijkstraExpanded = buffers.expanded;
+        WeightedSearchCountryService.search(countryGraph, source, target, GreatCircleDistance.CENTROIDS, true, buffers);
+
+        assertThat(buffers.expanded).isLessThan(dijkstraExpanded);
+    }
+
+    @Test
+    void shouldUsePluggedCostFunction() throws InvalidCountryException, IOException, PathNotFoundException {
+        EdgeCostFunction avoidingAustria = (countryGraph, from, to) -> countryGraph.cca3Of(to).equals("AUT")
+                ? 1_000_000
+                : GreatCircleDistance.CENTROIDS.cost(countryGraph, from, to);
+        sut = new WeightedSearchCountryService(countryService, Map.of(RouteMetric.DISTANCE, avoidingAustria));
+
+        assertThat(sut.findLandRoute("CZE", "ITA", RouteMetric.DISTANCE))
+                .doesNotContain("AUT").startsWith("CZE").endsWith("ITA");
+    }
+
+    @Test
+    void shouldFindCheapestLooplessAlternatives() throws InvalidCountryException, IOException, PathNotFoundException {
+        CountryGraph countryGraph = countryService.getCountryGraph();
+        for (RouteMetric metric : RouteMetric.values()) {
+            AlternativeRoutesResponseDto response = sut.findAlternativeRoutes("CZE", "ITA", metric, 8);
+            List<AlternativeRoutesResponseDto.AlternativeRoute> routes = response.routes();
+
+            assertThat(response.truncated()).isFalse();
+            assertThat(routes).hasSize(8);
+            assertThat(routes.get(0).route()).isEqualTo(sut.findLandRoute("CZE", "ITA", metric));
+            assertThat(routes).extracting(AlternativeRoutesResponseDto.AlternativeRoute::route).doesNotHaveDuplicates();
+            for (AlternativeRoutesResponseDto.AlternativeRoute route : routes) {
+                assertThat(route.route()).startsWith("CZE").endsWith("ITA").doesNotHaveDuplicates();
+            }
+
+            EdgeCostFunction costFunction = costFunctionOf(metric);
+            double maxCost = routes.get(routes.size() - 1).cost();
+            List<Double> expectedCosts = new ArrayList<>();
+            simpleRouteCosts(countryGraph, costFunction, countryGraph.ordinalOf("ITA"), maxCost + 1e-6,
+                    new ArrayList<>(List.of(countryGraph.ordinalOf("CZE"))), 0, expectedCosts);
+            expectedCosts.sort(null);
+            for (int i = 0; i < routes.size(); i++) {
+                assertThat(routes.get(i).cost()).as("%s route %d", metric, i).isCloseTo(expectedCosts.get(i), within(1e-6))
+                        .isCloseTo(routeCost(countryGraph, routes.get(i).route(), costFunction), within(1e-6));
+            }
+        }
+    }
+
+    @Test
+    void shouldTruncateAlternatives_whenExpansionBudgetExhausted()
+            throws InvalidCountryException, IOException, PathNotFoundException {
+        sut.setAlternativesMaxExpanded(30);
+
+        AlternativeRoutesResponseDto response = sut.findAlternativeRoutes("PRT", "CHN", RouteMetric.DISTANCE, 10);
+
+        assertThat(response.truncated()).isTrue();
+        assertThat(response.routes()).hasSizeLessThan(10);
+    }
+
+    @Test
+    void shouldThrowPathNotFoundException_whenAlternativesNotConnected() {
+        assertThrows(PathNotFoundException.class, () -> sut.findAlternativeRoutes("GBR", "FRA", RouteMetric.HOPS, 3));
+    }
+
+    @Test
+    void shouldRecordSearchMetrics() throws InvalidCountryException, IOException, PathNotFoundException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        sut.setRoutingMetrics(new RoutingMetrics(meterRegistry));
+
+        sut.findLandRoute("CZE", "ITA", RouteMetric.CAPITAL_DISTANCE);
+
+        assertThat(meterRegistry.get("router.route.search").tag("engine", "weighted-capital-distance").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("router.route.build").tag("engine", "weighted-capital-distance").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldThrowPathNotFoundException_whenCountriesNotConnected() {
+        assertThrows(PathNotFoundException.class, () -> sut.findLandRoute("GBR", "FRA", RouteMetric.DISTANCE));
+    }
+
+    @Test
+    void shouldThrowInvalidCountryException_whenCountryInvalid() {
+        assertThrows(InvalidCountryException.class, () -> sut.findLandRoute("XXX", "FRA", RouteMetric.DISTANCE));
+    }
+
+    private static EdgeCostFunction costFunctionOf(RouteMetric metric) {
+        return switch (metric) {
+            case HOPS -> (countryGraph, from, to) -> 1;
+            case DISTANCE -> GreatCircleDistance.CENTROIDS;
+            case CAPITAL_DISTANCE -> GreatCircleDistance.CAPITALS;
+        };
+    }
+
+    /**
+     * Collects the costs of all the loopless routes from the last country of {@code route} to {@code target} that
+     * cost at most {@code maxCost}.
+     */
+    private static void simpleRouteCosts(CountryGraph countryGraph, EdgeCostFunction costFunction, int target,
+                                         double maxCost, List<Integer> route, double cost, List<Double> costs) {
+        int current = route.get(route.size() - 1);
+        if (current == target) {
+            costs.add(cost);
+            return;
+        }
+        for (int i = countryGraph.firstNeighborIndex(current); i < countryGraph.lastNeighborIndex(current); i++) {
+            int neighbor = countryGraph.neighborAt(i);
+            double neighborCost = cost + costFunction.cost(countryGraph, current, neighbor);
+            if (!route.contains(neighbor) && neighborCost <= maxCost) {
+                route.add(neighbor);
+                simpleRouteCosts(countryGraph, costFunction, target, maxCost, route, neighborCost, costs);
+                route.remove(route.size() - 1);
+            }
+        }
+    }
+
+    private Object findLandRoute(String origin, String destination, RouteMetric metric) {
+        try {
+            return sut.findLandRoute(origin, destination, metric);
+        } catch (Exception e) {
+            return e.getClass();
+        }
+    }
+
+    private static double routeCost(CountryGraph countryGraph, List<String> route, EdgeCostFunction costFunction) {
+        double cost = 0;
+        for (int i = 1; i < route.size(); i++) {
+            cost += costFunction.cost(countryGraph, countryGraph.ordinalOf(route.get(i - 1)),
+                    countryGraph.ordinalOf(route.get(i)));
+        }
+        return cost;
+    }
+
+    private static double[] bellmanFord(CountryGraph countryGraph, int source, EdgeCostFunction costFunction) {
+        double[] costs = new double[countryGraph.size()];
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+        costs[source] = 0;
+        boolean relaxed = true;
+        while (relaxed) {
+            relaxed = false;
+            for (int from = 0; from < countryGraph.size(); from++) {
+                for (int i = countryGraph.firstNeighborIndex(from); i < countryGraph.lastNeighborIndex(from); i++) {
+                    int to = countryGraph.neighborAt(i);
+                    double cost = costs[from] + costFunction.cost(countryGraph, from, to);
+                    if (cost < costs[to]) {
+                        costs[to] = cost;
+                        relaxed = true;
+                    }
+                }
+            }
+        }
+        return costs;
+    }
+}